@@ -0,0 +1,37 @@
+package com.github.awsjavakit.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic test data, so that results are comparable between runs.
+ */
+final class BenchmarkData {
+
+  private static final long SEED = 42;
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789 ";
+  private static final int LINE_LENGTH = 200;
+
+  private BenchmarkData() {
+  }
+
+  static List<String> jsonLines(int numberOfLines) {
+    var random = new Random(SEED);
+    return IntStream.range(0, numberOfLines)
+      .mapToObj(index -> jsonLine(index, random))
+      .toList();
+  }
+
+  static String text(int numberOfLines) {
+    return String.join(System.lineSeparator(), jsonLines(numberOfLines));
+  }
+
+  private static String jsonLine(int index, Random random) {
+    var text = new StringBuilder(LINE_LENGTH);
+    for (int i = 0; i < LINE_LENGTH; i++) {
+      text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return "{\"id\":" + index + ",\"text\":\"" + text + "\"}";
+  }
+}
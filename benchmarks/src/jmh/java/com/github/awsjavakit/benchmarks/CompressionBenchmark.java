@@ -0,0 +1,59 @@
+package com.github.awsjavakit.benchmarks;
+
+import com.github.awsjavakit.s3.CompressionCodec;
+import com.github.awsjavakit.s3.StringCompressor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the gzip compression levels used for JSON-lines objects. Codecs backed by external
+ * libraries can be compared by adding them to the parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CompressionBenchmark {
+
+  private static final int READ_BUFFER_SIZE = 8192;
+
+  @Param({"1", "6", "9"})
+  public int gzipLevel;
+
+  private List<String> lines;
+  private CompressionCodec codec;
+
+  @Setup(Level.Trial)
+  public void createData() {
+    lines = BenchmarkData.jsonLines(10_000);
+    codec = CompressionCodec.gzip(gzipLevel);
+  }
+
+  @Benchmark
+  public long compressLines(Blackhole blackhole) throws IOException {
+    try (var compressed = new StringCompressor(lines, codec).compressedData()) {
+      return drain(compressed, blackhole);
+    }
+  }
+
+  private static long drain(InputStream stream, Blackhole blackhole) throws IOException {
+    var buffer = new byte[READ_BUFFER_SIZE];
+    var total = 0L;
+    for (var read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+      blackhole.consume(buffer);
+      total += read;
+    }
+    return total;
+  }
+}
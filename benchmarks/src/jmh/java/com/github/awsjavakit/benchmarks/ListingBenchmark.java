@@ -0,0 +1,77 @@
+package com.github.awsjavakit.benchmarks;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.s3.ListingResult;
+import com.github.awsjavakit.s3.S3Driver;
+import com.github.awsjavakit.testingutils.aws.FakeS3Client;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the listing of large prefixes and the accumulation of listing pages with
+ * {@link ListingResult#add(ListingResult)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ListingBenchmark {
+
+  private static final String BUCKET = "benchmark";
+  private static final UnixPath FOLDER = UnixPath.of("folder");
+  private static final int PAGE_SIZE = S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING;
+
+  @Param({"10000", "100000"})
+  public int numberOfFiles;
+
+  private S3Driver s3Driver;
+  private List<ListingResult> pages;
+
+  @Setup(Level.Trial)
+  public void insertFiles() throws IOException {
+    s3Driver = new S3Driver(new FakeS3Client(), BUCKET);
+    for (int i = 0; i < numberOfFiles; i++) {
+      s3Driver.insertFile(FOLDER.addChild("file" + i), new ByteArrayInputStream(new byte[0]));
+    }
+    pages = new ArrayList<>();
+    for (int start = 0; start < numberOfFiles; start += PAGE_SIZE) {
+      var files = IntStream.range(start, Math.min(start + PAGE_SIZE, numberOfFiles))
+        .mapToObj(index -> FOLDER.addChild("file" + index))
+        .toList();
+      pages.add(new ListingResult(files, "file" + start, true));
+    }
+  }
+
+  @Benchmark
+  public List<UnixPath> listAllFiles() {
+    return s3Driver.listAllFiles(FOLDER);
+  }
+
+  @Benchmark
+  public long streamAllFiles() {
+    try (var files = s3Driver.streamAllFiles(FOLDER)) {
+      return files.count();
+    }
+  }
+
+  @Benchmark
+  public ListingResult accumulateListingResults() {
+    var result = ListingResult.emptyResult();
+    for (var page : pages) {
+      result = result.add(page);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,60 @@
+package com.github.awsjavakit.benchmarks;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.s3.S3Driver;
+import com.github.awsjavakit.testingutils.aws.FakeS3Client;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the read paths of {@link S3Driver} for plain and gzip-compressed objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class S3DriverReadBenchmark {
+
+  private static final String BUCKET = "benchmark";
+  private static final UnixPath PLAIN_FILE = UnixPath.of("folder", "file.json");
+  private static final UnixPath GZIP_FILE = UnixPath.of("folder", "file.json.gz");
+
+  @Param({"10", "10000"})
+  public int numberOfLines;
+
+  private S3Driver s3Driver;
+
+  @Setup(Level.Trial)
+  public void insertFiles() throws IOException {
+    s3Driver = new S3Driver(new FakeS3Client(), BUCKET);
+    var content = BenchmarkData.text(numberOfLines);
+    s3Driver.insertFile(PLAIN_FILE, content);
+    s3Driver.insertFile(GZIP_FILE, content);
+  }
+
+  @Benchmark
+  public String getPlainFile() {
+    return s3Driver.getFile(PLAIN_FILE);
+  }
+
+  @Benchmark
+  public String getGzipFile() {
+    return s3Driver.getFile(GZIP_FILE);
+  }
+
+  @Benchmark
+  public void getGzipFileLineByLine(Blackhole blackhole) {
+    try (var lines = s3Driver.getLines(GZIP_FILE)) {
+      lines.forEach(blackhole::consume);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.awsjavakit.benchmarks;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.s3.S3Driver;
+import com.github.awsjavakit.testingutils.aws.FakeS3Client;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the write paths of {@link S3Driver}. The fake client is replaced before every
+ * iteration, so that stored objects do not accumulate across iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class S3DriverWriteBenchmark {
+
+  private static final String BUCKET = "benchmark";
+  private static final UnixPath PLAIN_FILE = UnixPath.of("folder", "file.json");
+  private static final UnixPath GZIP_FILE = UnixPath.of("folder", "file.json.gz");
+  private static final UnixPath FOLDER = UnixPath.of("folder");
+
+  @Param({"10", "10000"})
+  public int numberOfLines;
+
+  private S3Driver s3Driver;
+  private String content;
+  private List<String> lines;
+
+  @Setup(Level.Trial)
+  public void createData() {
+    content = BenchmarkData.text(numberOfLines);
+    lines = BenchmarkData.jsonLines(numberOfLines);
+  }
+
+  @Setup(Level.Iteration)
+  public void createDriver() {
+    s3Driver = new S3Driver(new FakeS3Client(), BUCKET);
+  }
+
+  @Benchmark
+  public URI insertPlainFile() throws IOException {
+    return s3Driver.insertFile(PLAIN_FILE, content);
+  }
+
+  @Benchmark
+  public URI insertGzipFile() throws IOException {
+    return s3Driver.insertFile(GZIP_FILE, content);
+  }
+
+  @Benchmark
+  public URI insertAndCompressObjectsFromList() throws IOException {
+    return s3Driver.insertAndCompressObjects(FOLDER, lines);
+  }
+
+  @Benchmark
+  public URI insertAndCompressObjectsFromStream() throws IOException {
+    return s3Driver.insertAndCompressObjects(FOLDER, lines.stream());
+  }
+}
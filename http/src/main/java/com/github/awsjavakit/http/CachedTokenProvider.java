@@ -1,46 +1,94 @@
 package com.github.awsjavakit.http;
 
+import static java.util.Objects.nonNull;
 import static java.util.function.Predicate.not;
 
 import com.github.awsjavakit.http.token.OAuthTokenEntry;
+import com.github.awsjavakit.http.updatestrategies.ProactiveRefreshTokenCacheUpdateStrategy;
+import com.github.awsjavakit.http.updatestrategies.SingleFlightTokenCacheUpdateStrategy;
 import com.github.awsjavakit.http.updatestrategies.TokenCacheUpdateStrategy;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 public class CachedTokenProvider implements TokenProvider {
 
   private final TokenProvider tokenProvider;
   private final TokenCacheUpdateStrategy updateStrategy;
-  private OAuthTokenEntry token;
+  private final AtomicReference<OAuthTokenEntry> token;
 
   public CachedTokenProvider(TokenProvider newTokenProvider,
     TokenCacheUpdateStrategy updateStrategy) {
     this.tokenProvider = newTokenProvider;
     this.updateStrategy = updateStrategy;
-
+    this.token = new AtomicReference<>();
   }
 
   public static TokenCacheUpdateStrategy defaultStrategy() {
     return new LocalCacheUpdateStrategy();
   }
 
+  /**
+   * Returns a strategy where only one of the callers that find the token expired fetches a new
+   * token, and the others wait for it. The strategy must not be shared between caches.
+   *
+   * @return a new single-flight strategy.
+   */
+  public static TokenCacheUpdateStrategy singleFlightStrategy() {
+    return new SingleFlightTokenCacheUpdateStrategy();
+  }
+
+  /**
+   * Returns a single-flight strategy that also refreshes the token in the background during the
+   * last 10% of its lifetime, so that callers do not wait for a new token in steady state. The
+   * strategy must not be shared between caches.
+   *
+   * @return a new proactive refresh strategy.
+   * @see ProactiveRefreshTokenCacheUpdateStrategy
+   */
+  public static TokenCacheUpdateStrategy proactiveRefreshStrategy() {
+    return new ProactiveRefreshTokenCacheUpdateStrategy();
+  }
+
   @Override
   public OAuthTokenEntry fetchToken() {
     return updateStrategy.fetchAndUpdate(this::fetchCachedEntry, this::updateCache);
   }
 
+  /**
+   * Returns a completed future when the cached token is valid. Otherwise, the token is fetched
+   * through the update strategy on a virtual thread, so that the caller is not blocked and
+   * concurrent callers still share a single refresh when the strategy is single-flight.
+   *
+   * @return a future completed with the token.
+   */
+  @Override
+  public CompletableFuture<OAuthTokenEntry> fetchTokenAsync() {
+    var cached = token.get();
+    return nonNull(cached) && !cached.hasExpired()
+           ? CompletableFuture.completedFuture(fetchToken())
+           : TokenProvider.super.fetchTokenAsync();
+  }
+
+  @Override
+  public void invalidate(OAuthTokenEntry rejectedToken) {
+    token.updateAndGet(cached -> rejectedToken.isSameTokenAs(cached) ? null : cached);
+  }
+
   @Override
   public String getTag() {
     return tokenProvider.getTag();
   }
 
   private OAuthTokenEntry fetchCachedEntry() {
-    return token;
+    return token.get();
   }
 
   private OAuthTokenEntry updateCache() {
-    token = tokenProvider.fetchToken();
-    return token;
+    var newToken = tokenProvider.fetchToken();
+    token.set(newToken);
+    return newToken;
   }
 
   public static class LocalCacheUpdateStrategy implements TokenCacheUpdateStrategy {
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Optional;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
@@ -38,6 +39,21 @@ public abstract class DynamoCachedTokenProvider implements TokenProvider {
     return strategy.fetchAndUpdate(this::fetchCachedEntry, this::updateCache);
   }
 
+  /**
+   * Deletes the stored token if it is the rejected one. The check and the deletion are not atomic,
+   * so a token stored by another process in between may be deleted too, which only costs one more
+   * refresh.
+   *
+   * @param rejectedToken the token that the server rejected.
+   */
+  @Override
+  public void invalidate(OAuthTokenEntry rejectedToken) {
+    var cached = fetchCachedEntry();
+    if (rejectedToken.isSameTokenAs(cached)) {
+      dynamoClient.deleteItem(createDeleteItemRequest());
+    }
+  }
+
   @Override
   public final String getTag() {
     return newTokenProvider.getTag();
@@ -68,6 +84,13 @@ public abstract class DynamoCachedTokenProvider implements TokenProvider {
     return fromGetResponse(dynamoClient.getItem(createGetItemRequest())).orElse(null);
   }
 
+  private DeleteItemRequest createDeleteItemRequest() {
+    return DeleteItemRequest.builder()
+      .key(createSearchKey())
+      .tableName(tableName)
+      .build();
+  }
+
   private GetItemRequest createGetItemRequest() {
     return GetItemRequest.builder()
       .key(createSearchKey())
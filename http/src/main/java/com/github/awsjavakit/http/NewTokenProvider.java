@@ -5,6 +5,7 @@ import static com.github.awsjavakit.http.HttpConstants.HttpHeaders.AUTHORIZATION
 import static com.github.awsjavakit.http.HttpConstants.HttpHeaders.CONTENT_TYPE;
 import static com.github.awsjavakit.http.JsonConfig.fromJson;
 import static com.github.awsjavakit.attempt.Try.attempt;
+import static java.util.Objects.nonNull;
 
 import com.github.awsjavakit.http.token.OAuthTokenEntry;
 import com.github.awsjavakit.http.token.OAuthTokenResponse;
@@ -15,6 +16,8 @@ import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Class that fetches a new Bearer token, using an {@link OAuthCredentialsProvider}.
@@ -48,6 +51,24 @@ public class NewTokenProvider implements TokenProvider {
 
   }
 
+  /**
+   * Fetches a new token with {@link HttpClient#sendAsync}, so that no thread waits for the
+   * authorization server.
+   *
+   * @return a future completed with the new token, or with an {@link AuthenticationException}.
+   */
+  @Override
+  public CompletableFuture<OAuthTokenEntry> fetchTokenAsync() {
+    return httpClient.sendAsync(formatRequestForOauth2Token(),
+        BodyHandlers.ofString(StandardCharsets.UTF_8))
+      .thenApply(HttpResponse::body)
+      .thenApply(body -> fromJson(body, OAuthTokenResponse.class))
+      .thenApply(response -> OAuthTokenEntry.fromResponse(response, getTag()))
+      .exceptionally(fail -> {
+        throw newAuthenticationException(getTag(), unwrap(fail));
+      });
+  }
+
   @Override
   public String getTag() {
     return credentialsProvider.getTag();
@@ -80,10 +101,16 @@ public class NewTokenProvider implements TokenProvider {
       () -> this.httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
       .map(HttpResponse::body)
       .map(body -> fromJson(body, OAuthTokenResponse.class))
-      .orElseThrow(fail->newAuthenticationException(getTag()));
+      .orElseThrow(fail->newAuthenticationException(getTag(), fail.getException()));
+  }
+
+  private static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException && nonNull(failure.getCause())
+           ? failure.getCause()
+           : failure;
   }
 
-  private RuntimeException newAuthenticationException(String tag) {
-    return new AuthenticationException("Could not authenticate for credentials:"+tag);
+  private RuntimeException newAuthenticationException(String tag, Throwable cause) {
+    return new AuthenticationException("Could not authenticate for credentials:"+tag, cause);
   }
 }
@@ -1,5 +1,8 @@
 package com.github.awsjavakit.http;
 
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+
+import com.github.awsjavakit.http.token.OAuthTokenEntry;
 import com.github.awsjavakit.misc.JacocoGenerated;
 import java.io.IOException;
 import java.net.Authenticator;
@@ -15,16 +18,25 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiPredicate;
+import java.util.function.Function;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
 
 /**
  * A wrapper of HttpClient that performs an OAuth2 authentication of "grant_type"
- * "client_credentials" before each query.
+ * "client_credentials" before each query. The asynchronous methods fetch the token with
+ * {@link TokenProvider#fetchTokenAsync()}, so they never block the calling thread.
+ *
+ * <p>When the server rejects the token with a 401 response, the body of the response is closed,
+ * the token is invalidated and the request is sent once more with a new token. The asynchronous
+ * methods invalidate the token on a virtual thread, because invalidating a shared token may
+ * block. Requests with a streamed body (of unknown length) are not sent again, and their 401
+ * response is returned as is.
  */
 public class OAuth2HttpClient extends HttpClient implements Tagged {
 
   public static final String AUTHORIZATION_HEADER = "Authorization";
+  private static final Executor VIRTUAL_THREADS = command -> Thread.ofVirtual().start(command);
   private final HttpClient httpClient;
   private final TokenProvider tokenProvider;
 
@@ -42,25 +54,28 @@ public class OAuth2HttpClient extends HttpClient implements Tagged {
   @Override
   public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> responseBodyHandler)
     throws IOException, InterruptedException {
-    var authorizedRequest = authorizeRequest(request);
-
-    return  httpClient.send(authorizedRequest, responseBodyHandler);
-
+    var token = tokenProvider.fetchToken();
+    var response = httpClient.send(authorizeRequest(request, token), responseBodyHandler);
+    if (shouldReplay(request, response)) {
+      discardBody(response);
+      tokenProvider.invalidate(token);
+      return httpClient.send(authorizeRequest(request), responseBodyHandler);
+    }
+    return response;
   }
 
   @Override
   public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
     BodyHandler<T> responseBodyHandler) {
-    var authorizedRequest = authorizeRequest(request);
-
-    return httpClient.sendAsync(authorizedRequest, responseBodyHandler);
+    return sendAsyncWithReplay(request,
+      authorizedRequest -> httpClient.sendAsync(authorizedRequest, responseBodyHandler));
   }
 
   @Override
   public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
     BodyHandler<T> responseBodyHandler, PushPromiseHandler<T> pushPromiseHandler) {
-    var authorizedRequest = authorizeRequest(request);
-    return httpClient.sendAsync(authorizedRequest, responseBodyHandler, pushPromiseHandler);
+    return sendAsyncWithReplay(request, authorizedRequest ->
+      httpClient.sendAsync(authorizedRequest, responseBodyHandler, pushPromiseHandler));
   }
 
   @JacocoGenerated
@@ -122,10 +137,51 @@ public class OAuth2HttpClient extends HttpClient implements Tagged {
     return tokenProvider.getTag();
   }
 
+  // Requests whose body has an unknown length are assumed to be streams that cannot be sent twice.
+  private static boolean shouldReplay(HttpRequest request, HttpResponse<?> response) {
+    return response.statusCode() == HTTP_UNAUTHORIZED
+           && request.bodyPublisher().map(body -> body.contentLength() >= 0).orElse(true);
+  }
+
+  private <T> CompletableFuture<HttpResponse<T>> sendAsyncWithReplay(HttpRequest request,
+    Function<HttpRequest, CompletableFuture<HttpResponse<T>>> send) {
+    return tokenProvider.fetchTokenAsync()
+      .thenCompose(token -> send.apply(authorizeRequest(request, token))
+        .thenCompose(response -> shouldReplay(request, response)
+                                 ? replayAsync(request, response, token, send)
+                                 : CompletableFuture.completedFuture(response)));
+  }
+
+  private <T> CompletableFuture<HttpResponse<T>> replayAsync(HttpRequest request,
+    HttpResponse<T> rejectedResponse, OAuthTokenEntry rejectedToken,
+    Function<HttpRequest, CompletableFuture<HttpResponse<T>>> send) {
+    return CompletableFuture.runAsync(() -> {
+        discardBody(rejectedResponse);
+        tokenProvider.invalidate(rejectedToken);
+      }, VIRTUAL_THREADS)
+      .thenCompose(ignored -> tokenProvider.fetchTokenAsync())
+      .thenCompose(token -> send.apply(authorizeRequest(request, token)));
+  }
+
+  // The body of a rejected response may keep the connection busy until it is consumed or closed
+  // (e.g. an InputStream), so it is closed before the request is sent again.
+  private static void discardBody(HttpResponse<?> response) {
+    if (response.body() instanceof AutoCloseable body) {
+      try {
+        body.close();
+      } catch (Exception e) {
+        throw new IllegalStateException("Could not close the body of the rejected response", e);
+      }
+    }
+  }
+
   private HttpRequest authorizeRequest(HttpRequest request) {
-    var bearerToken = tokenProvider.fetchToken().value();
+    return authorizeRequest(request, tokenProvider.fetchToken());
+  }
+
+  private HttpRequest authorizeRequest(HttpRequest request, OAuthTokenEntry token) {
     return HttpRequest.newBuilder(request, filterOutAuthHeader())
-      .setHeader(AUTHORIZATION_HEADER, "Bearer " + bearerToken)
+      .setHeader(AUTHORIZATION_HEADER, "Bearer " + token.value())
       .build();
   }
 
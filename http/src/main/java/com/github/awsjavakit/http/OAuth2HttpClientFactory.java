@@ -0,0 +1,39 @@
+package com.github.awsjavakit.http;
+
+import java.net.http.HttpClient;
+
+/**
+ * Creates {@link OAuth2HttpClient}s for many tenants that share one {@link HttpClient}, and
+ * therefore one connection pool, and one {@link SharedTokenCache}. The clients are lightweight
+ * views, so they can be created per request.
+ */
+public class OAuth2HttpClientFactory {
+
+  private final HttpClient httpClient;
+  private final SharedTokenCache tokenCache;
+
+  public OAuth2HttpClientFactory(HttpClient httpClient, SharedTokenCache tokenCache) {
+    this.httpClient = httpClient;
+    this.tokenCache = tokenCache;
+  }
+
+  public static OAuth2HttpClientFactory create(HttpClient httpClient) {
+    return new OAuth2HttpClientFactory(httpClient, SharedTokenCache.create());
+  }
+
+  /**
+   * Returns a client that authenticates with the given credentials. Clients for credentials with
+   * the same tag share the same cached token.
+   *
+   * @param credentialsProvider the credentials of the tenant.
+   * @return a client for the tenant.
+   */
+  public OAuth2HttpClient clientFor(OAuthCredentialsProvider credentialsProvider) {
+    var newTokenProvider = NewTokenProvider.create(httpClient, credentialsProvider);
+    return OAuth2HttpClient.create(httpClient, tokenCache.forTenant(newTokenProvider));
+  }
+
+  public SharedTokenCache tokenCache() {
+    return tokenCache;
+  }
+}
@@ -0,0 +1,174 @@
+package com.github.awsjavakit.http;
+
+import static java.util.Objects.nonNull;
+
+import com.github.awsjavakit.http.token.OAuthTokenEntry;
+import com.github.awsjavakit.misc.cache.ConcurrentLruCache;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Token cache shared by many tenants, where every tenant is identified by the tag of its
+ * {@link TokenProvider} ({@link Tagged#getTag()}). Tags must therefore be unique per set of
+ * credentials. Tokens are refreshed per tenant in a single flight: when a token is missing or has
+ * expired, one caller fetches a new token and the other callers of the same tenant wait for it,
+ * while the other tenants are not affected.
+ *
+ * <p>The cache holds at most {@code maxEntries} tokens and evicts the least recently used one when
+ * it is full. A token is also discarded {@code timeToLive} after it was cached, even if it has not
+ * expired yet. The tokens are kept in a {@link ConcurrentLruCache}, so that tenants do not wait for
+ * each other when they read or replace their tokens.
+ */
+public class SharedTokenCache {
+
+  public static final int DEFAULT_MAX_ENTRIES = 1000;
+  public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+  private final Duration timeToLive;
+  private final Supplier<Instant> now;
+  private final ConcurrentLruCache<String, CachedToken> entries;
+  private final ConcurrentMap<String, CompletableFuture<OAuthTokenEntry>> refreshesInFlight;
+
+  public SharedTokenCache(int maxEntries, Duration timeToLive) {
+    this(maxEntries, timeToLive, Instant::now);
+  }
+
+  SharedTokenCache(int maxEntries, Duration timeToLive, Supplier<Instant> now) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Cache must hold at least one token");
+    }
+    this.timeToLive = timeToLive;
+    this.now = now;
+    this.entries = ConcurrentLruCache.withMaxEntries(maxEntries);
+    this.refreshesInFlight = new ConcurrentHashMap<>();
+  }
+
+  public static SharedTokenCache create() {
+    return new SharedTokenCache(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE);
+  }
+
+  /**
+   * Returns a lightweight view of this cache for one tenant. The view fetches new tokens from the
+   * given provider and caches them under its tag.
+   *
+   * @param newTokenProvider the provider of new tokens for the tenant.
+   * @return a TokenProvider backed by this cache.
+   */
+  public TokenProvider forTenant(TokenProvider newTokenProvider) {
+    return new TenantTokenProvider(this, newTokenProvider);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  OAuthTokenEntry fetchToken(TokenProvider newTokenProvider) {
+    var tag = newTokenProvider.getTag();
+    var cached = validCachedToken(tag);
+    if (nonNull(cached)) {
+      return cached;
+    }
+    var refresh = new CompletableFuture<OAuthTokenEntry>();
+    var ongoingRefresh = refreshesInFlight.putIfAbsent(tag, refresh);
+    return nonNull(ongoingRefresh)
+           ? await(ongoingRefresh)
+           : refresh(newTokenProvider, refresh);
+  }
+
+  void invalidate(String tag, OAuthTokenEntry rejectedToken) {
+    entries.removeIf(tag, cached -> rejectedToken.isSameTokenAs(cached.token()));
+  }
+
+  private static OAuthTokenEntry await(CompletableFuture<OAuthTokenEntry> refresh) {
+    try {
+      return refresh.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  // The cache is checked again, because a refresh may have completed between the first check and
+  // the start of this one.
+  private OAuthTokenEntry refresh(TokenProvider newTokenProvider,
+    CompletableFuture<OAuthTokenEntry> refresh) {
+    var tag = newTokenProvider.getTag();
+    try {
+      var cached = validCachedToken(tag);
+      var token = nonNull(cached) ? cached : fetchAndCache(newTokenProvider);
+      refresh.complete(token);
+      return token;
+    } catch (RuntimeException | Error e) {
+      refresh.completeExceptionally(e);
+      throw e;
+    } finally {
+      refreshesInFlight.remove(tag, refresh);
+    }
+  }
+
+  private OAuthTokenEntry fetchAndCache(TokenProvider newTokenProvider) {
+    var token = newTokenProvider.fetchToken();
+    put(newTokenProvider.getTag(), token);
+    return token;
+  }
+
+  // Only the stale entry is removed, because another caller may have replaced it meanwhile.
+  private OAuthTokenEntry validCachedToken(String tag) {
+    var cached = entries.get(tag).orElse(null);
+    if (nonNull(cached) && cached.isValid(now.get())) {
+      return cached.token();
+    }
+    if (nonNull(cached)) {
+      entries.removeIf(tag, cached::equals);
+    }
+    return null;
+  }
+
+  private void put(String tag, OAuthTokenEntry token) {
+    entries.put(tag, new CachedToken(token, now.get().plus(timeToLive)));
+  }
+
+  private record CachedToken(OAuthTokenEntry token, Instant evictionTime) {
+
+    boolean isValid(Instant now) {
+      return now.isBefore(evictionTime) && !token.hasExpired();
+    }
+  }
+
+  private static final class TenantTokenProvider implements TokenProvider {
+
+    private final SharedTokenCache cache;
+    private final TokenProvider newTokenProvider;
+
+    private TenantTokenProvider(SharedTokenCache cache, TokenProvider newTokenProvider) {
+      this.cache = cache;
+      this.newTokenProvider = newTokenProvider;
+    }
+
+    @Override
+    public OAuthTokenEntry fetchToken() {
+      return cache.fetchToken(newTokenProvider);
+    }
+
+    @Override
+    public CompletableFuture<OAuthTokenEntry> fetchTokenAsync() {
+      var cached = cache.validCachedToken(getTag());
+      return nonNull(cached)
+             ? CompletableFuture.completedFuture(cached)
+             : TokenProvider.super.fetchTokenAsync();
+    }
+
+    @Override
+    public void invalidate(OAuthTokenEntry rejectedToken) {
+      cache.invalidate(getTag(), rejectedToken);
+    }
+
+    @Override
+    public String getTag() {
+      return newTokenProvider.getTag();
+    }
+  }
+}
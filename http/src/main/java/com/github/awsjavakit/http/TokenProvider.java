@@ -4,6 +4,7 @@ import com.github.awsjavakit.http.token.OAuthTokenEntry;
 import com.github.awsjavakit.http.updatestrategies.DefaultTokenCacheUpdateStrategy;
 import com.github.awsjavakit.http.updatestrategies.TokenCacheUpdateStrategy;
 import java.net.http.HttpClient;
+import java.util.concurrent.CompletableFuture;
 
 public interface TokenProvider extends Tagged {
 
@@ -30,6 +31,23 @@ public interface TokenProvider extends Tagged {
     return new CachedTokenProvider(tokenRefresher, CachedTokenProvider.defaultStrategy());
   }
 
+  /**
+   * Creates a locally cached TokenProvider where, when the cached token has expired, only one
+   * caller requests a new token and all concurrent callers reuse it.
+   *
+   * @param httpClient              a simple HttpClient.
+   * @param authCredentialsProvider an OAuthCredentials provider supplying the credentials for
+   *                                generating new tokens
+   * @return a TokenProvider
+   */
+  static TokenProvider singleFlightCachedTokenProvider(
+    HttpClient httpClient,
+    OAuthCredentialsProvider authCredentialsProvider) {
+    var tokenRefresher =
+      NewTokenProvider.create(httpClient, authCredentialsProvider);
+    return new CachedTokenProvider(tokenRefresher, CachedTokenProvider.singleFlightStrategy());
+  }
+
   static TokenCacheUpdateStrategy defaultUpdateStrategy() {
     return new DefaultTokenCacheUpdateStrategy(
       DefaultTokenCacheUpdateStrategy.MINIMUM_SLEEP_AMOUNT,
@@ -38,4 +56,27 @@ public interface TokenProvider extends Tagged {
 
   OAuthTokenEntry fetchToken();
 
+  /**
+   * Fetches a token without blocking the calling thread. By default, {@link #fetchToken()} is
+   * called on a new virtual thread; providers that can fetch tokens asynchronously override this.
+   *
+   * @return a future completed with the token, or with the failure to fetch it.
+   */
+  default CompletableFuture<OAuthTokenEntry> fetchTokenAsync() {
+    return CompletableFuture.supplyAsync(this::fetchToken,
+      command -> Thread.ofVirtual().start(command));
+  }
+
+  /**
+   * Discards a token that the server has rejected, so that the next fetch returns a new token. The
+   * token is discarded only if it is still the cached one, so that concurrent callers that were
+   * rejected with the same token cause a single refresh. Cached tokens are compared with
+   * {@link OAuthTokenEntry#isSameTokenAs(OAuthTokenEntry)}. Providers without a cache ignore it.
+   *
+   * @param rejectedToken the token that the server rejected.
+   */
+  default void invalidate(OAuthTokenEntry rejectedToken) {
+    // Nothing is cached by default.
+  }
+
 }
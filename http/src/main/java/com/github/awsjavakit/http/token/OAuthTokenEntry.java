@@ -33,4 +33,15 @@ public record OAuthTokenEntry(
   public boolean hasExpired() {
     return Instant.now().isAfter(expiration);
   }
+
+  /**
+   * Returns whether the entry holds the same access token as the other entry. Entries read back
+   * from a shared store are new objects, so every cache identifies tokens by their value.
+   *
+   * @param other the other entry, possibly {@code null}.
+   * @return {@code true} if both entries hold the same access token.
+   */
+  public boolean isSameTokenAs(OAuthTokenEntry other) {
+    return other != null && value.equals(other.value());
+  }
 }
@@ -0,0 +1,83 @@
+package com.github.awsjavakit.http.updatestrategies;
+
+import static java.util.Objects.isNull;
+
+import com.github.awsjavakit.http.token.OAuthTokenEntry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-flight strategy that also refreshes the token in the background when it enters the last
+ * part of its lifetime (the refresh window), while the callers keep using the still valid token.
+ * In steady state no caller waits for a new token, and no request is sent with a token that is
+ * about to expire. The window is widened by a random amount, drawn once per token, so that
+ * processes sharing a token do not all refresh it at the same moment.
+ *
+ * <p>The strategy keeps the refresh in flight, so every cache must have its own instance.
+ */
+public class ProactiveRefreshTokenCacheUpdateStrategy extends
+  SingleFlightTokenCacheUpdateStrategy {
+
+  public static final double DEFAULT_REFRESH_WINDOW = 0.1;
+  public static final double DEFAULT_JITTER = 0.5;
+  private final double refreshWindow;
+  private final double jitter;
+  private final AtomicReference<TokenJitter> currentJitter = new AtomicReference<>();
+
+  /**
+   * Creates a strategy with a custom refresh window.
+   *
+   * @param refreshWindow the fraction of the token lifetime, before the expiration, in which the
+   *                      token is refreshed. For example, 0.1 refreshes the token in the last 10%
+   *                      of its lifetime.
+   * @param jitter        the maximum random widening of the window, as a fraction of the window.
+   */
+  public ProactiveRefreshTokenCacheUpdateStrategy(double refreshWindow, double jitter) {
+    super();
+    if (refreshWindow <= 0 || refreshWindow >= 1) {
+      throw new IllegalArgumentException("Refresh window must be between 0 and 1 (exclusive)");
+    }
+    if (jitter < 0) {
+      throw new IllegalArgumentException("Jitter must not be negative");
+    }
+    this.refreshWindow = refreshWindow;
+    this.jitter = jitter;
+  }
+
+  public ProactiveRefreshTokenCacheUpdateStrategy() {
+    this(DEFAULT_REFRESH_WINDOW, DEFAULT_JITTER);
+  }
+
+  @Override
+  protected boolean shouldRefreshEarly(OAuthTokenEntry token) {
+    if (isNull(token.timestamp())) {
+      return false;
+    }
+    var lifetime = Duration.between(token.timestamp(), token.expiration()).toMillis();
+    var remaining = Duration.between(Instant.now(), token.expiration()).toMillis();
+    var window = lifetime * refreshWindow * (1 + jitterOf(token));
+    return remaining < window;
+  }
+
+  // The widening is drawn when a token is first checked and kept for as long as that token is
+  // cached, so that repeated checks do not make an early refresh more and more likely.
+  private double jitterOf(OAuthTokenEntry token) {
+    return currentJitter.updateAndGet(current -> isNull(current) || current.isNotFor(token)
+                                                 ? drawJitter(token)
+                                                 : current)
+      .value();
+  }
+
+  private TokenJitter drawJitter(OAuthTokenEntry token) {
+    return new TokenJitter(token.timestamp(), jitter * ThreadLocalRandom.current().nextDouble());
+  }
+
+  private record TokenJitter(Instant timestamp, double value) {
+
+    private boolean isNotFor(OAuthTokenEntry token) {
+      return !timestamp.equals(token.timestamp());
+    }
+  }
+}
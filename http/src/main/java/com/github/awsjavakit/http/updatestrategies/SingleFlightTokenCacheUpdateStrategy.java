@@ -0,0 +1,110 @@
+package com.github.awsjavakit.http.updatestrategies;
+
+import static java.util.Objects.nonNull;
+
+import com.github.awsjavakit.http.token.OAuthTokenEntry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Strategy that lets exactly one caller refresh an expired or missing token, while all other
+ * callers wait for the same refresh and reuse its result. This avoids a burst of authentication
+ * requests when the token expires under load. If the refresh fails, every waiting caller receives
+ * the failure and the next call starts a new refresh.
+ *
+ * <p>The strategy keeps the refresh in flight, so every cache must have its own instance.
+ */
+public class SingleFlightTokenCacheUpdateStrategy implements TokenCacheUpdateStrategy {
+
+  private static final Logger logger =
+    LoggerFactory.getLogger(SingleFlightTokenCacheUpdateStrategy.class);
+  private final AtomicReference<CompletableFuture<OAuthTokenEntry>> refreshInFlight;
+
+  public SingleFlightTokenCacheUpdateStrategy() {
+    this.refreshInFlight = new AtomicReference<>();
+  }
+
+  @Override
+  public OAuthTokenEntry fetchAndUpdate(Supplier<OAuthTokenEntry> fetchCachedEntry,
+    Supplier<OAuthTokenEntry> updateCache) {
+    var cached = fetchCachedEntry.get();
+    if (!isValid(cached)) {
+      return awaitRefresh(fetchCachedEntry, updateCache);
+    }
+    if (shouldRefreshEarly(cached)) {
+      refreshInBackground(fetchCachedEntry, updateCache);
+    }
+    return cached;
+  }
+
+  /**
+   * Decides whether a token that is still valid should be replaced in the background. The callers
+   * keep receiving the valid token while it is being replaced.
+   *
+   * @param token a valid token.
+   * @return {@code true} if a new token should be fetched in the background.
+   */
+  protected boolean shouldRefreshEarly(OAuthTokenEntry token) {
+    return false;
+  }
+
+  private static boolean isValid(OAuthTokenEntry token) {
+    return nonNull(token) && !token.hasExpired();
+  }
+
+  private static OAuthTokenEntry await(CompletableFuture<OAuthTokenEntry> refresh) {
+    try {
+      return refresh.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  private OAuthTokenEntry awaitRefresh(Supplier<OAuthTokenEntry> fetchCachedEntry,
+    Supplier<OAuthTokenEntry> updateCache) {
+    var refresh = new CompletableFuture<OAuthTokenEntry>();
+    var ongoingRefresh = refreshInFlight.compareAndExchange(null, refresh);
+    return nonNull(ongoingRefresh)
+           ? await(ongoingRefresh)
+           : refresh(fetchCachedEntry, updateCache, refresh);
+  }
+
+  private void refreshInBackground(Supplier<OAuthTokenEntry> fetchCachedEntry,
+    Supplier<OAuthTokenEntry> updateCache) {
+    var refresh = new CompletableFuture<OAuthTokenEntry>();
+    if (refreshInFlight.compareAndSet(null, refresh)) {
+      Thread.ofVirtual().start(() -> refreshQuietly(fetchCachedEntry, updateCache, refresh));
+    }
+  }
+
+  // A failed background refresh is retried by the next caller, since the token is still valid.
+  private void refreshQuietly(Supplier<OAuthTokenEntry> fetchCachedEntry,
+    Supplier<OAuthTokenEntry> updateCache, CompletableFuture<OAuthTokenEntry> refresh) {
+    try {
+      refresh(fetchCachedEntry, updateCache, refresh);
+    } catch (RuntimeException e) {
+      logger.warn("Background token refresh failed", e);
+    }
+  }
+
+  // The cache is checked again, because a refresh may have completed between the first check and
+  // the start of this one.
+  private OAuthTokenEntry refresh(Supplier<OAuthTokenEntry> fetchCachedEntry,
+    Supplier<OAuthTokenEntry> updateCache, CompletableFuture<OAuthTokenEntry> refresh) {
+    try {
+      var cached = fetchCachedEntry.get();
+      var token = isValid(cached) && !shouldRefreshEarly(cached) ? cached : updateCache.get();
+      refresh.complete(token);
+      return token;
+    } catch (RuntimeException | Error e) {
+      refresh.completeExceptionally(e);
+      throw e;
+    } finally {
+      refreshInFlight.compareAndSet(refresh, null);
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.github.awsjavakit.http;
 
 import static com.github.awsjavakit.http.JsonConfig.toJson;
 import static com.github.awsjavakit.http.TokenProvider.locallyCachedTokenProvider;
+import static com.github.awsjavakit.http.TokenProvider.singleFlightCachedTokenProvider;
 import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomString;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
@@ -13,13 +14,17 @@ import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options
 import static com.github.awsjavakit.attempt.Try.attempt;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.github.awsjavakit.http.token.OAuthTokenEntry;
 import com.github.awsjavakit.http.token.OAuthTokenResponse;
 import com.github.awsjavakit.misc.paths.UnixPath;
 import com.github.awsjavakit.misc.paths.UriWrapper;
 import com.github.awsjavakit.testingutils.networking.WiremockHttpClient;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -92,12 +97,125 @@ class CachedTokenProviderTest {
     assertThat(tokenProvider.getTag()).isEqualTo(authCredentialsProvider.getTag());
   }
 
+  @Test
+  void shouldFetchOneTokenWhenManyThreadsFindTheCachedTokenMissingAtTheSameTime() {
+    setupAuthResponse(600, 200);
+    var tokenProvider = singleFlightCachedTokenProvider(httpClient, authCredentialsProvider);
+    var threads = 16;
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var tokens = IntStream.range(0, threads)
+        .mapToObj(ignored -> executor.submit(tokenProvider::fetchToken))
+        .toList()
+        .stream()
+        .map(future -> attempt(future::get).orElseThrow())
+        .toList();
+      assertThat(tokens).hasSize(threads)
+        .allSatisfy(token -> assertThat(token.value()).isEqualTo(accessToken));
+    }
+    server.verify(exactly(1), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+  }
+
+  @Test
+  void shouldRefreshTokenOnceWhenUsingSingleFlightStrategyAndTokenHasExpired() {
+    setupAuthResponse(0);
+    var tokenProvider = singleFlightCachedTokenProvider(httpClient, authCredentialsProvider);
+    tokenProvider.fetchToken();
+    var actualToken = tokenProvider.fetchToken();
+    server.verify(exactly(2), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+    assertThat(actualToken.value()).isEqualTo(this.accessToken);
+  }
+
+  @Test
+  void shouldServeCachedTokenWithoutRefreshingWhenUsingProactiveStrategyOutsideRefreshWindow() {
+    setupAuthResponse(600, 200);
+    var tokenProvider = new CachedTokenProvider(
+      NewTokenProvider.create(httpClient, authCredentialsProvider),
+      CachedTokenProvider.proactiveRefreshStrategy());
+    var threads = 16;
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var tokens = IntStream.range(0, threads)
+        .mapToObj(ignored -> executor.submit(tokenProvider::fetchToken))
+        .toList()
+        .stream()
+        .map(future -> attempt(future::get).orElseThrow())
+        .toList();
+      assertThat(tokens).hasSize(threads)
+        .allSatisfy(token -> assertThat(token.value()).isEqualTo(accessToken));
+    }
+    var actualToken = tokenProvider.fetchToken();
+
+    server.verify(exactly(1), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+    assertThat(actualToken.value()).isEqualTo(this.accessToken);
+  }
+
+  @Test
+  void shouldPropagateFailureToAllWaitingCallersAndRetryOnNextCall() {
+    var tokenProvider = singleFlightCachedTokenProvider(httpClient, authCredentialsProvider);
+    assertThatThrownBy(tokenProvider::fetchToken).isInstanceOf(AuthenticationException.class);
+
+    setupAuthResponse(600);
+    var actualToken = tokenProvider.fetchToken();
+    assertThat(actualToken.value()).isEqualTo(this.accessToken);
+  }
+
+  @Test
+  void shouldFetchNewTokenAfterCachedTokenHasBeenInvalidated() {
+    setupAuthResponse(600);
+    var tokenProvider = singleFlightCachedTokenProvider(httpClient, authCredentialsProvider);
+    var rejectedToken = tokenProvider.fetchToken();
+    tokenProvider.invalidate(rejectedToken);
+    issueNewAccessToken();
+    var actualToken = tokenProvider.fetchToken();
+
+    server.verify(exactly(2), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+    assertThat(actualToken.value()).isNotEqualTo(rejectedToken.value());
+  }
+
+  @Test
+  void shouldNotDiscardNewerTokenWhenInvalidatingAnOlderToken() {
+    setupAuthResponse(600);
+    var tokenProvider = singleFlightCachedTokenProvider(httpClient, authCredentialsProvider);
+    var rejectedToken = tokenProvider.fetchToken();
+    tokenProvider.invalidate(rejectedToken);
+    issueNewAccessToken();
+    var newToken = tokenProvider.fetchToken();
+    tokenProvider.invalidate(rejectedToken);
+
+    assertThat(tokenProvider.fetchToken()).isSameAs(newToken);
+    server.verify(exactly(2), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+  }
+
+  @Test
+  void shouldDiscardCachedTokenWhenInvalidatingACopyOfIt() {
+    setupAuthResponse(600);
+    var tokenProvider = singleFlightCachedTokenProvider(httpClient, authCredentialsProvider);
+    var cachedToken = tokenProvider.fetchToken();
+    var rejectedCopy = new OAuthTokenEntry(cachedToken.value(), cachedToken.timestamp(),
+      cachedToken.expiration(), cachedToken.tag());
+
+    tokenProvider.invalidate(rejectedCopy);
+    tokenProvider.fetchToken();
+
+    server.verify(exactly(2), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+  }
+
+  private void issueNewAccessToken() {
+    this.accessToken = randomString();
+    setupAuthResponse(600);
+  }
+
   private void setupAuthResponse(int tokenDurationInSeconds) {
+    setupAuthResponse(tokenDurationInSeconds, 0);
+  }
+
+  private void setupAuthResponse(int tokenDurationInSeconds, int delayInMillis) {
     server.stubFor(post(urlPathEqualTo(AUTH_PATH.toString()))
       .withBasicAuth(clientId, clientSecret)
       .withFormParam("grant_type", equalTo("client_credentials"))
       .willReturn(
-        aResponse().withStatus(HTTP_OK).withBody(createResponse(tokenDurationInSeconds))));
+        aResponse().withStatus(HTTP_OK)
+          .withFixedDelay(delayInMillis)
+          .withBody(createResponse(tokenDurationInSeconds))));
 
   }
 
@@ -127,6 +127,20 @@ class DynamoCachedTokenProviderTest extends LocalDynamo {
     assertThat(token.value()).isEqualTo(accessToken);
   }
 
+  @Test
+  void shouldDeleteStoredTokenWhenItIsInvalidated() {
+    setupAuthHandshake(600);
+    var tokenProvider = new SimpleDynamoCachedTokenProvider(createNewTokenProvider(), dynamoClient,
+      tableName);
+    var rejectedToken = tokenProvider.fetchToken();
+    tokenProvider.invalidate(rejectedToken);
+
+    var response = dynamoClient.getItem(createGetRequest(rejectedToken));
+    assertThat(response.hasItem() && !response.item().isEmpty()).isFalse();
+    tokenProvider.fetchToken();
+    server.verify(exactly(2), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+  }
+
   private Oauth2Credentials newCredentials() {
     return new Oauth2Credentials(authUri, clientId, clientSecret, randomString());
   }
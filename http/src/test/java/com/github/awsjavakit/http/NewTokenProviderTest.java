@@ -16,6 +16,7 @@ import com.github.awsjavakit.testingutils.networking.WiremockHttpClient;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import java.net.http.HttpClient;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -74,6 +75,31 @@ class NewTokenProviderTest {
     assertThat(exception.getMessage()).contains(wrongCredentials.getTag());
   }
 
+  @Test
+  void shouldFetchTokenFromServerAsynchronously() {
+    setupAuthHandshake();
+
+    var tokenProvider = TokenProvider.defaultProvider(httpClient, authCredentials);
+    var token = tokenProvider.fetchTokenAsync().join();
+    assertThat(token.value()).isEqualTo(accessToken);
+    assertThat(token.tag()).isEqualTo(authCredentials.getTag());
+  }
+
+  @Test
+  void shouldCompleteExceptionallyWithTagWhenAsynchronousAuthenticationFails() {
+    setupAuthHandshake();
+    var wrongCredentials = new Oauth2Credentials(authCredentials.getAuthEndpointUri(), randomString(),
+      randomString(), authCredentials.getTag());
+    var tokenProvider = TokenProvider.defaultProvider(httpClient, wrongCredentials);
+    var exception = assertThrows(CompletionException.class,
+      () -> tokenProvider.fetchTokenAsync().join());
+    assertThat(exception.getCause()).isInstanceOf(AuthenticationException.class);
+    assertThat(exception.getCause().getMessage()).contains(wrongCredentials.getTag());
+    assertThat(exception.getCause().getCause())
+      .isNotNull()
+      .isNotInstanceOf(CompletionException.class);
+  }
+
   private void setupAuthHandshake() {
     server.stubFor(post(urlPathEqualTo(AUTH_PATH.toString()))
       .withBasicAuth(clientId, clientSecret)
@@ -0,0 +1,95 @@
+package com.github.awsjavakit.http;
+
+import static com.github.awsjavakit.http.JsonConfig.toJson;
+import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomString;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.awsjavakit.http.token.OAuthTokenResponse;
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.paths.UriWrapper;
+import com.github.awsjavakit.testingutils.networking.WiremockHttpClient;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OAuth2HttpClientFactoryTest {
+
+  private static final UnixPath AUTH_PATH = UnixPath.of("/oauth2/token");
+  private static final String PROTECTED_ENDPOINT_PATH = "/protected/endpoint";
+  private WireMockServer server;
+  private URI authEndpoint;
+  private OAuth2HttpClientFactory factory;
+
+  @BeforeEach
+  public void init() {
+    this.server = new WireMockServer(options().httpDisabled(true).dynamicHttpsPort());
+    server.start();
+    this.authEndpoint = UriWrapper.fromUri(server.baseUrl()).addChild(AUTH_PATH).getUri();
+    this.factory = OAuth2HttpClientFactory.create(WiremockHttpClient.create().build());
+  }
+
+  @Test
+  void shouldAuthenticateEveryTenantWithItsOwnCredentials()
+    throws IOException, InterruptedException {
+    var firstTenant = newTenant();
+    var secondTenant = newTenant();
+
+    var firstResponse = factory.clientFor(firstTenant.credentials()).send(protectedRequest(),
+      BodyHandlers.ofString());
+    var secondResponse = factory.clientFor(secondTenant.credentials()).send(protectedRequest(),
+      BodyHandlers.ofString());
+
+    assertThat(firstResponse.body()).isEqualTo(firstTenant.accessToken());
+    assertThat(secondResponse.body()).isEqualTo(secondTenant.accessToken());
+    assertThat(factory.tokenCache().size()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldShareTokenBetweenClientsOfTheSameTenant() throws IOException, InterruptedException {
+    var tenant = newTenant();
+
+    factory.clientFor(tenant.credentials()).send(protectedRequest(), BodyHandlers.ofString());
+    var client = factory.clientFor(tenant.credentials());
+    client.send(protectedRequest(), BodyHandlers.ofString());
+
+    assertThat(client.getTag()).isEqualTo(tenant.credentials().getTag());
+    server.verify(exactly(1), postRequestedFor(urlPathEqualTo(AUTH_PATH.toString())));
+  }
+
+  private Tenant newTenant() {
+    var tenant = new Tenant(
+      new Oauth2Credentials(authEndpoint, randomString(), randomString(), randomString()),
+      randomString());
+    var tokenResponse = new OAuthTokenResponse(tenant.accessToken(), 600);
+    server.stubFor(post(urlPathEqualTo(AUTH_PATH.toString()))
+      .withBasicAuth(tenant.credentials().getClientId(), tenant.credentials().getClientSecret())
+      .willReturn(aResponse().withStatus(HTTP_OK).withBody(toJson(tokenResponse))));
+    server.stubFor(get(urlPathEqualTo(PROTECTED_ENDPOINT_PATH))
+      .withHeader(OAuth2HttpClient.AUTHORIZATION_HEADER,
+        equalTo("Bearer " + tenant.accessToken()))
+      .willReturn(aResponse().withStatus(HTTP_OK).withBody(tenant.accessToken())));
+    return tenant;
+  }
+
+  private HttpRequest protectedRequest() {
+    var uri = UriWrapper.fromUri(server.baseUrl()).addChild(PROTECTED_ENDPOINT_PATH).getUri();
+    return HttpRequest.newBuilder(uri).GET().build();
+  }
+
+  private record Tenant(Oauth2Credentials credentials, String accessToken) {
+
+  }
+}
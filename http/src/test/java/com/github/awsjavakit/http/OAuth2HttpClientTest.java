@@ -3,10 +3,15 @@ package com.github.awsjavakit.http;
 import static com.github.awsjavakit.http.OAuth2HttpClient.AUTHORIZATION_HEADER;
 import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomString;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.github.awsjavakit.http.token.OAuthTokenEntry;
@@ -14,19 +19,28 @@ import com.github.awsjavakit.misc.paths.UriWrapper;
 import com.github.awsjavakit.testingutils.networking.WiremockHttpClient;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.matching.EqualToPattern;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandler;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
 import java.net.http.HttpResponse.PushPromiseHandler;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -92,11 +106,167 @@ class OAuth2HttpClientTest {
     assertThat(response.statusCode()).isEqualTo(HTTP_OK);
   }
 
+  @Test
+  void shouldNotBlockCallerWhileWaitingForTokenWhenSendingAsyncRequest()
+    throws InterruptedException, ExecutionException {
+    var pendingToken = new CompletableFuture<OAuthTokenEntry>();
+    var asyncTokenProvider = new SimpleTokenProvider(authToken) {
+      @Override
+      public OAuthTokenEntry fetchToken() {
+        throw new IllegalStateException("Async requests should not fetch tokens synchronously");
+      }
+
+      @Override
+      public CompletableFuture<OAuthTokenEntry> fetchTokenAsync() {
+        return pendingToken;
+      }
+    };
+    var asyncClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      asyncTokenProvider);
+    var request = HttpRequest.newBuilder(protectedEndpoint()).GET().build();
+
+    var response = asyncClient.sendAsync(request, BodyHandlers.ofString());
+    assertThat(response).isNotDone();
+
+    var now = Instant.now();
+    pendingToken.complete(
+      new OAuthTokenEntry(authToken, now, now.plus(SOME_LONG_DURATION), randomString()));
+    assertThat(response.get().statusCode()).isEqualTo(HTTP_OK);
+  }
+
+  @Test
+  void shouldInvalidateRejectedTokenAndReplayRequestWhenServerRespondsUnauthorized()
+    throws IOException, InterruptedException {
+    var rotatingTokenProvider = new RotatingTokenProvider(randomString(), authToken);
+    var rotatingClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      rotatingTokenProvider);
+    setupUnauthorizedResponse();
+    var request = HttpRequest.newBuilder(protectedEndpoint())
+      .POST(BodyPublishers.ofString(randomString()))
+      .build();
+
+    var response = rotatingClient.send(request, BodyHandlers.ofString());
+
+    assertThat(response.statusCode()).isEqualTo(HTTP_OK);
+    assertThat(rotatingTokenProvider.invalidations()).isOne();
+  }
+
+  @Test
+  void shouldInvalidateRejectedTokenAndReplayAsyncRequestWhenServerRespondsUnauthorized()
+    throws InterruptedException, ExecutionException {
+    var rotatingTokenProvider = new RotatingTokenProvider(randomString(), authToken);
+    var rotatingClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      rotatingTokenProvider);
+    setupUnauthorizedResponse();
+    var request = HttpRequest.newBuilder(protectedEndpoint()).GET().build();
+
+    var response = rotatingClient.sendAsync(request, BodyHandlers.ofString()).get();
+
+    assertThat(response.statusCode()).isEqualTo(HTTP_OK);
+    assertThat(rotatingTokenProvider.invalidations()).isOne();
+  }
+
+  @Test
+  void shouldInvalidateRejectedTokenOnVirtualThreadWhenReplayingAsyncRequest()
+    throws InterruptedException, ExecutionException {
+    var rotatingTokenProvider = new RotatingTokenProvider(randomString(), authToken);
+    var rotatingClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      rotatingTokenProvider);
+    setupUnauthorizedResponse();
+    var request = HttpRequest.newBuilder(protectedEndpoint()).GET().build();
+
+    rotatingClient.sendAsync(request, BodyHandlers.ofString()).get();
+
+    assertThat(rotatingTokenProvider.invalidatedOnVirtualThread()).isTrue();
+  }
+
+  @Test
+  void shouldCloseBodyOfRejectedResponseBeforeReplayingRequest()
+    throws IOException, InterruptedException {
+    var rotatingTokenProvider = new RotatingTokenProvider(randomString(), authToken);
+    var rotatingClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      rotatingTokenProvider);
+    setupUnauthorizedResponse();
+    var closedBodies = new AtomicInteger();
+    var request = HttpRequest.newBuilder(protectedEndpoint()).GET().build();
+
+    var response = rotatingClient.send(request, closeTrackingHandler(closedBodies));
+
+    assertThat(response.statusCode()).isEqualTo(HTTP_OK);
+    assertThat(closedBodies.get()).isOne();
+    try (var body = response.body()) {
+      assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8))
+        .isEqualTo(expectedResponseBody);
+    }
+  }
+
+  @Test
+  void shouldCloseBodyOfRejectedResponseBeforeReplayingAsyncRequest()
+    throws IOException, InterruptedException, ExecutionException {
+    var rotatingTokenProvider = new RotatingTokenProvider(randomString(), authToken);
+    var rotatingClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      rotatingTokenProvider);
+    setupUnauthorizedResponse();
+    var closedBodies = new AtomicInteger();
+    var request = HttpRequest.newBuilder(protectedEndpoint()).GET().build();
+
+    var response = rotatingClient.sendAsync(request, closeTrackingHandler(closedBodies)).get();
+
+    assertThat(response.statusCode()).isEqualTo(HTTP_OK);
+    assertThat(closedBodies.get()).isOne();
+    response.body().close();
+  }
+
+  @Test
+  void shouldReplayRequestOnlyOnceWhenNewTokenIsAlsoRejected()
+    throws IOException, InterruptedException {
+    var rotatingTokenProvider = new RotatingTokenProvider(randomString(), randomString());
+    var rotatingClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      rotatingTokenProvider);
+    setupUnauthorizedResponse();
+    var request = HttpRequest.newBuilder(protectedEndpoint()).GET().build();
+
+    var response = rotatingClient.send(request, BodyHandlers.ofString());
+
+    assertThat(response.statusCode()).isEqualTo(HTTP_UNAUTHORIZED);
+    assertThat(rotatingTokenProvider.invalidations()).isOne();
+    authServer.verify(exactly(2), getRequestedFor(urlPathEqualTo(PROTECTED_ENDPOINT_PATH)));
+  }
+
+  @Test
+  void shouldNotReplayRequestWithStreamedBodyWhenServerRespondsUnauthorized()
+    throws IOException, InterruptedException {
+    var rotatingTokenProvider = new RotatingTokenProvider(randomString(), authToken);
+    var rotatingClient = OAuth2HttpClient.create(WiremockHttpClient.create().build(),
+      rotatingTokenProvider);
+    setupUnauthorizedResponse();
+    var body = randomString().getBytes(StandardCharsets.UTF_8);
+    var request = HttpRequest.newBuilder(protectedEndpoint())
+      .POST(BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body)))
+      .build();
+
+    var response = rotatingClient.send(request, BodyHandlers.ofString());
+
+    assertThat(response.statusCode()).isEqualTo(HTTP_UNAUTHORIZED);
+    assertThat(rotatingTokenProvider.invalidations()).isZero();
+  }
+
   @Test
   void shouldReturnTheSameTagAsTheTokenProvider() {
     assertThat(client.getTag()).isEqualTo(tokenProvider.getTag());
   }
 
+  private static BodyHandler<InputStream> closeTrackingHandler(AtomicInteger closedBodies) {
+    return responseInfo -> BodySubscribers.mapping(BodySubscribers.ofInputStream(),
+      stream -> new FilterInputStream(stream) {
+        @Override
+        public void close() throws IOException {
+          closedBodies.incrementAndGet();
+          super.close();
+        }
+      });
+  }
+
   private static PushPromiseHandler<String> dummyPushPromiseHandler() {
     Function<HttpRequest, BodyHandler<String>> dummyHandler = httpRequest -> BodyHandlers.ofString();
     ConcurrentMap<HttpRequest, CompletableFuture<HttpResponse<String>>> map = new ConcurrentHashMap<>();
@@ -111,10 +281,58 @@ class OAuth2HttpClientTest {
     authServer.stubFor(get(urlPathEqualTo(PROTECTED_ENDPOINT_PATH))
       .withHeader(AUTHORIZATION_HEADER, new EqualToPattern("Bearer " + authToken))
       .willReturn(aResponse().withStatus(HTTP_OK).withBody(expectedResponseBody)));
+    authServer.stubFor(post(urlPathEqualTo(PROTECTED_ENDPOINT_PATH))
+      .withHeader(AUTHORIZATION_HEADER, new EqualToPattern("Bearer " + authToken))
+      .willReturn(aResponse().withStatus(HTTP_OK).withBody(expectedResponseBody)));
+
+  }
+
+  private void setupUnauthorizedResponse() {
+    authServer.stubFor(any(urlPathEqualTo(PROTECTED_ENDPOINT_PATH))
+      .atPriority(10)
+      .willReturn(aResponse().withStatus(HTTP_UNAUTHORIZED)));
+  }
+
+  private static final class RotatingTokenProvider implements TokenProvider {
+
+    private final List<String> tokens;
+    private final AtomicInteger invalidations;
+    private final AtomicBoolean invalidatedOnVirtualThread;
+
+    private RotatingTokenProvider(String... tokens) {
+      this.tokens = List.of(tokens);
+      this.invalidations = new AtomicInteger();
+      this.invalidatedOnVirtualThread = new AtomicBoolean();
+    }
+
+    @Override
+    public OAuthTokenEntry fetchToken() {
+      var now = Instant.now();
+      var token = tokens.get(Math.min(invalidations.get(), tokens.size() - 1));
+      return new OAuthTokenEntry(token, now, now.plus(SOME_LONG_DURATION), getTag());
+    }
+
+    @Override
+    public void invalidate(OAuthTokenEntry rejectedToken) {
+      invalidations.incrementAndGet();
+      invalidatedOnVirtualThread.set(Thread.currentThread().isVirtual());
+    }
 
+    @Override
+    public String getTag() {
+      return "RotatingTokenProvider";
+    }
+
+    public int invalidations() {
+      return invalidations.get();
+    }
+
+    public boolean invalidatedOnVirtualThread() {
+      return invalidatedOnVirtualThread.get();
+    }
   }
 
-  private static final class SimpleTokenProvider implements TokenProvider {
+  private static class SimpleTokenProvider implements TokenProvider {
 
     private final String token;
     private final String tag;
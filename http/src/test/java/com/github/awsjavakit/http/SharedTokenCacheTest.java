@@ -0,0 +1,182 @@
+package com.github.awsjavakit.http;
+
+import static com.github.awsjavakit.attempt.Try.attempt;
+import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.awsjavakit.http.token.OAuthTokenEntry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SharedTokenCacheTest {
+
+  private static final Duration SOME_LONG_DURATION = Duration.ofMinutes(10);
+  private AtomicReference<Instant> now;
+  private SharedTokenCache cache;
+
+  @BeforeEach
+  public void init() {
+    this.now = new AtomicReference<>(Instant.now());
+    this.cache = new SharedTokenCache(2, Duration.ofMinutes(5), now::get);
+  }
+
+  @Test
+  void shouldReuseCachedTokenOfTheSameTenant() {
+    var tenant = new CountingTokenProvider(randomString());
+    var tokenProvider = cache.forTenant(tenant);
+
+    var token = tokenProvider.fetchToken();
+
+    assertThat(tokenProvider.fetchToken()).isSameAs(token);
+    assertThat(tenant.fetches()).isOne();
+  }
+
+  @Test
+  void shouldShareCachedTokenBetweenViewsOfTheSameTag() {
+    var tag = randomString();
+    var tenant = new CountingTokenProvider(tag);
+    var token = cache.forTenant(tenant).fetchToken();
+
+    var otherView = cache.forTenant(new CountingTokenProvider(tag));
+
+    assertThat(otherView.fetchToken()).isSameAs(token);
+    assertThat(tenant.fetches()).isOne();
+  }
+
+  @Test
+  void shouldFetchTokenOnceWhenManyCallersOfTheSameTenantFindItMissing() {
+    var release = new CountDownLatch(1);
+    var tenant = new CountingTokenProvider(randomString(), release);
+    var tokenProvider = cache.forTenant(tenant);
+    var callers = 16;
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = IntStream.range(0, callers)
+        .mapToObj(ignored -> executor.submit(tokenProvider::fetchToken))
+        .toList();
+      release.countDown();
+      var tokens = futures.stream().map(future -> attempt(future::get).orElseThrow()).toList();
+      assertThat(tokens).hasSize(callers).allSatisfy(token -> assertThat(token)
+        .isSameAs(tokens.getFirst()));
+    }
+    assertThat(tenant.fetches()).isOne();
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedTenantWhenCacheIsFull() {
+    var first = new CountingTokenProvider(randomString());
+    var second = new CountingTokenProvider(randomString());
+    var third = new CountingTokenProvider(randomString());
+    cache.forTenant(first).fetchToken();
+    cache.forTenant(second).fetchToken();
+    cache.forTenant(first).fetchToken();
+
+    cache.forTenant(third).fetchToken();
+    cache.forTenant(first).fetchToken();
+    cache.forTenant(second).fetchToken();
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(first.fetches()).isOne();
+    assertThat(second.fetches()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldFetchNewTokenWhenCachedTokenHasOutlivedTimeToLive() {
+    var tenant = new CountingTokenProvider(randomString());
+    var tokenProvider = cache.forTenant(tenant);
+    tokenProvider.fetchToken();
+
+    now.set(now.get().plus(Duration.ofMinutes(6)));
+    tokenProvider.fetchToken();
+
+    assertThat(tenant.fetches()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldFetchNewTokenWhenCachedTokenHasBeenInvalidated() {
+    var tenant = new CountingTokenProvider(randomString());
+    var tokenProvider = cache.forTenant(tenant);
+    var rejectedToken = tokenProvider.fetchToken();
+
+    tokenProvider.invalidate(rejectedToken);
+    var newToken = tokenProvider.fetchToken();
+    tokenProvider.invalidate(rejectedToken);
+
+    assertThat(tokenProvider.fetchToken()).isSameAs(newToken);
+    assertThat(tenant.fetches()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldFetchNewTokenWhenCopyOfCachedTokenHasBeenInvalidated() {
+    var tenant = new CountingTokenProvider(randomString());
+    var tokenProvider = cache.forTenant(tenant);
+    var cachedToken = tokenProvider.fetchToken();
+    var rejectedCopy = new OAuthTokenEntry(cachedToken.value(), cachedToken.timestamp(),
+      cachedToken.expiration(), cachedToken.tag());
+
+    tokenProvider.invalidate(rejectedCopy);
+
+    assertThat(tokenProvider.fetchToken()).isNotEqualTo(cachedToken);
+    assertThat(tenant.fetches()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldReturnCachedTokenAsCompletedFuture() {
+    var tokenProvider = cache.forTenant(new CountingTokenProvider(randomString()));
+    var token = tokenProvider.fetchToken();
+
+    var future = tokenProvider.fetchTokenAsync();
+
+    assertThat(future).isCompletedWithValue(token);
+  }
+
+  @Test
+  void shouldNotAcceptCacheWithoutCapacity() {
+    assertThatThrownBy(() -> new SharedTokenCache(0, Duration.ofMinutes(5)))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static final class CountingTokenProvider implements TokenProvider {
+
+    private final String tag;
+    private final CountDownLatch release;
+    private final AtomicInteger fetches;
+
+    private CountingTokenProvider(String tag, CountDownLatch release) {
+      this.tag = tag;
+      this.release = release;
+      this.fetches = new AtomicInteger();
+    }
+
+    private CountingTokenProvider(String tag) {
+      this(tag, new CountDownLatch(0));
+    }
+
+    @Override
+    public OAuthTokenEntry fetchToken() {
+      attempt(() -> {
+        release.await();
+        return null;
+      }).orElseThrow();
+      fetches.incrementAndGet();
+      var issued = Instant.now();
+      return new OAuthTokenEntry(randomString(), issued, issued.plus(SOME_LONG_DURATION), tag);
+    }
+
+    @Override
+    public String getTag() {
+      return tag;
+    }
+
+    public int fetches() {
+      return fetches.get();
+    }
+  }
+}
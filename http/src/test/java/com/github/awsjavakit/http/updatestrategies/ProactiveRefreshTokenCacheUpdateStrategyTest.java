@@ -0,0 +1,102 @@
+package com.github.awsjavakit.http.updatestrategies;
+
+import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.awsjavakit.http.token.OAuthTokenEntry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProactiveRefreshTokenCacheUpdateStrategyTest {
+
+  private AtomicReference<OAuthTokenEntry> cache;
+  private AtomicInteger refreshes;
+  private CountDownLatch refreshed;
+
+  @BeforeEach
+  public void init() {
+    this.cache = new AtomicReference<>();
+    this.refreshes = new AtomicInteger();
+    this.refreshed = new CountDownLatch(1);
+  }
+
+  @Test
+  void shouldReturnCachedTokenWithoutRefreshingWhenTokenIsOutsideRefreshWindow() {
+    var token = tokenWithRemainingLifetime(Duration.ofMinutes(9));
+    cache.set(token);
+    var strategy = new ProactiveRefreshTokenCacheUpdateStrategy();
+
+    var actualToken = strategy.fetchAndUpdate(cache::get, this::refresh);
+
+    assertThat(actualToken).isEqualTo(token);
+    assertThat(refreshes.get()).isZero();
+  }
+
+  @Test
+  void shouldReturnCachedTokenAndRefreshInTheBackgroundWhenTokenIsInRefreshWindow()
+    throws InterruptedException {
+    var token = tokenWithRemainingLifetime(Duration.ofSeconds(20));
+    cache.set(token);
+    var strategy = new ProactiveRefreshTokenCacheUpdateStrategy();
+
+    var actualToken = strategy.fetchAndUpdate(cache::get, this::refresh);
+
+    assertThat(actualToken).isEqualTo(token);
+    assertThat(refreshed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(cache.get()).isNotEqualTo(token);
+    assertThat(strategy.fetchAndUpdate(cache::get, this::refresh)).isEqualTo(cache.get());
+    assertThat(refreshes.get()).isOne();
+  }
+
+  @Test
+  void shouldRefreshSynchronouslyWhenThereIsNoValidToken() {
+    var strategy = new ProactiveRefreshTokenCacheUpdateStrategy();
+
+    var actualToken = strategy.fetchAndUpdate(cache::get, this::refresh);
+
+    assertThat(actualToken).isEqualTo(cache.get());
+    assertThat(refreshes.get()).isOne();
+  }
+
+  @Test
+  void shouldDrawTheJitterOncePerToken() {
+    var strategy = new ProactiveRefreshTokenCacheUpdateStrategy(0.1, 1.0);
+    var token = tokenWithRemainingLifetime(Duration.ofSeconds(90));
+    var firstDecision = strategy.shouldRefreshEarly(token);
+
+    var decisions = IntStream.range(0, 100)
+      .mapToObj(attempt -> strategy.shouldRefreshEarly(token))
+      .toList();
+
+    assertThat(decisions).containsOnly(firstDecision);
+  }
+
+  @Test
+  void shouldNotAcceptRefreshWindowOutsideTokenLifetime() {
+    assertThatThrownBy(() -> new ProactiveRefreshTokenCacheUpdateStrategy(1.0, 0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private OAuthTokenEntry refresh() {
+    refreshes.incrementAndGet();
+    var token = tokenWithRemainingLifetime(Duration.ofMinutes(10));
+    cache.set(token);
+    refreshed.countDown();
+    return token;
+  }
+
+  // Tokens have a lifetime of 10 minutes, so the default refresh window is the last minute.
+  private static OAuthTokenEntry tokenWithRemainingLifetime(Duration remaining) {
+    var expiration = Instant.now().plus(remaining);
+    var timestamp = expiration.minus(Duration.ofMinutes(10));
+    return new OAuthTokenEntry(randomString(), timestamp, expiration, randomString());
+  }
+}
@@ -0,0 +1,92 @@
+package com.github.awsjavakit.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the flushes of a {@link MetricsService} on a virtual thread, every {@code interval} and
+ * whenever a flush is requested, so that the threads recording measurements never wait for
+ * CloudWatch. A failed flush is logged and does not stop the following flushes.
+ */
+final class BackgroundFlusher implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(BackgroundFlusher.class);
+  private final Runnable flush;
+  private final Duration interval;
+  private final Semaphore wakeUp;
+  private final AtomicBoolean flushRequested;
+  private final Thread thread;
+  private final AtomicBoolean closed;
+
+  private BackgroundFlusher(Runnable flush, Duration interval) {
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Flush interval must be positive");
+    }
+    this.flush = flush;
+    this.interval = interval;
+    this.wakeUp = new Semaphore(0);
+    this.flushRequested = new AtomicBoolean(false);
+    this.closed = new AtomicBoolean(false);
+    this.thread = Thread.ofVirtual().name("metrics-flusher").unstarted(this::run);
+  }
+
+  static BackgroundFlusher start(Runnable flush, Duration interval) {
+    var flusher = new BackgroundFlusher(flush, interval);
+    flusher.thread.start();
+    return flusher;
+  }
+
+  /**
+   * Wakes up the flusher. Repeated requests before the flush starts result in a single flush.
+   */
+  void requestFlush() {
+    if (flushRequested.compareAndSet(false, true)) {
+      wakeUp.release();
+    }
+  }
+
+  /**
+   * Stops the flusher after the flush in progress, if any, has completed.
+   */
+  @Override
+  public void close() {
+    closed.set(true);
+    wakeUp.release();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void run() {
+    while (!closed.get()) {
+      awaitWakeUp();
+      flushRequested.set(false);
+      if (!closed.get()) {
+        flushSafely();
+      }
+    }
+  }
+
+  private void awaitWakeUp() {
+    try {
+      wakeUp.tryAcquire(interval.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      closed.set(true);
+    }
+  }
+
+  private void flushSafely() {
+    try {
+      flush.run();
+    } catch (RuntimeException e) {
+      logger.warn("Failed to flush metrics", e);
+    }
+  }
+}
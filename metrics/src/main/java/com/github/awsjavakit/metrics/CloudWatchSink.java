@@ -0,0 +1,37 @@
+package com.github.awsjavakit.metrics;
+
+import static com.github.awsjavakit.metrics.MetricsService.MAX_REQUEST_SIZE;
+
+import java.util.List;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+
+/**
+ * Sends the data points with {@code PutMetricData} requests of at most
+ * {@link MetricsService#MAX_REQUEST_SIZE} data points each.
+ */
+final class CloudWatchSink implements MetricsSink {
+
+  private final CloudWatchClient cloudwatchClient;
+
+  CloudWatchSink(CloudWatchClient cloudwatchClient) {
+    this.cloudwatchClient = cloudwatchClient;
+  }
+
+  @Override
+  public void send(String namespace, List<MetricDatum> metricData) {
+    for (var from = 0; from < metricData.size(); from += MAX_REQUEST_SIZE) {
+      var to = Math.min(from + MAX_REQUEST_SIZE, metricData.size());
+      cloudwatchClient.putMetricData(createRequest(namespace, metricData.subList(from, to)));
+    }
+  }
+
+  private static PutMetricDataRequest createRequest(String namespace,
+    List<MetricDatum> metricData) {
+    return PutMetricDataRequest.builder()
+      .namespace(namespace)
+      .metricData(metricData)
+      .build();
+  }
+}
@@ -0,0 +1,189 @@
+package com.github.awsjavakit.metrics;
+
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
+
+/**
+ * Writes the data points as CloudWatch Embedded Metric Format (EMF) log events, one JSON object per
+ * line. In AWS Lambda, the events written to the standard output are turned into metrics by
+ * CloudWatch Logs asynchronously, so flushing costs no network call.
+ *
+ * <p>Data points with a single value are written as a number. Statistic sets are written as an
+ * object with the fields {@code Max}, {@code Min}, {@code Count} and {@code Sum}. Data points with
+ * distinct values and counts are written as the same object with the additional arrays
+ * {@code Values} and {@code Counts}, split over several events of at most
+ * {@link #MAX_VALUES_PER_EVENT} values each.
+ *
+ * <p>The events of one flush are rendered in memory and written to the stream at once, so that
+ * concurrent flushes do not interleave their lines.
+ */
+public class EmbeddedMetricFormatSink implements MetricsSink {
+
+  public static final int MAX_VALUES_PER_EVENT = 100;
+  private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+    .build();
+  private final OutputStream outputStream;
+  private final ReentrantLock outputLock;
+
+  public EmbeddedMetricFormatSink(OutputStream outputStream) {
+    this.outputStream = outputStream;
+    this.outputLock = new ReentrantLock();
+  }
+
+  public static EmbeddedMetricFormatSink toStandardOutput() {
+    return new EmbeddedMetricFormatSink(System.out);
+  }
+
+  @Override
+  public void send(String namespace, List<MetricDatum> metricData) {
+    try {
+      var events = render(namespace, metricData);
+      outputLock.lock();
+      try {
+        events.writeTo(outputStream);
+        outputStream.flush();
+      } finally {
+        outputLock.unlock();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ByteArrayOutputStream render(String namespace, List<MetricDatum> metricData)
+    throws IOException {
+    var events = new ByteArrayOutputStream();
+    try (var generator = JSON_FACTORY.createGenerator(events, JsonEncoding.UTF8)) {
+      generator.setRootValueSeparator(null);
+      for (var datum : metricData) {
+        writeEvents(generator, namespace, datum);
+      }
+    }
+    return events;
+  }
+
+  private static void writeEvents(JsonGenerator generator, String namespace, MetricDatum datum)
+    throws IOException {
+    if (datum.hasValues()) {
+      var values = datum.values();
+      for (var from = 0; from < values.size(); from += MAX_VALUES_PER_EVENT) {
+        var to = Math.min(from + MAX_VALUES_PER_EVENT, values.size());
+        var valuesOfEvent = values.subList(from, to);
+        var countsOfEvent = datum.hasCounts() ? datum.counts().subList(from, to) : null;
+        writeEvent(generator, namespace, datum,
+          metricValue -> writeDistribution(metricValue, valuesOfEvent, countsOfEvent));
+      }
+    } else if (nonNull(datum.statisticValues())) {
+      writeEvent(generator, namespace, datum,
+        metricValue -> writeStatisticSet(metricValue, datum.statisticValues()));
+    } else {
+      writeEvent(generator, namespace, datum,
+        metricValue -> metricValue.writeNumber(datum.value()));
+    }
+  }
+
+  private static void writeEvent(JsonGenerator generator, String namespace, MetricDatum datum,
+    MetricValueWriter metricValueWriter) throws IOException {
+    generator.writeStartObject();
+    generator.writeObjectFieldStart("_aws");
+    generator.writeNumberField("Timestamp", datum.timestamp().toEpochMilli());
+    generator.writeArrayFieldStart("CloudWatchMetrics");
+    generator.writeStartObject();
+    generator.writeStringField("Namespace", namespace);
+    generator.writeArrayFieldStart("Dimensions");
+    generator.writeStartArray();
+    for (var dimension : datum.dimensions()) {
+      generator.writeString(dimension.name());
+    }
+    generator.writeEndArray();
+    generator.writeEndArray();
+    generator.writeArrayFieldStart("Metrics");
+    writeMetricDefinition(generator, datum);
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.writeEndArray();
+    generator.writeEndObject();
+    for (var dimension : datum.dimensions()) {
+      generator.writeStringField(dimension.name(), dimension.value());
+    }
+    generator.writeFieldName(datum.metricName());
+    metricValueWriter.write(generator);
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  private static void writeMetricDefinition(JsonGenerator generator, MetricDatum datum)
+    throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("Name", datum.metricName());
+    if (nonNull(datum.unit())) {
+      generator.writeStringField("Unit", datum.unitAsString());
+    }
+    if (nonNull(datum.storageResolution())) {
+      generator.writeNumberField("StorageResolution", datum.storageResolution());
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeStatisticSet(JsonGenerator generator, StatisticSet statistics)
+    throws IOException {
+    generator.writeStartObject();
+    writeStatistics(generator, statistics.maximum(), statistics.minimum(),
+      statistics.sampleCount(), statistics.sum());
+    generator.writeEndObject();
+  }
+
+  // A missing count means that every value occurred once.
+  private static void writeDistribution(JsonGenerator generator, List<Double> values,
+    List<Double> counts) throws IOException {
+    var max = Double.NEGATIVE_INFINITY;
+    var min = Double.POSITIVE_INFINITY;
+    var sampleCount = 0.0;
+    var sum = 0.0;
+    generator.writeStartObject();
+    generator.writeArrayFieldStart("Values");
+    for (var index = 0; index < values.size(); index++) {
+      var value = values.get(index);
+      var count = nonNull(counts) ? counts.get(index) : 1.0;
+      max = Math.max(max, value);
+      min = Math.min(min, value);
+      sampleCount += count;
+      sum += value * count;
+      generator.writeNumber(value);
+    }
+    generator.writeEndArray();
+    generator.writeArrayFieldStart("Counts");
+    for (var index = 0; index < values.size(); index++) {
+      generator.writeNumber(nonNull(counts) ? counts.get(index) : 1.0);
+    }
+    generator.writeEndArray();
+    writeStatistics(generator, max, min, sampleCount, sum);
+    generator.writeEndObject();
+  }
+
+  private static void writeStatistics(JsonGenerator generator, double max, double min,
+    double sampleCount, double sum) throws IOException {
+    generator.writeNumberField("Max", max);
+    generator.writeNumberField("Min", min);
+    generator.writeNumberField("Count", sampleCount);
+    generator.writeNumberField("Sum", sum);
+  }
+
+  @FunctionalInterface
+  private interface MetricValueWriter {
+
+    void write(JsonGenerator generator) throws IOException;
+  }
+}
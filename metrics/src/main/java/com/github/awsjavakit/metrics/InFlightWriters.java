@@ -0,0 +1,48 @@
+package com.github.awsjavakit.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the threads that are currently writing to a {@link SeriesTable}, so that a flush can wait
+ * for them before reading the table. The count is striped over padded cells to avoid contention
+ * between recording threads. A thread always enters and exits through the same cell, so every cell
+ * is non-negative and a sum of zero means that no writer is in flight.
+ */
+final class InFlightWriters {
+
+  // Cells are 128 bytes apart, so that no two cells share a cache line.
+  private static final int PADDING = 16;
+  private final AtomicLongArray cells;
+  private final int mask;
+
+  InFlightWriters() {
+    var stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    this.cells = new AtomicLongArray(stripes * PADDING);
+    this.mask = stripes - 1;
+  }
+
+  int enter() {
+    var cell = (int) (Thread.currentThread().threadId() & mask) * PADDING;
+    cells.incrementAndGet(cell);
+    return cell;
+  }
+
+  void exit(int cell) {
+    cells.decrementAndGet(cell);
+  }
+
+  void awaitNoWriters() {
+    while (hasWriters()) {
+      Thread.yield();
+    }
+  }
+
+  private boolean hasWriters() {
+    for (var cell = 0; cell < cells.length(); cell += PADDING) {
+      if (cells.get(cell) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
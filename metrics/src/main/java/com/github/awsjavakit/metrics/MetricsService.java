@@ -2,42 +2,74 @@ package com.github.awsjavakit.metrics;
 
 import static java.util.Objects.nonNull;
 
+import com.github.awsjavakit.metrics.SeriesTable.Series;
 import java.time.Clock;
+import java.time.Duration;
 import java.util.Collection;
-import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
 import software.amazon.awssdk.services.cloudwatch.model.Dimension;
 import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
-import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
 import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
-
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
+
+/**
+ * Aggregates measurements and sends them to CloudWatch. The measurements are aggregated while they
+ * are registered: every series (a {@link Metric} of an {@link Actor}) keeps only its running
+ * statistics, so the memory used is proportional to the number of series and not to the number of
+ * measurements. The aggregations {@link #SUM}, {@link #AVERAGE}, {@link #MIN} and {@link #MAX} are
+ * computed from these statistics; other aggregation functions receive all the measurements of the
+ * series. Instead of a single aggregated value, a metric can be sent as a {@link StatisticSet} or
+ * as the distinct values of its measurements with their counts (see {@link DatumType}), so that
+ * CloudWatch can compute percentiles. The data points are sent to CloudWatch with
+ * {@code PutMetricData} requests, or written to a {@link MetricsSink} such as the
+ * {@link EmbeddedMetricFormatSink}.
+ *
+ * <p>The data points of a flush that fails are kept and sent again by the next flush, so that a
+ * transient CloudWatch error does not lose the measurements of an interval.
+ */
 public class MetricsService implements AutoCloseable {
 
   public static final int NORMAL_RESOLUTION = 60;
 
   public static final int MAX_REQUEST_SIZE = 1000;
+  public static final int MAX_VALUES_PER_DATUM = 150;
   public static final Function<Collection<Double>, Double> SUM = doubles -> doubles.stream()
     .reduce(Double::sum).orElseThrow();
   public static final Function<Collection<Double>, Double> AVERAGE = doubles ->
     SUM.apply(doubles) / doubles.size();
+  public static final Function<Collection<Double>, Double> MIN = doubles -> doubles.stream()
+    .reduce(Math::min).orElseThrow();
+  public static final Function<Collection<Double>, Double> MAX = doubles -> doubles.stream()
+    .reduce(Math::max).orElseThrow();
   private final Clock clock;
-  private final CloudWatchClient cloudwatchClient;
+  private final MetricsSink sink;
   private final String namespace;
-  private final AtomicInteger listSize;
-  private Deque<Measurement> measurements;
+  private final AtomicReference<SeriesTable> currentTable;
+  private final Queue<List<MetricDatum>> failedFlushes;
+  private final BackgroundFlusher backgroundFlusher;
 
   public MetricsService(Clock clock, CloudWatchClient cloudwatchClient, String namespace) {
+    this(clock, new CloudWatchSink(cloudwatchClient), namespace, null);
+  }
+
+  private MetricsService(Clock clock, MetricsSink sink, String namespace,
+    Duration flushInterval) {
     this.clock = clock;
-    this.cloudwatchClient = cloudwatchClient;
-    this.measurements = new ConcurrentLinkedDeque<>();
-    this.listSize = new AtomicInteger(0);
+    this.sink = sink;
     this.namespace = namespace;
+    this.currentTable = new AtomicReference<>(new SeriesTable());
+    this.failedFlushes = new ConcurrentLinkedQueue<>();
+    this.backgroundFlusher = nonNull(flushInterval)
+                             ? BackgroundFlusher.start(this::flush, flushInterval)
+                             : null;
   }
 
   public static MetricsService create(CloudWatchClient cloudWatchClient, String namespace) {
@@ -50,32 +82,101 @@ public class MetricsService implements AutoCloseable {
     return new MetricsService(clock, cloudWatchClient, namespace);
   }
 
-  public void registerMetric(Actor actor, Metric metric, double value) {
+  public static MetricsService create(Clock clock, MetricsSink sink, String namespace) {
+    return new MetricsService(clock, sink, namespace, null);
+  }
 
-    measurements.add(new Measurement(actor, metric, value));
-    listSize.incrementAndGet();
-    if (listSize.get() >= MAX_REQUEST_SIZE) {
-      flush();
-    }
+  /**
+   * Creates a service that writes the measurements to the standard output in the CloudWatch
+   * Embedded Metric Format, so that in AWS Lambda flushing makes no network call.
+   *
+   * @param namespace the CloudWatch namespace of the metrics.
+   * @return a service that writes the metrics to the standard output.
+   * @see EmbeddedMetricFormatSink
+   */
+  public static MetricsService createWithEmbeddedMetricFormat(String namespace) {
+    return create(Clock.systemDefaultZone(), EmbeddedMetricFormatSink.toStandardOutput(),
+      namespace);
+  }
 
+  public static MetricsService createWithBackgroundFlushing(CloudWatchClient cloudWatchClient,
+    String namespace, Duration flushInterval) {
+    return createWithBackgroundFlushing(Clock.systemDefaultZone(), cloudWatchClient, namespace,
+      flushInterval);
   }
 
-  public void flush() {
-    if (isNotEmpty()) {
-      var aggregateMeasurements = aggregateMeasurements();
-      var metricData = aggregateMeasurements
-        .map(measurement -> measurement.toDataPoint(clock))
-        .toList();
-      var request = createRequest(metricData);
-      cloudwatchClient.putMetricData(request);
-      measurements = new ConcurrentLinkedDeque<>();
-      listSize.set(0);
+  /**
+   * Creates a service that sends the measurements from a background virtual thread, every
+   * {@code flushInterval} and as soon as there are {@link #MAX_REQUEST_SIZE} series. The threads
+   * registering measurements never wait for CloudWatch. Closing the service stops the background
+   * thread and sends the remaining measurements.
+   *
+   * @param clock            the clock used for the timestamps of the data points.
+   * @param cloudWatchClient the client used for sending the measurements.
+   * @param namespace        the CloudWatch namespace of the metrics.
+   * @param flushInterval    the maximum time between two flushes.
+   * @return a service that flushes in the background.
+   */
+  public static MetricsService createWithBackgroundFlushing(Clock clock,
+    CloudWatchClient cloudWatchClient,
+    String namespace,
+    Duration flushInterval) {
+    return createWithBackgroundFlushing(clock, new CloudWatchSink(cloudWatchClient), namespace,
+      flushInterval);
+  }
+
+  public static MetricsService createWithBackgroundFlushing(Clock clock,
+    MetricsSink sink,
+    String namespace,
+    Duration flushInterval) {
+    return new MetricsService(clock, sink, namespace, flushInterval);
+  }
+
+  /**
+   * Adds the value to the statistics of the series. Only the first measurement of a series
+   * allocates memory. The measurements are flushed when there are {@link #MAX_REQUEST_SIZE}
+   * series, which is the number of data points that fit in one CloudWatch request. When the
+   * service flushes in the background, reaching this limit only wakes up the background thread.
+   *
+   * @param actor  the actor the measurement refers to.
+   * @param metric the measured metric.
+   * @param value  the measured value.
+   */
+  public void registerMetric(Actor actor, Metric metric, double value) {
+    var table = currentTable.get();
+    while (!table.tryRecord(actor, metric, value)) {
+      table = currentTable.get();
+    }
+    if (table.numberOfSeries() >= MAX_REQUEST_SIZE) {
+      requestFlush();
     }
+  }
 
+  /**
+   * Sends the data points of earlier failed flushes and then the measurements registered so far.
+   * The series are handed over atomically: measurements registered while the flush is in progress
+   * are kept for the next flush. If sending fails, the data points are kept and sent again by the
+   * next flush; when they span several requests, the requests that had succeeded are sent again
+   * as well.
+   */
+  public void flush() {
+    retryFailedFlushes();
+    var metricData = currentTable.getAndSet(new SeriesTable()).retire().stream()
+      .flatMap(this::toDataPoints)
+      .toList();
+    if (!metricData.isEmpty()) {
+      send(metricData);
+    }
   }
 
+  /**
+   * Stops the background flushing, if any, and sends the remaining measurements.
+   */
   @Override
   public void close() {
+    if (nonNull(backgroundFlusher)) {
+      backgroundFlusher.close();
+    }
     flush();
   }
 
@@ -86,32 +187,70 @@ public class MetricsService implements AutoCloseable {
       .build();
   }
 
-  private Stream<Measurement> aggregateMeasurements() {
-    return
-      measurements.stream()
-        .collect(Collectors.groupingBy(AggregatingKey::from))
-        .values().stream().map(this::aggregateMeasurementsOfSameMetric);
+  private static MetricDatum.Builder dataPoint(Actor actor, Metric metric, Clock clock) {
+    return MetricDatum.builder()
+      .metricName(metric.metricName())
+      .dimensions(createDimension(actor.name(), metric))
+      .storageResolution(NORMAL_RESOLUTION)
+      .timestamp(clock.instant())
+      .unit(metric.unit());
+  }
 
+  private Stream<MetricDatum> toDataPoints(Series series) {
+    return switch (series.metric().datumType()) {
+      case VALUE -> Stream.of(
+        new Measurement(series.actor(), series.metric(), series.aggregatedValue())
+          .toDataPoint(clock));
+      case STATISTIC_SET -> Stream.of(toStatisticSet(series));
+      case VALUES -> toValuesAndCounts(series);
+    };
   }
 
-  private Measurement aggregateMeasurementsOfSameMetric(List<Measurement> list) {
-    var actor = list.getFirst().actor();
-    var metric = list.getFirst().metric();
-    var values = list.stream().map(Measurement::value).toList();
-    var aggregatedValue = metric.aggregationFunction().apply(values);
+  private MetricDatum toStatisticSet(Series series) {
+    var accumulator = series.accumulator();
+    var statistics = StatisticSet.builder()
+      .sampleCount((double) accumulator.count())
+      .sum(accumulator.sum())
+      .minimum(accumulator.min())
+      .maximum(accumulator.max())
+      .build();
+    return dataPoint(series.actor(), series.metric(), clock).statisticValues(statistics).build();
+  }
 
-    return new Measurement(actor, metric, aggregatedValue);
+  // CloudWatch accepts at most MAX_VALUES_PER_DATUM distinct values per datum, so a series with
+  // more distinct values is sent as several data points, which CloudWatch aggregates.
+  private Stream<MetricDatum> toValuesAndCounts(Series series) {
+    var counts = List.copyOf(series.accumulator().counts().entrySet());
+    return IntStream.iterate(0, from -> from < counts.size(), from -> from + MAX_VALUES_PER_DATUM)
+      .mapToObj(from -> counts.subList(from, Math.min(from + MAX_VALUES_PER_DATUM, counts.size())))
+      .map(chunk -> dataPoint(series.actor(), series.metric(), clock)
+        .values(chunk.stream().map(Map.Entry::getKey).toList())
+        .counts(chunk.stream().map(entry -> entry.getValue().doubleValue()).toList())
+        .build());
   }
 
-  private boolean isNotEmpty() {
-    return nonNull(measurements) && listSize.intValue() > 0;
+  private void retryFailedFlushes() {
+    for (var metricData = failedFlushes.poll(); nonNull(metricData);
+      metricData = failedFlushes.poll()) {
+      send(metricData);
+    }
   }
 
-  private PutMetricDataRequest createRequest(List<MetricDatum> metricData) {
-    return PutMetricDataRequest.builder()
-      .namespace(namespace)
-      .metricData(metricData)
-      .build();
+  private void send(List<MetricDatum> metricData) {
+    try {
+      sink.send(namespace, metricData);
+    } catch (RuntimeException e) {
+      failedFlushes.add(metricData);
+      throw e;
+    }
+  }
+
+  private void requestFlush() {
+    if (nonNull(backgroundFlusher)) {
+      backgroundFlusher.requestFlush();
+    } else {
+      flush();
+    }
   }
 
   public record Actor(String name) {
@@ -121,44 +260,55 @@ public class MetricsService implements AutoCloseable {
     }
   }
 
+  /**
+   * How the measurements of a series are sent to CloudWatch.
+   */
+  public enum DatumType {
+    /**
+     * A single value computed by the aggregation function of the metric.
+     */
+    VALUE,
+    /**
+     * The sample count, sum, minimum and maximum of the measurements.
+     */
+    STATISTIC_SET,
+    /**
+     * Every distinct value with the number of its occurrences. CloudWatch computes percentiles
+     * only from data sent this way, or as individual values.
+     */
+    VALUES
+  }
+
   public record Metric(String metricGroup, String metricName, StandardUnit unit,
-                       Function<Collection<Double>, Double> aggregationFunction) {
+                       Function<Collection<Double>, Double> aggregationFunction,
+                       DatumType datumType) {
+
+    public Metric(String metricGroup, String metricName, StandardUnit unit,
+      Function<Collection<Double>, Double> aggregationFunction) {
+      this(metricGroup, metricName, unit, aggregationFunction, DatumType.VALUE);
+    }
 
     public static Metric of(String metricGroup, String metricName, StandardUnit unit,
       Function<Collection<Double>, Double> aggregationFunction) {
       return new Metric(metricGroup, metricName, unit, aggregationFunction);
     }
 
-  }
-
-  record Measurement(Actor actor, Metric metric, double value) {
-
-    public MetricDatum toDataPoint(Clock clock) {
-      var dimension = createDimension(actor.name(), metric);
-      return createDatapoint(value, metric, dimension, clock);
+    public static Metric statisticSet(String metricGroup, String metricName, StandardUnit unit) {
+      return new Metric(metricGroup, metricName, unit, AVERAGE, DatumType.STATISTIC_SET);
     }
 
-    private MetricDatum createDatapoint(double metricValue,
-      Metric metric,
-      Dimension dimension,
-      Clock clock) {
-      return MetricDatum.builder()
-        .metricName(metric.metricName())
-        .dimensions(dimension)
-        .value(metricValue)
-        .storageResolution(NORMAL_RESOLUTION)
-        .timestamp(clock.instant())
-        .unit(metric.unit)
-        .build();
+    public static Metric distribution(String metricGroup, String metricName, StandardUnit unit) {
+      return new Metric(metricGroup, metricName, unit, AVERAGE, DatumType.VALUES);
     }
 
   }
 
-  private record AggregatingKey(Metric metric, Actor actor) {
+  record Measurement(Actor actor, Metric metric, double value) {
 
-    public static AggregatingKey from(Measurement measurement) {
-      return new AggregatingKey(measurement.metric, measurement.actor);
+    public MetricDatum toDataPoint(Clock clock) {
+      return dataPoint(actor, metric, clock).value(value).build();
     }
+
   }
 
 }
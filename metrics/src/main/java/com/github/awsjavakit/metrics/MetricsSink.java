@@ -0,0 +1,19 @@
+package com.github.awsjavakit.metrics;
+
+import java.util.List;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+
+/**
+ * Destination of the data points flushed by a {@link MetricsService}. Flushes may run
+ * concurrently, so implementations must be thread-safe.
+ */
+public interface MetricsSink {
+
+  /**
+   * Sends the data points of one flush.
+   *
+   * @param namespace  the CloudWatch namespace of the metrics.
+   * @param metricData the data points, never empty.
+   */
+  void send(String namespace, List<MetricDatum> metricData);
+}
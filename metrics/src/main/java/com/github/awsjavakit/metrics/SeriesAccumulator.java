@@ -0,0 +1,109 @@
+package com.github.awsjavakit.metrics;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-aggregates the samples of one series (one {@link MetricsService.Metric} of one
+ * {@link MetricsService.Actor}). The sum, count, minimum and maximum are kept in striped
+ * accumulators, so that concurrent threads record samples without contention and without
+ * allocating. The individual samples are retained only for custom aggregation functions that
+ * cannot be computed from these statistics, and the number of occurrences of every distinct value
+ * only for metrics sent as {@link MetricsService.DatumType#VALUES}.
+ */
+final class SeriesAccumulator {
+
+  private final DoubleAdder sum;
+  private final LongAdder count;
+  private final DoubleAccumulator min;
+  private final DoubleAccumulator max;
+  private final Queue<Double> samples;
+  private final ConcurrentMap<Double, LongAdder> counts;
+
+  private SeriesAccumulator(Queue<Double> samples, ConcurrentMap<Double, LongAdder> counts) {
+    this.sum = new DoubleAdder();
+    this.count = new LongAdder();
+    this.min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+    this.max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+    this.samples = samples;
+    this.counts = counts;
+  }
+
+  static SeriesAccumulator withStatistics() {
+    return new SeriesAccumulator(null, null);
+  }
+
+  static SeriesAccumulator withSamples() {
+    return new SeriesAccumulator(new ConcurrentLinkedQueue<>(), null);
+  }
+
+  static SeriesAccumulator withCounts() {
+    return new SeriesAccumulator(null, new ConcurrentHashMap<>());
+  }
+
+  void record(double value) {
+    sum.add(value);
+    count.increment();
+    min.accumulate(value);
+    max.accumulate(value);
+    if (nonNull(samples)) {
+      samples.add(value);
+    }
+    if (nonNull(counts)) {
+      countOf(value).increment();
+    }
+  }
+
+  double sum() {
+    return sum.sum();
+  }
+
+  long count() {
+    return count.sum();
+  }
+
+  double min() {
+    return min.get();
+  }
+
+  double max() {
+    return max.get();
+  }
+
+  Collection<Double> samples() {
+    return isNull(samples) ? List.of() : List.copyOf(samples);
+  }
+
+  /**
+   * Returns the number of occurrences of every distinct value.
+   *
+   * @return the counts by value, empty if the accumulator does not keep counts.
+   */
+  Map<Double, Long> counts() {
+    if (isNull(counts)) {
+      return Map.of();
+    }
+    var snapshot = new TreeMap<Double, Long>();
+    counts.forEach((value, occurrences) -> snapshot.put(value, occurrences.sum()));
+    return snapshot;
+  }
+
+  private LongAdder countOf(double value) {
+    var occurrences = counts.get(value);
+    return nonNull(occurrences)
+           ? occurrences
+           : counts.computeIfAbsent(value, ignored -> new LongAdder());
+  }
+}
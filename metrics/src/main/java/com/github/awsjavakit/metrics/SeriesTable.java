@@ -0,0 +1,122 @@
+package com.github.awsjavakit.metrics;
+
+import static com.github.awsjavakit.metrics.MetricsService.AVERAGE;
+import static com.github.awsjavakit.metrics.MetricsService.MAX;
+import static com.github.awsjavakit.metrics.MetricsService.MIN;
+import static com.github.awsjavakit.metrics.MetricsService.SUM;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.github.awsjavakit.metrics.MetricsService.Actor;
+import com.github.awsjavakit.metrics.MetricsService.Metric;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The series recorded between two flushes. A flush replaces the table with an empty one and then
+ * retires the old table: writers that arrive after the retirement are rejected and retry on the
+ * new table, and the flush waits for the writers already in flight before reading the statistics.
+ * This way no measurement is lost or flushed twice, and recording never waits for a flush.
+ */
+final class SeriesTable {
+
+  private static final Map<Function<Collection<Double>, Double>,
+    ToDoubleFunction<SeriesAccumulator>> PRE_AGGREGATED_FUNCTIONS = Map.of(
+      SUM, SeriesAccumulator::sum,
+      AVERAGE, series -> series.sum() / series.count(),
+      MIN, SeriesAccumulator::min,
+      MAX, SeriesAccumulator::max);
+  private final ConcurrentMap<Metric, ConcurrentMap<Actor, SeriesAccumulator>> series;
+  private final AtomicInteger numberOfSeries;
+  private final InFlightWriters writers;
+  private final AtomicBoolean retired;
+
+  SeriesTable() {
+    this.series = new ConcurrentHashMap<>();
+    this.numberOfSeries = new AtomicInteger(0);
+    this.writers = new InFlightWriters();
+    this.retired = new AtomicBoolean(false);
+  }
+
+  /**
+   * Records the value unless the table has been retired by a flush.
+   *
+   * @return {@code true} if the value was recorded, {@code false} if the table has been retired.
+   */
+  boolean tryRecord(Actor actor, Metric metric, double value) {
+    var cell = writers.enter();
+    try {
+      if (retired.get()) {
+        return false;
+      }
+      accumulatorOf(actor, metric).record(value);
+      return true;
+    } finally {
+      writers.exit(cell);
+    }
+  }
+
+  int numberOfSeries() {
+    return numberOfSeries.get();
+  }
+
+  /**
+   * Rejects all further writes and returns the series once the writes in flight have completed.
+   *
+   * @return every series recorded in the table.
+   */
+  List<Series> retire() {
+    retired.set(true);
+    writers.awaitNoWriters();
+    var retiredSeries = new ArrayList<Series>();
+    series.forEach((metric, seriesOfMetric) -> seriesOfMetric.forEach((actor, accumulator) ->
+      retiredSeries.add(new Series(actor, metric, accumulator))));
+    return retiredSeries;
+  }
+
+  private static SeriesAccumulator newAccumulator(Metric metric) {
+    return switch (metric.datumType()) {
+      case STATISTIC_SET -> SeriesAccumulator.withStatistics();
+      case VALUES -> SeriesAccumulator.withCounts();
+      case VALUE -> PRE_AGGREGATED_FUNCTIONS.containsKey(metric.aggregationFunction())
+                    ? SeriesAccumulator.withStatistics()
+                    : SeriesAccumulator.withSamples();
+    };
+  }
+
+  // Looks up the series with get() first, so that recording to an existing series neither
+  // allocates a lambda nor locks a bin of the map.
+  private SeriesAccumulator accumulatorOf(Actor actor, Metric metric) {
+    var seriesOfMetric = series.get(metric);
+    if (isNull(seriesOfMetric)) {
+      seriesOfMetric = series.computeIfAbsent(metric, ignored -> new ConcurrentHashMap<>());
+    }
+    var accumulator = seriesOfMetric.get(actor);
+    return nonNull(accumulator)
+           ? accumulator
+           : seriesOfMetric.computeIfAbsent(actor, ignored -> createSeries(metric));
+  }
+
+  private SeriesAccumulator createSeries(Metric metric) {
+    numberOfSeries.incrementAndGet();
+    return newAccumulator(metric);
+  }
+
+  record Series(Actor actor, Metric metric, SeriesAccumulator accumulator) {
+
+    double aggregatedValue() {
+      var preAggregated = PRE_AGGREGATED_FUNCTIONS.get(metric.aggregationFunction());
+      return nonNull(preAggregated)
+             ? preAggregated.applyAsDouble(accumulator)
+             : metric.aggregationFunction().apply(accumulator.samples());
+    }
+  }
+}
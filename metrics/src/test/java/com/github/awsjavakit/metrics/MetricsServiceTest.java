@@ -4,24 +4,42 @@ import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomDoubl
 import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomInteger;
 import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomString;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.awsjavakit.metrics.MetricsService.Actor;
 import com.github.awsjavakit.metrics.MetricsService.Measurement;
 import com.github.awsjavakit.metrics.MetricsService.Metric;
 import com.github.awsjavakit.misc.SingletonCollector;
 import com.github.awsjavakit.testingutils.aws.FakeCloudWatchClient;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.assertj.core.data.Percentage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
 import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataResponse;
 import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
 
 class MetricsServiceTest {
 
@@ -157,6 +175,344 @@ class MetricsServiceTest {
     assertThat(emittedDataAfterClosing.value()).isCloseTo(expectedAverage, Percentage.withPercentage(0.01));
   }
 
+  @Test
+  void shouldReturnMinimumAndMaximumOfMeasurements() {
+    var actor = Actor.of("Actor");
+    var minimum = Metric.of("MetricGroup", "Minimum", StandardUnit.MILLISECONDS,
+      MetricsService.MIN);
+    var maximum = Metric.of("MetricGroup", "Maximum", StandardUnit.MILLISECONDS,
+      MetricsService.MAX);
+    for (var value : List.of(5.0, 1.0, 9.0, 3.0)) {
+      metricsService.registerMetric(actor, minimum, value);
+      metricsService.registerMetric(actor, maximum, value);
+    }
+    metricsService.flush();
+
+    var values = extractEmittedData()
+      .collect(Collectors.toMap(MetricDatum::metricName, MetricDatum::value));
+    assertThat(values).isEqualTo(Map.of("Minimum", 1.0, "Maximum", 9.0));
+  }
+
+  @Test
+  void shouldNotLoseMeasurementsRecordedConcurrentlyToTheSameSeries() {
+    var dataPoint = randomDataPoint(1);
+    var threads = 8;
+    var measurementsPerThread = 10_000;
+    try (var executor = Executors.newFixedThreadPool(threads)) {
+      for (var i = 0; i < threads; i++) {
+        executor.submit(() -> IntStream.range(0, measurementsPerThread)
+          .forEach(ignored -> registerMetric(metricsService, dataPoint)));
+      }
+    }
+    metricsService.flush();
+
+    var emittedDatapoint = extractEmittedData().collect(SingletonCollector.collect());
+    assertThat(emittedDatapoint.value()).isEqualTo((double) threads * measurementsPerThread);
+  }
+
+  @Test
+  void shouldNotLoseOrDuplicateMeasurementsWhenFlushingWhileRecording() throws Exception {
+    var dataPoint = randomDataPoint(1);
+    var threads = 8;
+    var measurementsPerThread = 10_000;
+    try (var executor = Executors.newFixedThreadPool(threads + 1)) {
+      var recorders = IntStream.range(0, threads)
+        .mapToObj(ignored -> executor.submit(() -> IntStream.range(0, measurementsPerThread)
+          .forEach(i -> registerMetric(metricsService, dataPoint))))
+        .toList();
+      var flusher = executor.submit(() -> {
+        while (!recorders.stream().allMatch(Future::isDone)) {
+          metricsService.flush();
+        }
+      });
+      flusher.get();
+    }
+    metricsService.flush();
+
+    var total = extractEmittedData().mapToDouble(MetricDatum::value).sum();
+    assertThat(total).isEqualTo((double) threads * measurementsPerThread);
+  }
+
+  @Test
+  void shouldFlushInTheBackgroundPeriodically() throws InterruptedException {
+    try (var metricsService = MetricsService.createWithBackgroundFlushing(CLOCK, client,
+      NAMESPACE, Duration.ofMillis(10))) {
+      var datum = randomDataPoint();
+      registerMetric(metricsService, datum);
+
+      awaitEmittedData(1);
+      assertThat(extractEmittedData().map(MetricDatum::metricName))
+        .containsExactly(datum.metric().metricName());
+    }
+  }
+
+  @Test
+  void shouldFlushInTheBackgroundWhenThereAreEnoughSeries() throws InterruptedException {
+    try (var metricsService = MetricsService.createWithBackgroundFlushing(CLOCK, client,
+      NAMESPACE, Duration.ofHours(1))) {
+      IntStream.range(0, MetricsService.MAX_REQUEST_SIZE)
+        .forEach(ignored -> registerMetric(metricsService, randomDataPoint()));
+
+      awaitEmittedData(MetricsService.MAX_REQUEST_SIZE);
+      assertThat(extractEmittedData().toList()).hasSize(MetricsService.MAX_REQUEST_SIZE);
+    }
+  }
+
+  @Test
+  void shouldSendRemainingMeasurementsWhenBackgroundFlushingServiceCloses() {
+    var metricsService = MetricsService.createWithBackgroundFlushing(CLOCK, client, NAMESPACE,
+      Duration.ofHours(1));
+    var data = IntStream.range(0, 10).boxed().map(ignored -> randomDataPoint())
+      .toList();
+    data.forEach(d -> registerMetric(metricsService, d));
+    assertThat(extractEmittedData().toList()).isEmpty();
+
+    metricsService.close();
+    assertThat(extractEmittedData().toList()).hasSize(data.size());
+  }
+
+  @Test
+  void shouldKeepFlushingInTheBackgroundAfterAFailedFlush() throws InterruptedException {
+    var failures = new AtomicInteger(1);
+    var failingOnce = new FakeCloudWatchClient() {
+      @Override
+      public PutMetricDataResponse putMetricData(PutMetricDataRequest request) {
+        if (failures.getAndDecrement() > 0) {
+          throw new IllegalStateException("CloudWatch is unavailable");
+        }
+        return super.putMetricData(request);
+      }
+    };
+    this.client = failingOnce;
+    try (var metricsService = MetricsService.createWithBackgroundFlushing(CLOCK, failingOnce,
+      NAMESPACE, Duration.ofMillis(10))) {
+      var failedDatum = randomDataPoint();
+      registerMetric(metricsService, failedDatum);
+      while (failures.get() > 0) {
+        Thread.sleep(1);
+      }
+      var datum = randomDataPoint();
+      registerMetric(metricsService, datum);
+
+      awaitEmittedData(2);
+      assertThat(extractEmittedData().map(MetricDatum::metricName))
+        .contains(failedDatum.metric().metricName(), datum.metric().metricName());
+    }
+  }
+
+  @Test
+  void shouldSendSeriesOfFailedFlushOnNextFlush() {
+    var failures = new AtomicInteger(1);
+    var failingOnce = new FakeCloudWatchClient() {
+      @Override
+      public PutMetricDataResponse putMetricData(PutMetricDataRequest request) {
+        if (failures.getAndDecrement() > 0) {
+          throw new IllegalStateException("CloudWatch is unavailable");
+        }
+        return super.putMetricData(request);
+      }
+    };
+    this.client = failingOnce;
+    var metricsService = MetricsService.create(CLOCK, failingOnce, NAMESPACE);
+    var data = IntStream.range(0, 10).boxed().map(ignored -> randomDataPoint()).toList();
+    data.forEach(datum -> registerMetric(metricsService, datum));
+
+    assertThatThrownBy(metricsService::flush).isInstanceOf(IllegalStateException.class);
+    assertThat(extractEmittedData().toList()).isEmpty();
+
+    var laterDatum = randomDataPoint();
+    registerMetric(metricsService, laterDatum);
+    metricsService.flush();
+
+    var expectedMetricNames = Stream.concat(data.stream(), Stream.of(laterDatum))
+      .map(datum -> datum.metric().metricName())
+      .toList();
+    assertThat(extractEmittedData().map(MetricDatum::metricName))
+      .containsExactlyInAnyOrderElementsOf(expectedMetricNames);
+  }
+
+  @Test
+  void shouldSendStatisticSetOfMeasurements() {
+    var actor = Actor.of("Actor");
+    var metric = Metric.statisticSet("MetricGroup", "Latency", StandardUnit.MILLISECONDS);
+    for (var value : List.of(5.0, 1.0, 9.0, 3.0)) {
+      metricsService.registerMetric(actor, metric, value);
+    }
+    metricsService.flush();
+
+    var emittedDatapoint = extractEmittedData().collect(SingletonCollector.collect());
+    var expectedStatistics = StatisticSet.builder()
+      .sampleCount(4.0)
+      .sum(18.0)
+      .minimum(1.0)
+      .maximum(9.0)
+      .build();
+    assertThat(emittedDatapoint.statisticValues()).isEqualTo(expectedStatistics);
+    assertThat(emittedDatapoint.value()).isNull();
+  }
+
+  @Test
+  void shouldSendDistinctValuesWithTheirCounts() {
+    var actor = Actor.of("Actor");
+    var metric = Metric.distribution("MetricGroup", "Latency", StandardUnit.MILLISECONDS);
+    for (var value : List.of(5.0, 1.0, 5.0, 3.0, 5.0, 1.0)) {
+      metricsService.registerMetric(actor, metric, value);
+    }
+    metricsService.flush();
+
+    var emittedDatapoint = extractEmittedData().collect(SingletonCollector.collect());
+    assertThat(emittedDatapoint.values()).containsExactly(1.0, 3.0, 5.0);
+    assertThat(emittedDatapoint.counts()).containsExactly(2.0, 1.0, 3.0);
+  }
+
+  @Test
+  void shouldSplitDistinctValuesOverSeveralDataPointsWhenTheyExceedTheLimitOfADataPoint() {
+    var actor = Actor.of("Actor");
+    var metric = Metric.distribution("MetricGroup", "Latency", StandardUnit.MILLISECONDS);
+    var distinctValues = 2 * MetricsService.MAX_VALUES_PER_DATUM + 1;
+    IntStream.range(0, distinctValues)
+      .forEach(value -> metricsService.registerMetric(actor, metric, value));
+    metricsService.flush();
+
+    var emittedDatapoints = extractEmittedData().toList();
+    assertThat(emittedDatapoints).hasSize(3)
+      .allSatisfy(datapoint ->
+        assertThat(datapoint.values()).hasSizeLessThanOrEqualTo(
+          MetricsService.MAX_VALUES_PER_DATUM));
+    var emittedValues = emittedDatapoints.stream()
+      .flatMap(datapoint -> datapoint.values().stream())
+      .toList();
+    assertThat(emittedValues).hasSize(distinctValues).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void shouldWriteMetricsInEmbeddedMetricFormat() throws IOException {
+    var output = new ByteArrayOutputStream();
+    var metricsService = MetricsService.create(CLOCK, new EmbeddedMetricFormatSink(output),
+      NAMESPACE);
+    var datum = randomDataPoint(3);
+    registerMetric(metricsService, datum);
+    registerMetric(metricsService, datum);
+    metricsService.flush();
+
+    var events = readEvents(output);
+    assertThat(events).hasSize(1);
+    var event = events.getFirst();
+    var directive = event.path("_aws").path("CloudWatchMetrics").get(0);
+    assertThat(event.path("_aws").path("Timestamp").asLong())
+      .isEqualTo(CLOCK.instant().toEpochMilli());
+    assertThat(directive.path("Namespace").asText()).isEqualTo(NAMESPACE);
+    assertThat(directive.path("Dimensions").get(0).get(0).asText())
+      .isEqualTo(datum.metric().metricGroup());
+    assertThat(directive.path("Metrics").get(0).path("Name").asText())
+      .isEqualTo(datum.metric().metricName());
+    assertThat(directive.path("Metrics").get(0).path("Unit").asText()).isEqualTo("Count");
+    assertThat(event.path(datum.metric().metricGroup()).asText()).isEqualTo(datum.actor().name());
+    assertThat(event.path(datum.metric().metricName()).asDouble()).isEqualTo(6.0);
+  }
+
+  @Test
+  void shouldWriteDistinctValuesWithTheirCountsInEmbeddedMetricFormat() throws IOException {
+    var output = new ByteArrayOutputStream();
+    var metricsService = MetricsService.create(CLOCK, new EmbeddedMetricFormatSink(output),
+      NAMESPACE);
+    var actor = Actor.of("Actor");
+    var metric = Metric.distribution("MetricGroup", "Latency", StandardUnit.MILLISECONDS);
+    for (var value : List.of(5.0, 1.0, 5.0, 3.0, 5.0, 1.0)) {
+      metricsService.registerMetric(actor, metric, value);
+    }
+    metricsService.flush();
+
+    var distribution = readEvents(output).getFirst().path("Latency");
+    assertThat(doubles(distribution.path("Values"))).containsExactly(1.0, 3.0, 5.0);
+    assertThat(doubles(distribution.path("Counts"))).containsExactly(2.0, 1.0, 3.0);
+    assertThat(distribution.path("Min").asDouble()).isEqualTo(1.0);
+    assertThat(distribution.path("Max").asDouble()).isEqualTo(5.0);
+    assertThat(distribution.path("Count").asDouble()).isEqualTo(6.0);
+    assertThat(distribution.path("Sum").asDouble()).isEqualTo(20.0);
+  }
+
+  @Test
+  void shouldSplitDistinctValuesOverSeveralEventsInEmbeddedMetricFormat() throws IOException {
+    var output = new ByteArrayOutputStream();
+    var metricsService = MetricsService.create(CLOCK, new EmbeddedMetricFormatSink(output),
+      NAMESPACE);
+    var actor = Actor.of("Actor");
+    var metric = Metric.distribution("MetricGroup", "Latency", StandardUnit.MILLISECONDS);
+    var distinctValues = EmbeddedMetricFormatSink.MAX_VALUES_PER_EVENT + 1;
+    for (var repetition = 0; repetition < 1000; repetition++) {
+      IntStream.range(0, distinctValues)
+        .forEach(value -> metricsService.registerMetric(actor, metric, value));
+    }
+    metricsService.flush();
+
+    var events = readEvents(output);
+    var values = events.stream()
+      .flatMap(event -> doubles(event.path("Latency").path("Values")).stream())
+      .toList();
+    var counts = events.stream()
+      .flatMap(event -> doubles(event.path("Latency").path("Counts")).stream())
+      .toList();
+    assertThat(events).hasSize(2);
+    assertThat(values).hasSize(distinctValues).doesNotHaveDuplicates();
+    assertThat(counts).hasSize(distinctValues).containsOnly(1000.0);
+  }
+
+  @Test
+  void shouldWriteStatisticSetInEmbeddedMetricFormat() throws IOException {
+    var output = new ByteArrayOutputStream();
+    var metricsService = MetricsService.create(CLOCK, new EmbeddedMetricFormatSink(output),
+      NAMESPACE);
+    var actor = Actor.of("Actor");
+    var metric = Metric.statisticSet("MetricGroup", "Latency", StandardUnit.MILLISECONDS);
+    for (var value : List.of(5.0, 1.0, 9.0, 3.0)) {
+      metricsService.registerMetric(actor, metric, value);
+    }
+    metricsService.flush();
+
+    var statistics = readEvents(output).getFirst().path("Latency");
+    assertThat(statistics.path("Min").asDouble()).isEqualTo(1.0);
+    assertThat(statistics.path("Max").asDouble()).isEqualTo(9.0);
+    assertThat(statistics.path("Count").asDouble()).isEqualTo(4.0);
+    assertThat(statistics.path("Sum").asDouble()).isEqualTo(18.0);
+  }
+
+  @Test
+  void shouldWriteEmbeddedMetricFormatToStandardOutput() throws IOException {
+    var originalOutput = System.out;
+    var output = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+    try (var metricsService = MetricsService.createWithEmbeddedMetricFormat(NAMESPACE)) {
+      registerMetric(metricsService, randomDataPoint());
+    } finally {
+      System.setOut(originalOutput);
+    }
+
+    var event = readEvents(output).getFirst();
+    assertThat(event.path("_aws").path("CloudWatchMetrics").get(0).path("Namespace").asText())
+      .isEqualTo(NAMESPACE);
+  }
+
+  private static List<Double> doubles(JsonNode array) {
+    return StreamSupport.stream(array.spliterator(), false).map(JsonNode::asDouble).toList();
+  }
+
+  private static List<JsonNode> readEvents(ByteArrayOutputStream output) throws IOException {
+    var mapper = new ObjectMapper();
+    var events = new ArrayList<JsonNode>();
+    for (var line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+      events.add(mapper.readTree(line));
+    }
+    return events;
+  }
+
+  private void awaitEmittedData(int expectedDataPoints) throws InterruptedException {
+    var deadline = Instant.now().plus(Duration.ofSeconds(10));
+    while (extractEmittedData().count() < expectedDataPoints && Instant.now().isBefore(deadline)) {
+      Thread.sleep(5);
+    }
+  }
+
   private int numberAllowingPredictableAggregation() {
     return 1+randomInteger(10);
   }
@@ -0,0 +1,192 @@
+package com.github.awsjavakit.misc.cache;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe cache that evicts the least recently used entries when the total weight of its values
+ * exceeds a limit. The values are kept in a {@link ConcurrentHashMap}, so that operations on
+ * different keys do not wait for each other. The recency order is kept separately: every access is
+ * appended to a lock-free queue, which is applied to the order by one thread at a time. Reads
+ * never wait for that thread, while writes do, so that the cache does not stay over its limit.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public final class ConcurrentLruCache<K, V> {
+
+  private final long maxWeight;
+  private final ToLongFunction<? super V> weigher;
+  private final ConcurrentMap<K, Entry<V>> entries;
+  private final AtomicLong weight;
+  private final Queue<K> accesses;
+  private final Set<K> recencyOrder;
+  private final Lock recencyLock;
+
+  private ConcurrentLruCache(long maxWeight, ToLongFunction<? super V> weigher) {
+    if (maxWeight < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative");
+    }
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.entries = new ConcurrentHashMap<>();
+    this.weight = new AtomicLong();
+    this.accesses = new ConcurrentLinkedQueue<>();
+    this.recencyOrder = new LinkedHashSet<>();
+    this.recencyLock = new ReentrantLock();
+  }
+
+  public static <K, V> ConcurrentLruCache<K, V> withMaxEntries(int maxEntries) {
+    return withMaxWeight(maxEntries, value -> 1);
+  }
+
+  /**
+   * Creates a cache bounded by the total weight of its values. Values heavier than the whole cache
+   * are not stored, so that they do not evict everything else.
+   *
+   * @param maxWeight the maximum total weight of the cached values.
+   * @param weigher   the function computing the weight of a value.
+   * @param <K>       the type of the keys.
+   * @param <V>       the type of the values.
+   * @return an empty cache.
+   */
+  public static <K, V> ConcurrentLruCache<K, V> withMaxWeight(long maxWeight,
+    ToLongFunction<? super V> weigher) {
+    return new ConcurrentLruCache<>(maxWeight, weigher);
+  }
+
+  public Optional<V> get(K key) {
+    var entry = entries.get(key);
+    if (isNull(entry)) {
+      return Optional.empty();
+    }
+    accesses.add(key);
+    if (recencyLock.tryLock()) {
+      try {
+        applyAccesses();
+      } finally {
+        recencyLock.unlock();
+      }
+    }
+    return Optional.of(entry.value());
+  }
+
+  public void put(K key, V value) {
+    compute(key, ignored -> value);
+  }
+
+  /**
+   * Replaces the value of the key atomically. The function is called with the current value, or
+   * {@code null} if there is none, and returns the new value, or {@code null} to remove the key.
+   * Other keys are not blocked while the function runs.
+   *
+   * @param key       the key.
+   * @param remapping the function computing the new value from the current one.
+   * @return the stored value, or empty if the key has been removed or the value was too heavy.
+   */
+  public Optional<V> compute(K key, UnaryOperator<V> remapping) {
+    var stored = entries.compute(key, (ignored, current) -> {
+      var newValue = remapping.apply(isNull(current) ? null : current.value());
+      if (nonNull(current)) {
+        weight.addAndGet(-current.weight());
+      }
+      return isNull(newValue) ? null : newEntry(newValue);
+    });
+    recordWrite(key);
+    return Optional.ofNullable(stored).map(Entry::value);
+  }
+
+  public void remove(K key) {
+    removeIf(key, ignored -> true);
+  }
+
+  /**
+   * Removes the key if its current value satisfies the condition. The check and the removal are
+   * atomic.
+   *
+   * @param key       the key.
+   * @param condition the condition on the current value.
+   */
+  public void removeIf(K key, Predicate<? super V> condition) {
+    discardIf(key, condition);
+    recordWrite(key);
+  }
+
+  public void clear() {
+    entries.keySet().forEach(this::remove);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long weight() {
+    return weight.get();
+  }
+
+  private Entry<V> newEntry(V value) {
+    var valueWeight = weigher.applyAsLong(value);
+    if (valueWeight > maxWeight) {
+      return null;
+    }
+    weight.addAndGet(valueWeight);
+    return new Entry<>(value, valueWeight);
+  }
+
+  private void discardIf(K key, Predicate<? super V> condition) {
+    entries.computeIfPresent(key, (ignored, current) -> {
+      if (!condition.test(current.value())) {
+        return current;
+      }
+      weight.addAndGet(-current.weight());
+      return null;
+    });
+  }
+
+  private void recordWrite(K key) {
+    accesses.add(key);
+    recencyLock.lock();
+    try {
+      applyAccesses();
+      evictLeastRecentlyUsed();
+    } finally {
+      recencyLock.unlock();
+    }
+  }
+
+  private void applyAccesses() {
+    for (var key = accesses.poll(); nonNull(key); key = accesses.poll()) {
+      recencyOrder.remove(key);
+      if (entries.containsKey(key)) {
+        recencyOrder.add(key);
+      }
+    }
+  }
+
+  private void evictLeastRecentlyUsed() {
+    var iterator = recencyOrder.iterator();
+    while (weight.get() > maxWeight && iterator.hasNext()) {
+      var eldest = iterator.next();
+      iterator.remove();
+      discardIf(eldest, ignored -> true);
+    }
+  }
+
+  private record Entry<V>(V value, long weight) {
+
+  }
+}
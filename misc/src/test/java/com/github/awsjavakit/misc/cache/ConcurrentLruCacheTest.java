@@ -0,0 +1,119 @@
+package com.github.awsjavakit.misc.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentLruCacheTest {
+
+  @Test
+  void shouldReturnStoredValue() {
+    var cache = ConcurrentLruCache.<String, String>withMaxEntries(2);
+    cache.put("key", "value");
+
+    assertThat(cache.get("key")).contains("value");
+    assertThat(cache.get("missing")).isEmpty();
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+    var cache = ConcurrentLruCache.<String, String>withMaxEntries(2);
+    cache.put("first", "value");
+    cache.put("second", "value");
+    cache.get("first");
+
+    cache.put("third", "value");
+
+    assertThat(cache.get("first")).isPresent();
+    assertThat(cache.get("second")).isEmpty();
+    assertThat(cache.get("third")).isPresent();
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldEvictEntriesUntilTotalWeightIsWithinLimit() {
+    var cache = ConcurrentLruCache.<String, String>withMaxWeight(10, String::length);
+    cache.put("first", "abcd");
+    cache.put("second", "abcd");
+
+    cache.put("third", "abcdef");
+
+    assertThat(cache.get("first")).isEmpty();
+    assertThat(cache.get("second")).contains("abcd");
+    assertThat(cache.get("third")).contains("abcdef");
+    assertThat(cache.weight()).isEqualTo(10);
+  }
+
+  @Test
+  void shouldNotStoreValuesHeavierThanTheWholeCache() {
+    var cache = ConcurrentLruCache.<String, String>withMaxWeight(3, String::length);
+    cache.put("small", "abc");
+
+    var stored = cache.compute("large", ignored -> "abcd");
+
+    assertThat(stored).isEmpty();
+    assertThat(cache.get("small")).contains("abc");
+    assertThat(cache.weight()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldComputeNewValueFromCurrentValue() {
+    var cache = ConcurrentLruCache.<String, Integer>withMaxEntries(2);
+
+    cache.compute("key", current -> current == null ? 1 : current + 1);
+    var stored = cache.compute("key", current -> current == null ? 1 : current + 1);
+
+    assertThat(stored).contains(2);
+    assertThat(cache.get("key")).contains(2);
+  }
+
+  @Test
+  void shouldRemoveEntryOnlyWhenConditionHolds() {
+    var cache = ConcurrentLruCache.<String, String>withMaxWeight(10, String::length);
+    cache.put("key", "value");
+
+    cache.removeIf("key", "other"::equals);
+    assertThat(cache.get("key")).contains("value");
+
+    cache.removeIf("key", "value"::equals);
+    assertThat(cache.get("key")).isEmpty();
+    assertThat(cache.weight()).isZero();
+  }
+
+  @Test
+  void shouldRemoveAllEntriesWhenCleared() {
+    var cache = ConcurrentLruCache.<String, String>withMaxWeight(10, String::length);
+    cache.put("first", "abc");
+    cache.put("second", "abc");
+    cache.remove("first");
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+    assertThat(cache.weight()).isZero();
+  }
+
+  @Test
+  void shouldStayWithinLimitWhenWrittenConcurrently() {
+    var maxEntries = 50;
+    var cache = ConcurrentLruCache.<Integer, Integer>withMaxEntries(maxEntries);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      IntStream.range(0, 1000).forEach(key -> executor.submit(() -> {
+        cache.put(key, key);
+        cache.get(key % maxEntries);
+      }));
+    }
+
+    assertThat(cache.size()).isLessThanOrEqualTo(maxEntries);
+    assertThat(cache.weight()).isEqualTo(cache.size());
+  }
+
+  @Test
+  void shouldNotAcceptNegativeSize() {
+    assertThatThrownBy(() -> ConcurrentLruCache.withMaxEntries(-1))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
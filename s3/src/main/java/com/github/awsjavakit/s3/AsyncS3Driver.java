@@ -0,0 +1,148 @@
+package com.github.awsjavakit.s3;
+
+import static com.github.awsjavakit.attempt.Try.attempt;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.Tag;
+
+/**
+ * Non-blocking counterpart of {@link S3Driver} backed by an {@link S3AsyncClient}. Every operation
+ * returns immediately with a {@link CompletableFuture}, so that a small number of threads can have
+ * hundreds of S3 requests in flight. Paths, URIs and compression are handled exactly as in
+ * {@link S3Driver}, so objects written by one driver can be read by the other.
+ */
+public class AsyncS3Driver {
+
+  private final S3AsyncClient client;
+  private final CompressionCodecs codecs;
+  private final S3Requests requests;
+
+  public AsyncS3Driver(S3AsyncClient s3Client, String bucketName) {
+    this(s3Client, bucketName, CompressionCodecs.defaultCodecs());
+  }
+
+  public AsyncS3Driver(S3AsyncClient s3Client, String bucketName, CompressionCodecs codecs) {
+    this.client = s3Client;
+    this.codecs = codecs;
+    this.requests = new S3Requests(bucketName);
+  }
+
+  /**
+   * Inserts the content of the string in the specified location. If the filename has the extension
+   * of a registered {@link CompressionCodec} (e.g. gz), it compresses the contents.
+   *
+   * @param fullPath the Location path of the item (without the bucket name)
+   * @param content  The data we want to store
+   * @return a future completing with the URI of the S3 object
+   */
+  public CompletableFuture<URI> insertFile(UnixPath fullPath, String content) {
+    var body = codecs.forWriting(fullPath.getLastPathElement())
+      .map(codec -> compress(content, codec))
+      .orElseGet(() -> content.getBytes(StandardCharsets.UTF_8));
+    return insertFile(fullPath, body);
+  }
+
+  public CompletableFuture<URI> insertFile(UnixPath fullPath, byte[] content) {
+    return client.putObject(requests.putObject(fullPath), AsyncRequestBody.fromBytes(content))
+      .thenApply(ignored -> requests.toS3Uri(fullPath));
+  }
+
+  public CompletableFuture<String> getFile(UnixPath filename) {
+    return getFile(filename, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads the file. Files with the extension of a registered {@link CompressionCodec} are
+   * decompressed.
+   *
+   * @param filename the Location path of the item (without the bucket name)
+   * @param charset  the encoding of the file contents.
+   * @return a future completing with the file contents.
+   */
+  public CompletableFuture<String> getFile(UnixPath filename, Charset charset) {
+    var codec = codecs.forFilename(filename.getLastPathElement());
+    return client.getObject(requests.getObject(filename), AsyncResponseTransformer.toBytes())
+      .thenApply(response -> codec
+        .map(presentCodec -> decompress(response, presentCodec, charset))
+        .orElseGet(() -> response.asString(charset)));
+  }
+
+  public CompletableFuture<String> readFile(URI uri) {
+    return getFile(S3Requests.toS3bucketPath(uri));
+  }
+
+  /**
+   * Returns a partial result of the files contained in the specified folder, as in
+   * {@link S3Driver#listFiles(UnixPath, String, int)}.
+   *
+   * @param folder               The folder that we wish to list its files.
+   * @param listingStartingPoint The starting point for the listing, can be {@code null} to indicate
+   *                             that the beginning of the listing.
+   * @param responseSize         The number of filenames returned in each batch. Max size determined
+   *                             by S3 is 1000.
+   * @return a future completing with the listed page.
+   */
+  public CompletableFuture<ListingResult> listFiles(UnixPath folder, String listingStartingPoint,
+    int responseSize) {
+    var request = requests.listObjects(folder, listingStartingPoint, responseSize);
+    return client.listObjectsV2(request).thenApply(S3Requests::toListingResult);
+  }
+
+  /**
+   * Copies a file from source to destination. Both URIs must be S3 URIs.
+   *
+   * @param sourceUri      the uri of the source file
+   * @param destinationUri the uri of the destination file
+   * @param tags           optional tags to replace existing tags to the copied file, may be null
+   *                       or empty.
+   * @return a future completing when the copy has finished.
+   */
+  public CompletableFuture<Void> copyFile(URI sourceUri, URI destinationUri, Tag... tags) {
+    return client.copyObject(S3Requests.copyObject(sourceUri, destinationUri, tags))
+      .thenApply(ignored -> null);
+  }
+
+  public CompletableFuture<Map<String, String>> getTags(URI fileUri) {
+    var request = requests.getObjectTagging(S3Requests.toS3bucketPath(fileUri));
+    return client.getObjectTagging(request).thenApply(S3Requests::toTagMap);
+  }
+
+  public CompletableFuture<Instant> lastModified(URI fileUri) {
+    var request = requests.headObject(S3Requests.toS3bucketPath(fileUri));
+    return client.headObject(request).thenApply(HeadObjectResponse::lastModified);
+  }
+
+  private static byte[] compress(String content, CompressionCodec codec) {
+    return attempt(() -> readAllBytes(new StringCompressor(List.of(content), codec)
+      .compressedData()))
+      .orElseThrow();
+  }
+
+  private static byte[] readAllBytes(InputStream inputStream) throws IOException {
+    try (inputStream) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private static String decompress(ResponseBytes<GetObjectResponse> response,
+    CompressionCodec codec, Charset charset) {
+    return attempt(() -> codec.decompress(response.asInputStream()))
+      .map(stream -> S3Driver.readCompressedStream(stream, charset))
+      .orElseThrow();
+  }
+}
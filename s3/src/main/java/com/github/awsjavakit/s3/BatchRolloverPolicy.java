@@ -0,0 +1,28 @@
+package com.github.awsjavakit.s3;
+
+import java.time.Duration;
+
+/**
+ * Thresholds for flushing a batch of events as a single object. A batch is flushed as soon as any
+ * of the thresholds is reached.
+ *
+ * @param maxBytes   the maximum uncompressed size of a batch in bytes.
+ * @param maxRecords the maximum number of events in a batch.
+ * @param maxAge     the maximum time a batch stays open after its first event.
+ */
+public record BatchRolloverPolicy(long maxBytes, int maxRecords, Duration maxAge) {
+
+  public static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+  public static final int DEFAULT_MAX_RECORDS = 10_000;
+  public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(1);
+
+  public BatchRolloverPolicy {
+    if (maxBytes < 1 || maxRecords < 1 || maxAge.isNegative() || maxAge.isZero()) {
+      throw new IllegalArgumentException("Rollover thresholds must be positive");
+    }
+  }
+
+  public static BatchRolloverPolicy defaultPolicy() {
+    return new BatchRolloverPolicy(DEFAULT_MAX_BYTES, DEFAULT_MAX_RECORDS, DEFAULT_MAX_AGE);
+  }
+}
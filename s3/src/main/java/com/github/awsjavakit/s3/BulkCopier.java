@@ -0,0 +1,78 @@
+package com.github.awsjavakit.s3;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.paths.UriWrapper;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Tag;
+
+/**
+ * Copies all files of a folder to another folder, possibly in another bucket. The source folder is
+ * listed lazily and at most {@code maxConcurrentCopies} copies run concurrently on virtual threads,
+ * so the number of copied objects is not limited by memory. Failed copies do not stop the bulk
+ * copy; they are reported in the {@link BulkCopyResult}. If the listing of the source folder
+ * fails, the copies in flight are awaited before the failure is rethrown. The cached metadata of
+ * every copied object is invalidated.
+ */
+class BulkCopier {
+
+  private final S3Driver s3Driver;
+  private final S3Client client;
+  private final int maxConcurrentCopies;
+
+  BulkCopier(S3Driver s3Driver, S3Client client, int maxConcurrentCopies) {
+    if (maxConcurrentCopies < 1) {
+      throw new IllegalArgumentException("At least one concurrent copy must be allowed");
+    }
+    this.s3Driver = s3Driver;
+    this.client = client;
+    this.maxConcurrentCopies = maxConcurrentCopies;
+  }
+
+  public BulkCopyResult copyFolder(UnixPath sourceFolder, URI destinationFolder, Tag... tags) {
+    var validTags = S3Requests.validTagSet(tags);
+    var startTime = System.nanoTime();
+    var permits = new Semaphore(maxConcurrentCopies);
+    var copiedObjects = new AtomicLong();
+    var failures = new ConcurrentLinkedQueue<CopyFailure>();
+    try (var files = s3Driver.streamAllFiles(sourceFolder)) {
+      files.filter(file -> S3Requests.isInFolder(file, sourceFolder))
+        .forEach(file -> {
+          var source = s3Driver.toS3Uri(file);
+          var destination = destinationOf(file, sourceFolder, destinationFolder);
+          Futures.acquire(permits);
+          Thread.ofVirtual().start(
+            () -> copy(source, destination, validTags, permits, copiedObjects, failures));
+        });
+    } finally {
+      Futures.acquire(permits, maxConcurrentCopies);
+    }
+    return new BulkCopyResult(copiedObjects.get(), List.copyOf(failures),
+      Duration.ofNanos(System.nanoTime() - startTime));
+  }
+
+  private static URI destinationOf(UnixPath file, UnixPath sourceFolder, URI destinationFolder) {
+    var relativePath = file.subPath(sourceFolder.size(), file.size());
+    return UriWrapper.fromUri(destinationFolder).addChild(relativePath).getUri();
+  }
+
+  private void copy(URI source, URI destination, Collection<Tag> validTags, Semaphore permits,
+    AtomicLong copiedObjects, Queue<CopyFailure> failures) {
+    try {
+      client.copyObject(S3Requests.copyObject(source, destination, validTags));
+      s3Driver.getMetadataCache().invalidate(destination);
+      copiedObjects.incrementAndGet();
+    } catch (RuntimeException exception) {
+      failures.add(new CopyFailure(source, destination, exception));
+    } finally {
+      permits.release();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.github.awsjavakit.s3;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of a bulk copy.
+ *
+ * @param copiedObjects the number of objects copied successfully.
+ * @param failures      the objects that could not be copied.
+ * @param duration      the time the bulk copy took, including the listing of the source folder.
+ */
+public record BulkCopyResult(long copiedObjects, List<CopyFailure> failures, Duration duration) {
+
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
+  public long totalObjects() {
+    return copiedObjects + failures.size();
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * Returns the average number of objects copied per second.
+   *
+   * @return the throughput of the bulk copy, or 0 if no time has elapsed.
+   */
+  public double objectsPerSecond() {
+    var millis = duration.toMillis();
+    return millis == 0 ? 0 : copiedObjects * MILLIS_PER_SECOND / millis;
+  }
+}
@@ -0,0 +1,23 @@
+package com.github.awsjavakit.s3;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of a bulk delete.
+ *
+ * @param deletedObjects the number of objects deleted successfully.
+ * @param failures       the objects that could not be deleted.
+ * @param duration       the time the bulk delete took, including the listing of the folder.
+ */
+public record BulkDeleteResult(long deletedObjects, List<DeleteFailure> failures,
+                               Duration duration) {
+
+  public long totalObjects() {
+    return deletedObjects + failures.size();
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+}
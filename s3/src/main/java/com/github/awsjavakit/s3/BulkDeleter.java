@@ -0,0 +1,89 @@
+package com.github.awsjavakit.s3;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+/**
+ * Deletes objects in batches of up to {@link #MAX_KEYS_PER_REQUEST} keys with DeleteObjects
+ * requests. The files are consumed lazily and at most {@code maxConcurrentDeletes} batches are
+ * deleted concurrently on virtual threads, so the next batch is collected while the previous ones
+ * are being deleted. Failed deletions do not stop the bulk delete; they are reported in the
+ * {@link BulkDeleteResult}.
+ */
+class BulkDeleter {
+
+  public static final int MAX_KEYS_PER_REQUEST = 1000;
+  private final S3Driver s3Driver;
+  private final S3Client client;
+  private final S3Requests requests;
+  private final int maxConcurrentDeletes;
+
+  BulkDeleter(S3Driver s3Driver, S3Client client, S3Requests requests, int maxConcurrentDeletes) {
+    if (maxConcurrentDeletes < 1) {
+      throw new IllegalArgumentException("At least one concurrent delete must be allowed");
+    }
+    this.s3Driver = s3Driver;
+    this.client = client;
+    this.requests = requests;
+    this.maxConcurrentDeletes = maxConcurrentDeletes;
+  }
+
+  public BulkDeleteResult deleteFiles(Stream<UnixPath> files) {
+    var startTime = System.nanoTime();
+    var permits = new Semaphore(maxConcurrentDeletes);
+    var deletedObjects = new AtomicLong();
+    var failures = new ConcurrentLinkedQueue<DeleteFailure>();
+    var batch = new ArrayList<UnixPath>(MAX_KEYS_PER_REQUEST);
+    try {
+      files.forEach(file -> {
+        batch.add(file);
+        if (batch.size() == MAX_KEYS_PER_REQUEST) {
+          submit(List.copyOf(batch), permits, deletedObjects, failures);
+          batch.clear();
+        }
+      });
+      if (!batch.isEmpty()) {
+        submit(List.copyOf(batch), permits, deletedObjects, failures);
+      }
+    } finally {
+      Futures.acquire(permits, maxConcurrentDeletes);
+    }
+    return new BulkDeleteResult(deletedObjects.get(), List.copyOf(failures),
+      Duration.ofNanos(System.nanoTime() - startTime));
+  }
+
+  private void submit(List<UnixPath> batch, Semaphore permits, AtomicLong deletedObjects,
+    Queue<DeleteFailure> failures) {
+    Futures.acquire(permits);
+    Thread.ofVirtual().start(() -> delete(batch, permits, deletedObjects, failures));
+  }
+
+  private void delete(List<UnixPath> batch, Semaphore permits, AtomicLong deletedObjects,
+    Queue<DeleteFailure> failures) {
+    try {
+      var errors = client.deleteObjects(requests.deleteObjects(batch)).errors();
+      errors.forEach(error -> failures.add(toFailure(error)));
+      deletedObjects.addAndGet(batch.size() - errors.size());
+    } catch (RuntimeException exception) {
+      batch.forEach(file -> failures.add(new DeleteFailure(s3Driver.toS3Uri(file),
+        exception.getClass().getSimpleName(), exception.getMessage())));
+    } finally {
+      batch.forEach(s3Driver::invalidateCachedMetadata);
+      permits.release();
+    }
+  }
+
+  private DeleteFailure toFailure(S3Error error) {
+    return new DeleteFailure(s3Driver.toS3Uri(UnixPath.of(error.key())), error.code(),
+      error.message());
+  }
+}
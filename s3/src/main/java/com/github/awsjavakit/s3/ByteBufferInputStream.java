@@ -0,0 +1,42 @@
+package com.github.awsjavakit.s3;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the remaining bytes of a {@link ByteBuffer} without copying them to the heap. The stream
+ * reads from a duplicate of the buffer, so the position of the original buffer is not changed.
+ */
+class ByteBufferInputStream extends InputStream {
+
+  private static final int END_OF_STREAM = -1;
+  private final ByteBuffer buffer;
+
+  ByteBufferInputStream(ByteBuffer buffer) {
+    super();
+    this.buffer = buffer.duplicate();
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : END_OF_STREAM;
+  }
+
+  @Override
+  public int read(byte[] target, int offset, int length) {
+    if (length == 0) {
+      return 0;
+    }
+    if (!buffer.hasRemaining()) {
+      return END_OF_STREAM;
+    }
+    var bytesRead = Math.min(length, buffer.remaining());
+    buffer.get(target, offset, bytesRead);
+    return bytesRead;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+}
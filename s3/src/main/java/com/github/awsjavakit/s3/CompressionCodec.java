@@ -0,0 +1,45 @@
+package com.github.awsjavakit.s3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * A compression format used for storing S3 objects. The codec of an object is selected by its
+ * file extension (see {@link CompressionCodecs}). Codecs backed by external libraries (e.g. zstd
+ * or lz4) can be plugged in by implementing this interface.
+ */
+public interface CompressionCodec {
+
+  static CompressionCodec gzip() {
+    return gzip(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Gzip codec with the specified compression level.
+   *
+   * @param compressionLevel the compression level from {@link Deflater#BEST_SPEED} to
+   *                         {@link Deflater#BEST_COMPRESSION}, or
+   *                         {@link Deflater#DEFAULT_COMPRESSION}.
+   * @return a gzip codec.
+   */
+  static CompressionCodec gzip(int compressionLevel) {
+    return new GzipCodec(compressionLevel, GzipCodec.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * The file extension of the objects compressed with this codec, including the leading dot.
+   *
+   * @return the file extension (e.g. ".gz").
+   */
+  String fileExtension();
+
+  OutputStream compress(OutputStream target) throws IOException;
+
+  InputStream decompress(InputStream compressed) throws IOException;
+
+  default boolean matches(String filename) {
+    return filename.endsWith(fileExtension());
+  }
+}
@@ -0,0 +1,91 @@
+package com.github.awsjavakit.s3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The set of {@link CompressionCodec}s known to an {@link S3Driver}. Objects whose filename ends
+ * with the extension of a registered codec are compressed on write and decompressed on read. Other
+ * objects are stored and read as they are, except that writing an object with the extension of a
+ * well-known compression format that has no registered codec (e.g. ".zst") is rejected instead of
+ * storing it uncompressed under a compressed name. The default codec is used for objects whose
+ * name is generated by the driver (events and compressed batches).
+ */
+public final class CompressionCodecs {
+
+  private static final List<String> KNOWN_COMPRESSION_EXTENSIONS =
+    List.of(".gz", ".zst", ".zstd", ".lz4", ".sz", ".snappy", ".br", ".bz2", ".xz", ".lzma",
+      ".lzo");
+  private final CompressionCodec defaultCodec;
+  private final List<CompressionCodec> codecs;
+
+  private CompressionCodecs(CompressionCodec defaultCodec, List<CompressionCodec> codecs) {
+    this.defaultCodec = defaultCodec;
+    this.codecs = codecs;
+  }
+
+  public static CompressionCodecs defaultCodecs() {
+    var gzip = CompressionCodec.gzip();
+    return new CompressionCodecs(gzip, List.of(gzip));
+  }
+
+  /**
+   * Returns a set of codecs with the specified default codec. Gzip objects remain readable.
+   *
+   * @param defaultCodec the codec used for objects whose name is generated by the driver.
+   * @return a new {@link CompressionCodecs} instance.
+   */
+  public static CompressionCodecs withDefault(CompressionCodec defaultCodec) {
+    return new CompressionCodecs(defaultCodec, List.of(defaultCodec, CompressionCodec.gzip()));
+  }
+
+  /**
+   * Returns a new set of codecs that also contains the specified codec. A codec registered later
+   * takes precedence over earlier codecs with the same extension.
+   *
+   * @param codec the codec to register.
+   * @return a new {@link CompressionCodecs} instance.
+   */
+  public CompressionCodecs with(CompressionCodec codec) {
+    var newCodecs = new ArrayList<CompressionCodec>();
+    newCodecs.add(codec);
+    newCodecs.addAll(codecs);
+    return new CompressionCodecs(defaultCodec, List.copyOf(newCodecs));
+  }
+
+  public CompressionCodec defaultCodec() {
+    return defaultCodec;
+  }
+
+  /**
+   * Returns the codec registered for the extension of the filename. Objects without a registered
+   * codec are read as they are.
+   *
+   * @param filename the name of the object.
+   * @return the codec of the object, or empty if the object is not compressed.
+   */
+  public Optional<CompressionCodec> forFilename(String filename) {
+    return codecs.stream().filter(candidate -> candidate.matches(filename)).findFirst();
+  }
+
+  /**
+   * Returns the codec for writing an object with the filename.
+   *
+   * @param filename the name of the object.
+   * @return the codec of the object, or empty if the object is stored uncompressed.
+   * @throws IllegalArgumentException if the filename has the extension of a compression format
+   *                                  that has no registered codec.
+   */
+  public Optional<CompressionCodec> forWriting(String filename) {
+    var codec = forFilename(filename);
+    if (codec.isEmpty() && hasKnownCompressionExtension(filename)) {
+      throw new IllegalArgumentException("No compression codec registered for file " + filename);
+    }
+    return codec;
+  }
+
+  private static boolean hasKnownCompressionExtension(String filename) {
+    return KNOWN_COMPRESSION_EXTENSIONS.stream().anyMatch(filename::endsWith);
+  }
+}
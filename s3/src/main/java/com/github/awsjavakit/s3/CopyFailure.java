@@ -0,0 +1,14 @@
+package com.github.awsjavakit.s3;
+
+import java.net.URI;
+
+/**
+ * An object that could not be copied during a bulk copy.
+ *
+ * @param source      the S3 URI of the source object.
+ * @param destination the S3 URI the object should have been copied to.
+ * @param exception   the cause of the failure.
+ */
+public record CopyFailure(URI source, URI destination, RuntimeException exception) {
+
+}
@@ -0,0 +1,15 @@
+package com.github.awsjavakit.s3;
+
+import java.net.URI;
+
+/**
+ * An object that could not be deleted during a bulk delete.
+ *
+ * @param object    the S3 URI of the object.
+ * @param errorCode the S3 error code, or the type of the exception when the whole delete request
+ *                  failed.
+ * @param message   the description of the failure.
+ */
+public record DeleteFailure(URI object, String errorCode, String message) {
+
+}
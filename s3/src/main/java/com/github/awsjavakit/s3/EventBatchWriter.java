@@ -0,0 +1,184 @@
+package com.github.awsjavakit.s3;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Buffers events per folder and stores each batch as a single compressed JSON-lines object,
+ * instead of one object per event. A batch is flushed when it reaches one of the thresholds of
+ * its {@link BatchRolloverPolicy} and when the writer is closed. The age threshold is checked on
+ * every write and on {@link #flushExpiredBatches()}.
+ *
+ * <p>The location of an event is known when it is written, but the event becomes readable only
+ * after its batch has been flushed. A batch whose upload fails is kept and uploaded again on the
+ * next flush, so that the events whose locations have been returned are not lost.
+ *
+ * <p>Writes to different folders do not wait for each other, and no lock is held during uploads.
+ */
+public class EventBatchWriter implements AutoCloseable {
+
+  private final S3Driver s3Driver;
+  private final BatchRolloverPolicy policy;
+  private final Clock clock;
+  private final ConcurrentMap<UnixPath, EventBatch> openBatches;
+  private final Queue<EventBatch> failedBatches;
+
+  public EventBatchWriter(S3Driver s3Driver, BatchRolloverPolicy policy, Clock clock) {
+    this.s3Driver = s3Driver;
+    this.policy = policy;
+    this.clock = clock;
+    this.openBatches = new ConcurrentHashMap<>();
+    this.failedBatches = new ConcurrentLinkedQueue<>();
+  }
+
+  public static EventBatchWriter create(S3Driver s3Driver) {
+    return create(s3Driver, BatchRolloverPolicy.defaultPolicy());
+  }
+
+  public static EventBatchWriter create(S3Driver s3Driver, BatchRolloverPolicy policy) {
+    return new EventBatchWriter(s3Driver, policy, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Adds the event to the open batch of the folder.
+   *
+   * @param folder  The folder where the event will be stored
+   * @param content the event body. It must not contain line separators.
+   * @return the location of the event.
+   * @throws IOException when flushing a batch fails.
+   */
+  public EventLocation write(UnixPath folder, String content) throws IOException {
+    if (content.indexOf('\n') >= 0 || content.indexOf('\r') >= 0) {
+      throw new IllegalArgumentException("Event content must not contain line separators");
+    }
+    var addition = add(folder, content);
+    if (nonNull(addition.fullBatch())) {
+      upload(addition.fullBatch());
+    }
+    flushExpiredBatches();
+    return addition.location();
+  }
+
+  /**
+   * Flushes the batches that have been open for longer than the maximum age of the policy, and the
+   * batches whose upload has failed before.
+   *
+   * @throws IOException when flushing a batch fails.
+   */
+  public void flushExpiredBatches() throws IOException {
+    retryFailedBatches();
+    var now = clock.instant();
+    for (var entry : openBatches.entrySet()) {
+      var batch = entry.getValue();
+      if (batch.hasExpired(now, policy) && openBatches.remove(entry.getKey(), batch)) {
+        upload(batch);
+      }
+    }
+  }
+
+  public void flushAll() throws IOException {
+    retryFailedBatches();
+    for (var folder : openBatches.keySet()) {
+      var batch = openBatches.remove(folder);
+      if (nonNull(batch)) {
+        upload(batch);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    flushAll();
+  }
+
+  // The batch is updated inside compute(), so that concurrent writes to the same folder are
+  // serialized while writes to other folders are not. A full batch is detached from the map here
+  // and uploaded by the caller outside of compute().
+  private Addition add(UnixPath folder, String content) {
+    var addition = new AtomicReference<Addition>();
+    openBatches.compute(folder, (key, openBatch) -> {
+      var batch = isNull(openBatch) ? newBatch(key) : openBatch;
+      var location = batch.add(content);
+      var isFull = batch.isFull(policy);
+      addition.set(new Addition(location, isFull ? batch : null));
+      return isFull ? null : batch;
+    });
+    return addition.get();
+  }
+
+  private void retryFailedBatches() throws IOException {
+    for (var batch = failedBatches.poll(); nonNull(batch); batch = failedBatches.poll()) {
+      upload(batch);
+    }
+  }
+
+  private void upload(EventBatch batch) throws IOException {
+    try {
+      s3Driver.insertCompressedLines(batch.path(), batch.lines());
+    } catch (IOException | RuntimeException e) {
+      failedBatches.add(batch);
+      throw e;
+    }
+  }
+
+  private EventBatch newBatch(UnixPath folder) {
+    var path = s3Driver.newEventFilename(folder);
+    return new EventBatch(path, s3Driver.toS3Uri(path), clock.instant());
+  }
+
+  private record Addition(EventLocation location, EventBatch fullBatch) {
+
+  }
+
+  private static final class EventBatch {
+
+    private final UnixPath path;
+    private final URI uri;
+    private final Instant openedAt;
+    private final List<String> lines;
+    private long bytes;
+
+    private EventBatch(UnixPath path, URI uri, Instant openedAt) {
+      this.path = path;
+      this.uri = uri;
+      this.openedAt = openedAt;
+      this.lines = new ArrayList<>();
+    }
+
+    private EventLocation add(String content) {
+      lines.add(content);
+      bytes += content.getBytes(StandardCharsets.UTF_8).length;
+      return new EventLocation(uri, lines.size() - 1);
+    }
+
+    private boolean isFull(BatchRolloverPolicy policy) {
+      return lines.size() >= policy.maxRecords() || bytes >= policy.maxBytes();
+    }
+
+    private boolean hasExpired(Instant now, BatchRolloverPolicy policy) {
+      return !now.isBefore(openedAt.plus(policy.maxAge()));
+    }
+
+    private UnixPath path() {
+      return path;
+    }
+
+    private List<String> lines() {
+      return lines;
+    }
+  }
+}
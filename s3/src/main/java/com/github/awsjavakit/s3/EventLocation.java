@@ -0,0 +1,13 @@
+package com.github.awsjavakit.s3;
+
+import java.net.URI;
+
+/**
+ * The location of an event stored in a batch object.
+ *
+ * @param uri  the S3 URI of the batch object.
+ * @param line the zero-based line of the event in the batch object.
+ */
+public record EventLocation(URI uri, long line) {
+
+}
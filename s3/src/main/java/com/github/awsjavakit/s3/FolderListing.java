@@ -0,0 +1,18 @@
+package com.github.awsjavakit.s3;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import java.util.List;
+
+/**
+ * A page of a delimited listing, where the direct children of a folder are returned separately
+ * from its subfolders. The complete listing of a folder has the same form, without a next page.
+ *
+ * @param files                the objects directly under the folder.
+ * @param subfolders           the subfolders of the folder (the common prefixes of the listing).
+ * @param listingStartingPoint the starting point of the next page, or {@code null} if there are
+ *                             no more pages.
+ * @param isTruncated          whether there are more entries to list.
+ */
+public record FolderListing(List<UnixPath> files, List<UnixPath> subfolders,
+                            String listingStartingPoint, boolean isTruncated) {
+}
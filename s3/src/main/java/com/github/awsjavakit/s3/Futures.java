@@ -0,0 +1,67 @@
+package com.github.awsjavakit.s3;
+
+import static com.github.awsjavakit.attempt.Try.attempt;
+
+import com.github.awsjavakit.misc.virtualfuture.VirtualFuture;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+final class Futures {
+
+  private Futures() {
+  }
+
+  /**
+   * Waits for all futures and returns their results in the order of the input list. If a task has
+   * failed with a {@link RuntimeException}, the original exception is thrown.
+   *
+   * @param futures the futures to wait for.
+   * @param <T>     the type of the results.
+   * @return the results in the order of the input list.
+   */
+  static <T> List<T> awaitAll(List<VirtualFuture<T>> futures) {
+    try {
+      return futures.stream().map(VirtualFuture::join).toList();
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  /**
+   * Waits for all futures to finish, ignoring their results and failures. Used before cleaning up
+   * after a failure, so that no task is still running while its resources are released.
+   *
+   * @param futures the futures to wait for.
+   */
+  static void awaitCompletion(List<? extends VirtualFuture<?>> futures) {
+    futures.forEach(future -> attempt(future::join));
+  }
+
+  static <T> T await(VirtualFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  static void acquire(Semaphore permits) {
+    acquire(permits, 1);
+  }
+
+  static void acquire(Semaphore permits, int numberOfPermits) {
+    try {
+      permits.acquire(numberOfPermits);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static RuntimeException unwrap(CompletionException exception) {
+    return exception.getCause() instanceof RuntimeException runtimeException
+           ? runtimeException
+           : exception;
+  }
+}
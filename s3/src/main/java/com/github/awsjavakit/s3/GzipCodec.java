@@ -0,0 +1,42 @@
+package com.github.awsjavakit.s3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip codec based on {@link java.util.zip}, always available without additional dependencies.
+ *
+ * @param compressionLevel the deflater compression level.
+ * @param bufferSize       the size of the buffers used for compressing and decompressing.
+ */
+public record GzipCodec(int compressionLevel, int bufferSize) implements CompressionCodec {
+
+  public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  @Override
+  public String fileExtension() {
+    return S3Driver.GZIP_ENDING;
+  }
+
+  @Override
+  public OutputStream compress(OutputStream target) throws IOException {
+    return new LeveledGzipOutputStream(target, bufferSize, compressionLevel);
+  }
+
+  @Override
+  public InputStream decompress(InputStream compressed) throws IOException {
+    return new GZIPInputStream(compressed, bufferSize);
+  }
+
+  private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+    private LeveledGzipOutputStream(OutputStream out, int bufferSize, int level)
+      throws IOException {
+      super(out, bufferSize);
+      def.setLevel(level);
+    }
+  }
+}
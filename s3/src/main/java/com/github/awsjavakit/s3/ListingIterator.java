@@ -0,0 +1,77 @@
+package com.github.awsjavakit.s3;
+
+import static com.github.awsjavakit.s3.S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.virtualfuture.VirtualFuture;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the files of a folder fetching the pages of the listing on demand. Only one page
+ * (two pages when prefetching is enabled) is held in memory at any time.
+ */
+class ListingIterator implements Iterator<UnixPath> {
+
+  private static final String START_OF_LISTING = null;
+  private final S3Driver s3Driver;
+  private final UnixPath folder;
+  private final boolean prefetchNextPage;
+  private Iterator<UnixPath> currentPage;
+  private ListingResult lastFetchedPage;
+  private VirtualFuture<ListingResult> prefetchedPage;
+
+  ListingIterator(S3Driver s3Driver, UnixPath folder, boolean prefetchNextPage) {
+    this.s3Driver = s3Driver;
+    this.folder = folder;
+    this.prefetchNextPage = prefetchNextPage;
+    this.currentPage = Collections.emptyIterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!currentPage.hasNext() && hasMorePages()) {
+      fetchNextPage();
+    }
+    return currentPage.hasNext();
+  }
+
+  @Override
+  public UnixPath next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more files in folder " + folder);
+    }
+    return currentPage.next();
+  }
+
+  private boolean hasMorePages() {
+    return isNull(lastFetchedPage) || lastFetchedPage.isTruncated();
+  }
+
+  private void fetchNextPage() {
+    lastFetchedPage = nonNull(prefetchedPage)
+                      ? Futures.await(prefetchedPage)
+                      : listPage(nextStartingPoint());
+    prefetchedPage = shouldPrefetch() ? prefetch(lastFetchedPage.getListingStartingPoint()) : null;
+    currentPage = lastFetchedPage.getFiles().iterator();
+  }
+
+  private boolean shouldPrefetch() {
+    return prefetchNextPage && lastFetchedPage.isTruncated();
+  }
+
+  private VirtualFuture<ListingResult> prefetch(String startingPoint) {
+    return VirtualFuture.supply(() -> listPage(startingPoint));
+  }
+
+  private String nextStartingPoint() {
+    return isNull(lastFetchedPage) ? START_OF_LISTING : lastFetchedPage.getListingStartingPoint();
+  }
+
+  private ListingResult listPage(String startingPoint) {
+    return s3Driver.listFiles(folder, startingPoint, MAX_RESPONSE_SIZE_FOR_S3_LISTING);
+  }
+}
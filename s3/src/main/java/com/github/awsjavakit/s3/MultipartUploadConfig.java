@@ -0,0 +1,29 @@
+package com.github.awsjavakit.s3;
+
+/**
+ * Configuration for streaming multipart uploads.
+ *
+ * @param partSize         the size in bytes of every part except the last one. S3 requires at
+ *                         least {@link #MIN_PART_SIZE} bytes per part.
+ * @param maxPartsInFlight the maximum number of parts being uploaded concurrently. The memory used
+ *                         by an upload is bounded by {@code (maxPartsInFlight + 1) * partSize}.
+ */
+public record MultipartUploadConfig(int partSize, int maxPartsInFlight) {
+
+  public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+  public static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+  public static final int DEFAULT_MAX_PARTS_IN_FLIGHT = 4;
+
+  public MultipartUploadConfig {
+    if (partSize < MIN_PART_SIZE) {
+      throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+    }
+    if (maxPartsInFlight < 1) {
+      throw new IllegalArgumentException("At least one part must be allowed in flight");
+    }
+  }
+
+  public static MultipartUploadConfig defaultConfig() {
+    return new MultipartUploadConfig(DEFAULT_PART_SIZE, DEFAULT_MAX_PARTS_IN_FLIGHT);
+  }
+}
@@ -0,0 +1,195 @@
+package com.github.awsjavakit.s3;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.virtualfuture.VirtualFuture;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * Uploads an {@link InputStream} of unknown length as an S3 multipart upload. The stream is read
+ * in parts of fixed size and at most {@link MultipartUploadConfig#maxPartsInFlight()} parts are
+ * uploaded concurrently, so the memory footprint does not depend on the size of the stream.
+ * Streams shorter than one part are uploaded with a single PUT request.
+ *
+ * <p>When a part fails, the stream is not read any further. The upload is aborted only after all
+ * parts in flight have finished, so that no part is uploaded after the abort.
+ */
+class MultipartUploader {
+
+  public static final int FIRST_PART_NUMBER = 1;
+  public static final int MAX_NUMBER_OF_PARTS = 10_000;
+  public static final String OCTET_STREAM = "application/octet-stream";
+  private final S3Client client;
+  private final String bucketName;
+  private final MultipartUploadConfig config;
+
+  MultipartUploader(S3Client client, String bucketName, MultipartUploadConfig config) {
+    this.client = client;
+    this.bucketName = bucketName;
+    this.config = config;
+  }
+
+  public void upload(UnixPath path, InputStream content) throws IOException {
+    var firstPart = readFirstPart(content);
+    if (firstPart.length() < config.partSize()) {
+      putSingleObject(path, firstPart);
+    } else {
+      uploadInParts(path, firstPart, content);
+    }
+  }
+
+  private static RequestBody requestBody(Part part) {
+    return RequestBody.fromContentProvider(
+      () -> new ByteArrayInputStream(part.bytes(), 0, part.length()),
+      part.length(),
+      OCTET_STREAM);
+  }
+
+  private void putSingleObject(UnixPath path, Part part) {
+    var request = PutObjectRequest.builder()
+      .bucket(bucketName)
+      .key(path.toString())
+      .build();
+    client.putObject(request, requestBody(part));
+  }
+
+  private void uploadInParts(UnixPath path, Part firstPart, InputStream content)
+    throws IOException {
+    var uploadId = createUpload(path);
+    try {
+      var completedParts = uploadParts(path, uploadId, firstPart, content);
+      completeUpload(path, uploadId, completedParts);
+    } catch (IOException | RuntimeException e) {
+      abortAfterFailure(path, uploadId, e);
+      throw e;
+    }
+  }
+
+  private List<CompletedPart> uploadParts(UnixPath path, String uploadId, Part firstPart,
+    InputStream content) throws IOException {
+    var permits = new Semaphore(config.maxPartsInFlight());
+    var failed = new AtomicBoolean();
+    var uploads = new ArrayList<VirtualFuture<CompletedPart>>();
+    try {
+      var part = firstPart;
+      while (part.length() > 0) {
+        Futures.acquire(permits);
+        if (failed.get()) {
+          break;
+        }
+        var currentPart = part;
+        uploads.add(VirtualFuture.supply(
+          () -> uploadPart(path, uploadId, currentPart, permits, failed)));
+        part = readPart(content, part.number() + 1);
+      }
+      return Futures.awaitAll(uploads);
+    } catch (IOException | RuntimeException e) {
+      Futures.awaitCompletion(uploads);
+      throw e;
+    }
+  }
+
+  // A failed part is flagged before its permit is released, so that the reading loop sees the
+  // failure as soon as it gets the permit.
+  private CompletedPart uploadPart(UnixPath path, String uploadId, Part part,
+    Semaphore permits, AtomicBoolean failed) {
+    try {
+      var request = UploadPartRequest.builder()
+        .bucket(bucketName)
+        .key(path.toString())
+        .uploadId(uploadId)
+        .partNumber(part.number())
+        .contentLength((long) part.length())
+        .build();
+      var response = client.uploadPart(request, requestBody(part));
+      return CompletedPart.builder()
+        .partNumber(part.number())
+        .eTag(response.eTag())
+        .build();
+    } catch (RuntimeException e) {
+      failed.set(true);
+      throw e;
+    } finally {
+      permits.release();
+    }
+  }
+
+  // Allocates only as much memory as the content needs, so that small uploads do not pay for a
+  // full part buffer.
+  private Part readFirstPart(InputStream content) throws IOException {
+    var bytes = content.readNBytes(config.partSize());
+    return new Part(FIRST_PART_NUMBER, bytes, bytes.length);
+  }
+
+  private Part readPart(InputStream content, int partNumber) throws IOException {
+    if (partNumber > MAX_NUMBER_OF_PARTS) {
+      return endOfStream(content, partNumber);
+    }
+    var buffer = new byte[config.partSize()];
+    var length = content.readNBytes(buffer, 0, buffer.length);
+    return new Part(partNumber, buffer, length);
+  }
+
+  // A stream may end exactly at the last allowed part, so the limit is exceeded only if there is
+  // data left after it.
+  private static Part endOfStream(InputStream content, int partNumber) throws IOException {
+    if (content.read() >= 0) {
+      throw new IllegalStateException(
+        "Stream does not fit in " + MAX_NUMBER_OF_PARTS + " parts. Increase the part size");
+    }
+    return new Part(partNumber, new byte[0], 0);
+  }
+
+  private String createUpload(UnixPath path) {
+    var request = CreateMultipartUploadRequest.builder()
+      .bucket(bucketName)
+      .key(path.toString())
+      .build();
+    return client.createMultipartUpload(request).uploadId();
+  }
+
+  private void completeUpload(UnixPath path, String uploadId, List<CompletedPart> parts) {
+    var request = CompleteMultipartUploadRequest.builder()
+      .bucket(bucketName)
+      .key(path.toString())
+      .uploadId(uploadId)
+      .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+      .build();
+    client.completeMultipartUpload(request);
+  }
+
+  private void abortAfterFailure(UnixPath path, String uploadId, Exception failure) {
+    try {
+      abortUpload(path, uploadId);
+    } catch (RuntimeException abortFailure) {
+      failure.addSuppressed(abortFailure);
+    }
+  }
+
+  private void abortUpload(UnixPath path, String uploadId) {
+    var request = AbortMultipartUploadRequest.builder()
+      .bucket(bucketName)
+      .key(path.toString())
+      .uploadId(uploadId)
+      .build();
+    client.abortMultipartUpload(request);
+  }
+
+  private record Part(int number, byte[] bytes, int length) {
+
+  }
+}
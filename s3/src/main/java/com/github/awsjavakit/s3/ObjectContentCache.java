@@ -0,0 +1,100 @@
+package com.github.awsjavakit.s3;
+
+import com.github.awsjavakit.misc.cache.ConcurrentLruCache;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local copy of the contents of S3 objects, used for conditional reads. Every read is still
+ * validated against S3 with the ETag of the cached copy, so the cache never serves stale contents;
+ * it only saves the download of objects that have not changed. The least recently used objects are
+ * evicted when the total size of the cached contents exceeds the limit. The cache is safe for
+ * concurrent use, and reads of different objects do not wait for each other.
+ */
+public class ObjectContentCache {
+
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+  private final ConcurrentLruCache<URI, CachedContent> entries;
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+
+  public ObjectContentCache(long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Cache size must not be negative");
+    }
+    // Objects larger than the whole cache are not stored, so that they do not evict everything
+    // else.
+    this.entries = ConcurrentLruCache.withMaxWeight(maxBytes, content -> content.body().length);
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+  }
+
+  public static ObjectContentCache create() {
+    return new ObjectContentCache(DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * Returns a cache that stores nothing, so that every conditional read downloads the object.
+   *
+   * @return a disabled cache.
+   */
+  public static ObjectContentCache disabled() {
+    return new ObjectContentCache(0);
+  }
+
+  public void invalidate(URI object) {
+    entries.remove(object);
+  }
+
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * Returns the number of reads that were served from the cache after S3 reported that the object
+   * had not been modified.
+   *
+   * @return the number of cache hits.
+   */
+  public long hits() {
+    return hits.get();
+  }
+
+  public long misses() {
+    return misses.get();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long sizeInBytes() {
+    return entries.weight();
+  }
+
+  Optional<CachedContent> get(URI object) {
+    return entries.get(object);
+  }
+
+  void put(URI object, CachedContent content) {
+    entries.put(object, content);
+  }
+
+  void recordHit() {
+    hits.incrementAndGet();
+  }
+
+  void recordMiss() {
+    misses.incrementAndGet();
+  }
+
+  /**
+   * The raw (still compressed) body of an object together with the validators of the version it
+   * belongs to.
+   */
+  record CachedContent(String eTag, Instant lastModified, byte[] body) {
+
+  }
+}
@@ -0,0 +1,175 @@
+package com.github.awsjavakit.s3;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.github.awsjavakit.misc.cache.ConcurrentLruCache;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache for the last modified timestamps and the tags of S3 objects. Entries expire after
+ * a fixed time-to-live, and the least recently used entries are evicted when the cache is full.
+ * The cache is ETag-aware: when an object is observed with a different ETag than the cached one
+ * (e.g. in a listing), all cached metadata of the object are discarded. The cache is safe for
+ * concurrent use, and lookups of different objects do not wait for each other.
+ *
+ * <p>Tags can change without changing the ETag of an object, so cached tags are only as fresh as
+ * the time-to-live allows.
+ */
+public class ObjectMetadataCache {
+
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+  public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+  private final int maxEntries;
+  private final Duration ttl;
+  private final Clock clock;
+  private final ConcurrentLruCache<URI, CachedMetadata> entries;
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+
+  public ObjectMetadataCache(int maxEntries, Duration ttl, Clock clock) {
+    if (maxEntries < 0 || ttl.isNegative()) {
+      throw new IllegalArgumentException("Cache size and time-to-live must not be negative");
+    }
+    this.maxEntries = maxEntries;
+    this.ttl = ttl;
+    this.clock = clock;
+    this.entries = ConcurrentLruCache.withMaxEntries(maxEntries);
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+  }
+
+  public static ObjectMetadataCache create() {
+    return create(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+  }
+
+  public static ObjectMetadataCache create(int maxEntries, Duration ttl) {
+    return new ObjectMetadataCache(maxEntries, ttl, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Returns a cache that stores nothing. Every lookup is counted as a miss.
+   *
+   * @return a disabled cache.
+   */
+  public static ObjectMetadataCache disabled() {
+    return create(0, Duration.ZERO);
+  }
+
+  /**
+   * Returns whether the cache stores anything, so that callers can skip collecting metadata for a
+   * disabled cache.
+   *
+   * @return {@code false} if the cache stores nothing.
+   */
+  public boolean isEnabled() {
+    return maxEntries > 0;
+  }
+
+  public Optional<Instant> lastModified(URI object) {
+    return count(freshEntry(object)
+      .map(CachedMetadata::lastModified)
+      .filter(this::isFresh)
+      .map(Expiring::value));
+  }
+
+  public Optional<Map<String, String>> tags(URI object) {
+    return count(freshEntry(object)
+      .map(CachedMetadata::tags)
+      .filter(this::isFresh)
+      .map(Expiring::value));
+  }
+
+  /**
+   * Records the ETag and the last modified timestamp of an object, as returned by a listing or a
+   * HEAD request. If the ETag differs from the cached one, the cached tags are discarded.
+   *
+   * @param object       the S3 URI of the object.
+   * @param eTag         the ETag of the object, or {@code null} if unknown.
+   * @param lastModified the last modified timestamp of the object.
+   */
+  public void putLastModified(URI object, String eTag, Instant lastModified) {
+    entries.compute(object, cached -> new CachedMetadata(eTag, expiring(lastModified),
+      sameVersion(cached, eTag).tags()));
+  }
+
+  public void putTags(URI object, Map<String, String> tags) {
+    entries.compute(object, cached -> {
+      var current = isNull(cached) ? CachedMetadata.EMPTY : cached;
+      return new CachedMetadata(current.eTag(), current.lastModified(),
+        expiring(Map.copyOf(tags)));
+    });
+  }
+
+  public void invalidate(URI object) {
+    entries.remove(object);
+  }
+
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  public long hits() {
+    return hits.get();
+  }
+
+  public long misses() {
+    return misses.get();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private static CachedMetadata sameVersion(CachedMetadata cached, String eTag) {
+    return isNull(cached) || nonNull(cached.eTag()) && !cached.eTag().equals(eTag)
+           ? CachedMetadata.EMPTY
+           : cached;
+  }
+
+  private Optional<CachedMetadata> freshEntry(URI object) {
+    var cached = entries.get(object);
+    if (cached.filter(this::isStale).isPresent()) {
+      entries.removeIf(object, this::isStale);
+      return Optional.empty();
+    }
+    return cached;
+  }
+
+  private boolean isStale(CachedMetadata metadata) {
+    return !isFresh(metadata.lastModified()) && !isFresh(metadata.tags());
+  }
+
+  private <T> Optional<T> count(Optional<T> lookup) {
+    if (lookup.isPresent()) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    return lookup;
+  }
+
+  private <T> Expiring<T> expiring(T value) {
+    return new Expiring<>(value, clock.instant().plus(ttl));
+  }
+
+  private boolean isFresh(Expiring<?> value) {
+    return nonNull(value) && nonNull(value.value()) && clock.instant().isBefore(value.expiresAt());
+  }
+
+  private record Expiring<T>(T value, Instant expiresAt) {
+
+  }
+
+  private record CachedMetadata(String eTag, Expiring<Instant> lastModified,
+                                Expiring<Map<String, String>> tags) {
+
+    private static final CachedMetadata EMPTY = new CachedMetadata(null, null, null);
+  }
+}
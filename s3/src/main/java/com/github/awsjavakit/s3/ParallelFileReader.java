@@ -0,0 +1,68 @@
+package com.github.awsjavakit.s3;
+
+import static com.github.awsjavakit.s3.S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.virtualfuture.VirtualFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reads the contents of all files in a folder concurrently on virtual threads. The next page of
+ * the listing is fetched in the background while the files of the current page are being
+ * downloaded. The results are returned in the order of the listing.
+ */
+class ParallelFileReader {
+
+  private static final String START_OF_LISTING = null;
+  private final S3Driver s3Driver;
+  private final int maxConcurrentDownloads;
+
+  ParallelFileReader(S3Driver s3Driver, int maxConcurrentDownloads) {
+    if (maxConcurrentDownloads < 1) {
+      throw new IllegalArgumentException("At least one concurrent download must be allowed");
+    }
+    this.s3Driver = s3Driver;
+    this.maxConcurrentDownloads = maxConcurrentDownloads;
+  }
+
+  public List<String> readFiles(UnixPath folder) {
+    var permits = new Semaphore(maxConcurrentDownloads);
+    var downloads = new ArrayList<VirtualFuture<String>>();
+    var currentPage = Optional.of(listPage(folder, START_OF_LISTING));
+    while (currentPage.isPresent()) {
+      var page = currentPage.orElseThrow();
+      var nextPage = prefetchNextPage(folder, page);
+      page.getFiles().forEach(file -> downloads.add(download(file, permits)));
+      currentPage = nextPage.map(Futures::await);
+    }
+    return Futures.awaitAll(downloads);
+  }
+
+  private Optional<VirtualFuture<ListingResult>> prefetchNextPage(UnixPath folder,
+    ListingResult page) {
+    return page.isTruncated()
+           ? Optional.of(VirtualFuture.supply(
+      () -> listPage(folder, page.getListingStartingPoint())))
+           : Optional.empty();
+  }
+
+  private ListingResult listPage(UnixPath folder, String startingPoint) {
+    return s3Driver.listFiles(folder, startingPoint, MAX_RESPONSE_SIZE_FOR_S3_LISTING);
+  }
+
+  private VirtualFuture<String> download(UnixPath file, Semaphore permits) {
+    Futures.acquire(permits);
+    return VirtualFuture.supply(() -> downloadAndRelease(file, permits));
+  }
+
+  private String downloadAndRelease(UnixPath file, Semaphore permits) {
+    try {
+      return s3Driver.getFile(file);
+    } finally {
+      permits.release();
+    }
+  }
+}
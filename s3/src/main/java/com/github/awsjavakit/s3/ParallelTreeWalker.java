@@ -0,0 +1,48 @@
+package com.github.awsjavakit.s3;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.virtualfuture.VirtualFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Lists all files under a folder by walking the folder hierarchy with delimited listings. The
+ * subfolders of every folder are listed concurrently on virtual threads, so deep or wide
+ * hierarchies (e.g. date-partitioned folders) are listed in parallel instead of page by page.
+ * The files of each folder are returned before the files of its subfolders.
+ */
+class ParallelTreeWalker {
+
+  private final S3Driver s3Driver;
+  private final Semaphore permits;
+
+  ParallelTreeWalker(S3Driver s3Driver, int maxConcurrentListings) {
+    if (maxConcurrentListings < 1) {
+      throw new IllegalArgumentException("At least one concurrent listing must be allowed");
+    }
+    this.s3Driver = s3Driver;
+    this.permits = new Semaphore(maxConcurrentListings);
+  }
+
+  public List<UnixPath> walk(UnixPath folder) {
+    var listing = listFolder(folder);
+    var subfolderWalks = listing.subfolders().stream()
+      .map(subfolder -> VirtualFuture.supply(() -> walk(subfolder)))
+      .toList();
+    var files = new ArrayList<>(listing.files());
+    Futures.awaitAll(subfolderWalks).forEach(files::addAll);
+    return files;
+  }
+
+  // The permit is held only while listing, never while waiting for the subfolders, so that the
+  // walk cannot deadlock when the hierarchy is deeper than the number of permits.
+  private FolderListing listFolder(UnixPath folder) {
+    Futures.acquire(permits);
+    try {
+      return s3Driver.listFolder(folder);
+    } finally {
+      permits.release();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.github.awsjavakit.s3;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.virtualfuture.VirtualFuture;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Queue;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Downloads an object as a sequence of ranged GET requests issued concurrently on virtual threads,
+ * and writes the ranges to the output in order. At most {@code maxRangesInFlight} ranges are
+ * downloaded or buffered at any time, so the memory footprint does not depend on the size of the
+ * object. Every range is requested with the ETag returned by the initial HEAD request, so an
+ * object that is overwritten during the download fails the download instead of producing a mix of
+ * both versions.
+ */
+class RangedDownloader {
+
+  private static final int PRECONDITION_FAILED = 412;
+  private final S3Client client;
+  private final S3Requests requests;
+  private final int rangeSize;
+  private final int maxRangesInFlight;
+
+  RangedDownloader(S3Client client, S3Requests requests, int rangeSize, int maxRangesInFlight) {
+    if (rangeSize < 1 || maxRangesInFlight < 1) {
+      throw new IllegalArgumentException("Range size and ranges in flight must be positive");
+    }
+    this.client = client;
+    this.requests = requests;
+    this.rangeSize = rangeSize;
+    this.maxRangesInFlight = maxRangesInFlight;
+  }
+
+  /**
+   * Downloads the object and writes it to the output.
+   *
+   * @param file   the Location path of the item (without the bucket name)
+   * @param output where the content of the object is written.
+   * @throws IOException                     when writing to the output fails.
+   * @throws ConcurrentModificationException when the object is overwritten during the download.
+   */
+  public void download(UnixPath file, OutputStream output) throws IOException {
+    var head = client.headObject(requests.headObject(file));
+    var objectSize = head.contentLength();
+    var downloads = new ArrayDeque<VirtualFuture<byte[]>>(maxRangesInFlight);
+    var nextOffset = 0L;
+    while (nextOffset < objectSize || !downloads.isEmpty()) {
+      nextOffset = fillWindow(file, head.eTag(), objectSize, nextOffset, downloads);
+      output.write(Futures.await(downloads.remove()));
+    }
+  }
+
+  private long fillWindow(UnixPath file, String eTag, long objectSize, long startingOffset,
+    Queue<VirtualFuture<byte[]>> downloads) {
+    var offset = startingOffset;
+    while (downloads.size() < maxRangesInFlight && offset < objectSize) {
+      var range = S3Requests.byteRange(offset, Math.min(rangeSize, objectSize - offset));
+      downloads.add(VirtualFuture.supply(() -> fetchRange(file, range, eTag)));
+      offset += rangeSize;
+    }
+    return offset;
+  }
+
+  private byte[] fetchRange(UnixPath file, String range, String eTag) {
+    try {
+      return client.getObject(requests.getObject(file, range, eTag), ResponseTransformer.toBytes())
+        .asByteArray();
+    } catch (S3Exception e) {
+      if (e.statusCode() == PRECONDITION_FAILED) {
+        throw new ConcurrentModificationException(
+          "Object " + file + " was modified during the download", e);
+      }
+      throw e;
+    }
+  }
+}
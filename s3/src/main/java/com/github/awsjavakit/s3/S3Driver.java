@@ -4,44 +4,50 @@ import static com.github.awsjavakit.attempt.Try.attempt;
 import static java.util.Objects.isNull;
 
 import com.github.awsjavakit.misc.JacocoGenerated;
-import com.github.awsjavakit.misc.StringUtils;
 import com.github.awsjavakit.misc.ioutils.IoUtils;
 import com.github.awsjavakit.misc.paths.UnixPath;
-import com.github.awsjavakit.misc.paths.UriWrapper;
+import com.github.awsjavakit.s3.ObjectContentCache.CachedContent;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.GZIPInputStream;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
-import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
-import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.Tag;
-import software.amazon.awssdk.services.s3.model.Tagging;
-import software.amazon.awssdk.services.s3.model.TaggingDirective;
 
 //TODO: Address God Class issue
 @SuppressWarnings({"PMD.GodClass", "PMD.CouplingBetweenObjects"})
@@ -56,17 +62,60 @@ public class S3Driver {
   public static final int REMOVE_ROOT = 1;
   public static final int MAX_RESPONSE_SIZE_FOR_S3_LISTING = 1000;
   public static final String S3_SCHEME = "s3";
+  public static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 32;
+  public static final int DEFAULT_MAX_CONCURRENT_COPIES = 64;
+  public static final int DEFAULT_MAX_CONCURRENT_LISTINGS = 16;
+  public static final int DEFAULT_MAX_CONCURRENT_DELETES = 8;
+  public static final int DEFAULT_RANGE_SIZE = 8 * 1024 * 1024;
+  public static final int DEFAULT_MAX_RANGES_IN_FLIGHT = 4;
+  private static final int NOT_MODIFIED = 304;
   private final S3Client client;
   private final String bucketName;
+  private final CompressionCodecs codecs;
+  private final S3Requests requests;
+  private final ObjectMetadataCache metadataCache;
 
   public S3Driver(S3Client s3Client, String bucketName) {
+    this(s3Client, bucketName, CompressionCodecs.defaultCodecs());
+  }
+
+  /**
+   * Creates a driver that compresses and decompresses objects with the specified codecs, selected
+   * by the file extension of each object.
+   *
+   * @param s3Client   the S3 client.
+   * @param bucketName the bucket the driver operates on.
+   * @param codecs     the supported compression codecs.
+   */
+  public S3Driver(S3Client s3Client, String bucketName, CompressionCodecs codecs) {
+    this(s3Client, bucketName, codecs, ObjectMetadataCache.disabled());
+  }
+
+  /**
+   * Creates a driver that serves {@link #lastModified(URI)} and {@link #getTags(URI)} from the
+   * specified cache when possible. The cache is also populated from listings, and entries are
+   * invalidated when the driver writes to the corresponding objects.
+   *
+   * @param s3Client      the S3 client.
+   * @param bucketName    the bucket the driver operates on.
+   * @param metadataCache the cache for object metadata.
+   */
+  public S3Driver(S3Client s3Client, String bucketName, ObjectMetadataCache metadataCache) {
+    this(s3Client, bucketName, CompressionCodecs.defaultCodecs(), metadataCache);
+  }
+
+  public S3Driver(S3Client s3Client, String bucketName, CompressionCodecs codecs,
+    ObjectMetadataCache metadataCache) {
     this.client = s3Client;
     this.bucketName = bucketName;
+    this.codecs = codecs;
+    this.requests = new S3Requests(bucketName);
+    this.metadataCache = metadataCache;
   }
 
   /**
-   * Inserts the content of the string in the specified location.If the filename is gz, it
-   * compresses the contents.
+   * Inserts the content of the string in the specified location.If the filename has the extension
+   * of a registered {@link CompressionCodec} (e.g. gz), it compresses the contents.
    *
    * @param fullPath the Location path of the item (without the bucket name)
    * @param content  The data we want to store
@@ -74,22 +123,80 @@ public class S3Driver {
    * @throws IOException when compression fails.
    */
   public URI insertFile(UnixPath fullPath, String content) throws IOException {
-    if (fullPath.getLastPathElement().endsWith(GZIP_ENDING)) {
-      insertCompressedFile(fullPath, content);
+    var codec = codecs.forWriting(fullPath.getLastPathElement());
+    if (codec.isPresent()) {
+      insertCompressedFile(fullPath, content, codec.orElseThrow());
     } else {
       insertUncompressedFile(fullPath, content);
     }
-    return s3BucketUri().addChild(fullPath).getUri();
+    return invalidateCachedMetadata(fullPath);
   }
 
   public URI insertFile(UnixPath fullPath, InputStream content) throws IOException {
-    client.putObject(newPutObjectRequest(fullPath), createRequestBody(content));
-    return s3BucketUri().addChild(fullPath).getUri();
+    client.putObject(requests.putObject(fullPath), createRequestBody(content));
+    return invalidateCachedMetadata(fullPath);
   }
 
   public URI insertFile(UnixPath fullPath, File content) {
-    client.putObject(newPutObjectRequest(fullPath), createRequestBody(content));
-    return s3BucketUri().addChild(fullPath).getUri();
+    client.putObject(requests.putObject(fullPath), createRequestBody(content));
+    return invalidateCachedMetadata(fullPath);
+  }
+
+  /**
+   * Uploads the file without loading it in memory.
+   *
+   * @param fullPath the Location path of the item (without the bucket name)
+   * @param content  the file we want to store
+   * @return URI for the S3 object
+   */
+  public URI insertFile(UnixPath fullPath, Path content) {
+    client.putObject(requests.putObject(fullPath), RequestBody.fromFile(content));
+    return invalidateCachedMetadata(fullPath);
+  }
+
+  /**
+   * Uploads the remaining bytes of the buffer. The bytes are read directly from the buffer, so
+   * direct and memory-mapped buffers are uploaded without being copied to the heap. The position
+   * of the buffer is not changed.
+   *
+   * @param fullPath the Location path of the item (without the bucket name)
+   * @param content  the data we want to store
+   * @return URI for the S3 object
+   */
+  public URI insertFile(UnixPath fullPath, ByteBuffer content) {
+    var body = RequestBody.fromContentProvider(() -> new ByteBufferInputStream(content),
+      content.remaining(), MultipartUploader.OCTET_STREAM);
+    client.putObject(requests.putObject(fullPath), body);
+    return invalidateCachedMetadata(fullPath);
+  }
+
+  /**
+   * Streams the content to S3 as a multipart upload using the default {@link
+   * MultipartUploadConfig}. The content is never fully loaded in memory.
+   *
+   * @param fullPath the Location path of the item (without the bucket name)
+   * @param content  The data we want to store
+   * @return URI for the S3 object
+   * @throws IOException when reading the content fails.
+   */
+  public URI insertFileInParts(UnixPath fullPath, InputStream content) throws IOException {
+    return insertFileInParts(fullPath, content, MultipartUploadConfig.defaultConfig());
+  }
+
+  /**
+   * Streams the content to S3 as a multipart upload. Content smaller than one part is uploaded
+   * with a single PUT request.
+   *
+   * @param fullPath the Location path of the item (without the bucket name)
+   * @param content  The data we want to store
+   * @param config   the part size and the number of parts that are uploaded concurrently
+   * @return URI for the S3 object
+   * @throws IOException when reading the content fails.
+   */
+  public URI insertFileInParts(UnixPath fullPath, InputStream content,
+    MultipartUploadConfig config) throws IOException {
+    new MultipartUploader(client, bucketName, config).upload(fullPath, content);
+    return invalidateCachedMetadata(fullPath);
   }
 
   /**
@@ -101,9 +208,9 @@ public class S3Driver {
    * @throws IOException when IO fails
    */
   public URI insertEvent(UnixPath folder, String content) throws IOException {
-    UnixPath filePath = folder.addChild(UUID.randomUUID() + GZIP_ENDING);
-    insertCompressedFile(filePath, content);
-    return s3BucketUri().addChild(filePath).getUri();
+    UnixPath filePath = newEventFilename(folder);
+    insertCompressedFile(filePath, content, codecs.defaultCodec());
+    return toS3Uri(filePath);
   }
 
   /**
@@ -116,6 +223,20 @@ public class S3Driver {
     return readFile(uri);
   }
 
+  /**
+   * Method for reading a single event from a batch written by {@link EventBatchWriter}.
+   *
+   * @param location the location returned when the event was written.
+   * @return the event body.
+   */
+  public String readEvent(EventLocation location) {
+    try (var lines = readLines(location.uri())) {
+      return lines.skip(location.line())
+        .findFirst()
+        .orElseThrow(() -> new NoSuchElementException("No event at " + location));
+    }
+  }
+
   /**
    * Method for reading files from S3 bucket.
    *
@@ -123,15 +244,39 @@ public class S3Driver {
    * @return the file contents uncompressed.
    */
   public String readFile(URI uri) {
-    UnixPath filePath = UriWrapper.fromUri(uri).toS3bucketPath();
+    UnixPath filePath = S3Requests.toS3bucketPath(uri);
     return getFile(filePath);
   }
 
+  /**
+   * Reads a file that is polled repeatedly, downloading it only when it has changed. The cached
+   * copy is validated with a conditional request (If-None-Match / If-Modified-Since), so unchanged
+   * objects cost a single 304 response instead of a full download.
+   *
+   * @param uri   the S3 URI to the file. The host must be equal to the bucket name of the S3 driver
+   * @param cache the cache holding the last downloaded copy of the file.
+   * @return the file contents uncompressed.
+   */
+  public String readFile(URI uri, ObjectContentCache cache) {
+    return getFile(S3Requests.toS3bucketPath(uri), cache);
+  }
+
   public InputStream readFileAsStream(URI uri) {
-    var filePath = UriWrapper.fromUri(uri).toS3bucketPath();
+    var filePath = S3Requests.toS3bucketPath(uri);
     return getFileAsStream(filePath);
   }
 
+  /**
+   * Method for reading files line by line from S3 bucket. Compressed files are decompressed while
+   * being read. The returned stream must be closed in order to release the underlying connection.
+   *
+   * @param uri the S3 URI to the file. The host must be equal to the bucket name of the S3 driver
+   * @return a lazily evaluated stream of the lines of the file.
+   */
+  public Stream<String> readLines(URI uri) {
+    return getLines(S3Requests.toS3bucketPath(uri));
+  }
+
   /**
    * Returns the last modified timestamp of the given S3 object.
    *
@@ -140,9 +285,13 @@ public class S3Driver {
    * @return the object's last modified timestamp.
    */
   public Instant lastModified(URI fileUri) {
-    var filePath = UriWrapper.fromUri(fileUri).toS3bucketPath();
-    var response = client.headObject(createHeadObjectRequest(filePath));
-    return response.lastModified();
+    var filePath = S3Requests.toS3bucketPath(fileUri);
+    var cacheKey = toS3Uri(filePath);
+    return metadataCache.lastModified(cacheKey).orElseGet(() -> {
+      var response = client.headObject(requests.headObject(filePath));
+      metadataCache.putLastModified(cacheKey, response.eTag(), response.lastModified());
+      return response.lastModified();
+    });
   }
 
   /**
@@ -153,14 +302,18 @@ public class S3Driver {
    * @return a map of tag keys to tag values.
    */
   public Map<String, String> getTags(URI fileUri) {
-    var filePath = UriWrapper.fromUri(fileUri).toS3bucketPath();
-    var request = GetObjectTaggingRequest.builder()
-        .bucket(bucketName)
-        .key(filePath.toString())
-        .build();
-    var response = client.getObjectTagging(request);
-    return response.tagSet().stream()
-        .collect(Collectors.toMap(Tag::key,Tag::value));
+    var filePath = S3Requests.toS3bucketPath(fileUri);
+    var cacheKey = toS3Uri(filePath);
+    return metadataCache.tags(cacheKey).orElseGet(() -> {
+      var response = client.getObjectTagging(requests.getObjectTagging(filePath));
+      var tags = S3Requests.toTagMap(response);
+      metadataCache.putTags(cacheKey, tags);
+      return tags;
+    });
+  }
+
+  public ObjectMetadataCache getMetadataCache() {
+    return metadataCache;
   }
 
   @JacocoGenerated
@@ -177,12 +330,30 @@ public class S3Driver {
 
   public URI insertAndCompressObjects(UnixPath s3Folder, List<String> content) throws IOException {
     UnixPath path = filenameForZippedFile(s3Folder);
-    PutObjectRequest putObjectRequest = newPutObjectRequest(path);
     try (InputStream compressedContent = compressContent(content)) {
-      RequestBody requestBody = createRequestBody(compressedContent);
-      client.putObject(putObjectRequest, requestBody);
+      uploadStream(path, compressedContent);
     }
-    return s3BucketUri().addChild(path).getUri();
+    return toS3Uri(path);
+  }
+
+  /**
+   * Compresses the content as a JSON-lines gzip file and stores it in the specified folder. The
+   * content is consumed lazily and compressed while it is being uploaded, so the batch never
+   * needs to fit in memory.
+   *
+   * @param s3Folder the folder where the file will be stored.
+   * @param content  the lines of the file.
+   * @return URI for the S3 object
+   * @throws IOException when compression fails.
+   */
+  public URI insertAndCompressObjects(UnixPath s3Folder, Stream<String> content)
+    throws IOException {
+    UnixPath path = filenameForZippedFile(s3Folder);
+    var compressor = StringCompressor.create(content, codecs.defaultCodec());
+    try (InputStream compressedContent = compressor.compressedData()) {
+      uploadStream(path, compressedContent);
+    }
+    return toS3Uri(path);
   }
 
   public URI insertAndCompressObjects(List<String> content) throws IOException {
@@ -196,23 +367,64 @@ public class S3Driver {
       .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the contents of all files in the folder, downloading up to {@link
+   * #DEFAULT_MAX_CONCURRENT_DOWNLOADS} files concurrently.
+   *
+   * @param folder The folder that we wish to read its files.
+   * @return the file contents uncompressed, in the order of the listing.
+   */
+  public List<String> getFilesInParallel(UnixPath folder) {
+    return getFilesInParallel(folder, DEFAULT_MAX_CONCURRENT_DOWNLOADS);
+  }
+
+  /**
+   * Returns the contents of all files in the folder, downloading the files concurrently on virtual
+   * threads. The next page of the listing is fetched while the files of the current page are being
+   * downloaded.
+   *
+   * @param folder                 The folder that we wish to read its files.
+   * @param maxConcurrentDownloads The maximum number of files being downloaded at the same time.
+   * @return the file contents uncompressed, in the order of the listing.
+   */
+  public List<String> getFilesInParallel(UnixPath folder, int maxConcurrentDownloads) {
+    return new ParallelFileReader(this, maxConcurrentDownloads)
+      .readFiles(calculateListingFolder(folder));
+  }
+
   public List<UnixPath> listAllFiles(URI s3Uri) {
-    return listAllFiles(UriWrapper.fromUri(s3Uri).toS3bucketPath());
+    return listAllFiles(S3Requests.toS3bucketPath(s3Uri));
   }
 
   public List<UnixPath> listAllFiles(UnixPath folder) {
+    return streamAllFiles(folder).collect(Collectors.toList());
+  }
 
-    ListingResult result = ListingResult.emptyResult();
-    do {
-      var currentStartingPoint = result.getListingStartingPoint();
-      var newBatch = listFiles(calculateListingFolder(folder),
-        currentStartingPoint,
-        MAX_RESPONSE_SIZE_FOR_S3_LISTING);
-
-      result = result.add(newBatch);
-    } while (result.isTruncated());
+  /**
+   * Returns a lazily evaluated stream of the files contained in the specified folder. The pages of
+   * the listing are fetched on demand, so the stream can be consumed in constant memory and
+   * short-circuiting operations stop the listing early.
+   *
+   * @param folder The folder that we wish to list its files.
+   * @return a stream of the file paths in listing order.
+   */
+  public Stream<UnixPath> streamAllFiles(UnixPath folder) {
+    return streamAllFiles(folder, false);
+  }
 
-    return result.getFiles();
+  /**
+   * Returns a lazily evaluated stream of the files contained in the specified folder.
+   *
+   * @param folder           The folder that we wish to list its files.
+   * @param prefetchNextPage if {@code true}, the next page of the listing is fetched in the
+   *                         background while the current page is being consumed.
+   * @return a stream of the file paths in listing order.
+   */
+  public Stream<UnixPath> streamAllFiles(UnixPath folder, boolean prefetchNextPage) {
+    var iterator = new ListingIterator(this, calculateListingFolder(folder), prefetchNextPage);
+    var spliterator = Spliterators.spliteratorUnknownSize(iterator,
+      Spliterator.ORDERED | Spliterator.NONNULL);
+    return StreamSupport.stream(spliterator, false);
   }
 
   /**
@@ -229,10 +441,76 @@ public class S3Driver {
    * whether there are more files to list.
    */
   public ListingResult listFiles(UnixPath folder, String listingStartingPoint, int responseSize) {
-    var listingResult = fetchNewResultsBatch(folder, listingStartingPoint, responseSize);
-    List<UnixPath> files = extractResultsFromResponse(listingResult);
-    return new ListingResult(files, listingResult.nextContinuationToken(),
-      listingResult.isTruncated());
+    var request = requests.listObjects(folder, listingStartingPoint, responseSize);
+    return S3Requests.toListingResult(listObjects(request));
+  }
+
+  /**
+   * Lists the direct children of the folder. Files in subfolders are not listed; instead the
+   * subfolders are returned separately, so that the listing does not walk every descendant key.
+   *
+   * @param folder The folder that we wish to list.
+   * @return the files directly under the folder and its subfolders.
+   */
+  public FolderListing listFolder(UnixPath folder) {
+    var files = new ArrayList<UnixPath>();
+    var subfolders = new ArrayList<UnixPath>();
+    FolderListing page = null;
+    do {
+      var listingStartingPoint = isNull(page) ? null : page.listingStartingPoint();
+      page = listFolder(folder, listingStartingPoint, MAX_RESPONSE_SIZE_FOR_S3_LISTING);
+      files.addAll(page.files());
+      subfolders.addAll(page.subfolders());
+    } while (page.isTruncated());
+    return new FolderListing(files, subfolders, null, false);
+  }
+
+  /**
+   * Returns a page of the direct children of the folder. A subfolder counts as one entry of the
+   * page regardless of the number of files it contains.
+   *
+   * @param folder               The folder that we wish to list.
+   * @param listingStartingPoint The starting point for the listing, can be {@code null} to indicate
+   *                             that the beginning of the listing.
+   * @param responseSize         The number of entries returned in each batch. Max size determined
+   *                             by S3 is 1000.
+   * @return the files and subfolders of the page, the next {@code listingStartingPoint} and whether
+   * there are more entries to list.
+   */
+  public FolderListing listFolder(UnixPath folder, String listingStartingPoint,
+    int responseSize) {
+    var request = requests.listChildren(calculateListingFolder(folder), listingStartingPoint,
+      responseSize);
+    return S3Requests.toFolderListing(listObjects(request));
+  }
+
+  public List<UnixPath> listSubfolders(UnixPath folder) {
+    return listFolder(folder).subfolders();
+  }
+
+  /**
+   * Lists all files under the folder, listing up to {@link #DEFAULT_MAX_CONCURRENT_LISTINGS}
+   * subfolders concurrently.
+   *
+   * @param folder The folder that we wish to list its files.
+   * @return the file paths, the files of each folder preceding the files of its subfolders.
+   */
+  public List<UnixPath> walkAllFiles(UnixPath folder) {
+    return walkAllFiles(folder, DEFAULT_MAX_CONCURRENT_LISTINGS);
+  }
+
+  /**
+   * Lists all files under the folder by walking its subfolders concurrently on virtual threads.
+   * This is faster than {@link #listAllFiles(UnixPath)} when the files are spread over many
+   * subfolders, because the subfolders are listed in parallel rather than page by page.
+   *
+   * @param folder                The folder that we wish to list its files.
+   * @param maxConcurrentListings The maximum number of listing requests in flight.
+   * @return the file paths, the files of each folder preceding the files of its subfolders.
+   */
+  public List<UnixPath> walkAllFiles(UnixPath folder, int maxConcurrentListings) {
+    return new ParallelTreeWalker(this, maxConcurrentListings)
+      .walk(calculateListingFolder(folder));
   }
 
   public String getUncompressedFile(UnixPath file) {
@@ -240,17 +518,114 @@ public class S3Driver {
   }
 
   public String getUncompressedFile(UnixPath file, Charset charset) {
-    GetObjectRequest getObjectRequest = createGetObjectRequest(file);
+    GetObjectRequest getObjectRequest = requests.getObject(file);
     ResponseBytes<GetObjectResponse> response = fetchObject(getObjectRequest);
     return response.asString(charset);
   }
 
   public InputStream getUncompressedFileAsStream(UnixPath file) {
-    return client.getObject(createGetObjectRequest(file), ResponseTransformer.toInputStream());
+    return client.getObject(requests.getObject(file), ResponseTransformer.toInputStream());
+  }
+
+  /**
+   * Reads {@code length} bytes of the object starting at {@code offset}, without decompressing
+   * them. Fewer bytes are returned when the range extends past the end of the object.
+   *
+   * @param file   the Location path of the item (without the bucket name)
+   * @param offset the zero-based position of the first byte.
+   * @param length the number of bytes to read.
+   * @return the bytes of the range.
+   */
+  public byte[] getRange(UnixPath file, long offset, long length) {
+    var request = requests.getObject(file, S3Requests.byteRange(offset, length));
+    return client.getObject(request, ResponseTransformer.toBytes()).asByteArray();
+  }
+
+  public InputStream getRangeAsStream(UnixPath file, long offset, long length) {
+    var request = requests.getObject(file, S3Requests.byteRange(offset, length));
+    return client.getObject(request, ResponseTransformer.toInputStream());
+  }
+
+  /**
+   * Reads the last {@code length} bytes of the object, without decompressing them. The whole
+   * object is returned when it is shorter than {@code length}.
+   *
+   * @param file   the Location path of the item (without the bucket name)
+   * @param length the number of bytes to read from the end of the object.
+   * @return the last bytes of the object.
+   */
+  public byte[] getSuffix(UnixPath file, long length) {
+    var request = requests.getObject(file, S3Requests.suffixRange(length));
+    return client.getObject(request, ResponseTransformer.toBytes()).asByteArray();
+  }
+
+  public InputStream getSuffixAsStream(UnixPath file, long length) {
+    var request = requests.getObject(file, S3Requests.suffixRange(length));
+    return client.getObject(request, ResponseTransformer.toInputStream());
+  }
+
+  /**
+   * Downloads the object in ranges of {@link #DEFAULT_RANGE_SIZE} bytes, fetching up to
+   * {@link #DEFAULT_MAX_RANGES_IN_FLIGHT} ranges concurrently, and writes it to the output in
+   * order. The content is not decompressed.
+   *
+   * @param file   the Location path of the item (without the bucket name)
+   * @param output where the content of the object is written.
+   * @throws IOException when writing to the output fails.
+   */
+  public void downloadInRanges(UnixPath file, OutputStream output) throws IOException {
+    downloadInRanges(file, output, DEFAULT_RANGE_SIZE, DEFAULT_MAX_RANGES_IN_FLIGHT);
+  }
+
+  /**
+   * Downloads the object with concurrent ranged requests and writes it to the output in order.
+   * At most {@code maxRangesInFlight} ranges are held in memory at any time. The content is not
+   * decompressed.
+   *
+   * @param file              the Location path of the item (without the bucket name)
+   * @param output            where the content of the object is written.
+   * @param rangeSize         the size of each range in bytes.
+   * @param maxRangesInFlight the maximum number of ranges downloaded concurrently.
+   * @throws IOException                             when writing to the output fails.
+   * @throws java.util.ConcurrentModificationException when the object is overwritten during the
+   *                                                 download.
+   */
+  public void downloadInRanges(UnixPath file, OutputStream output, int rangeSize,
+    int maxRangesInFlight) throws IOException {
+    new RangedDownloader(client, requests, rangeSize, maxRangesInFlight).download(file, output);
+  }
+
+  /**
+   * Downloads the object straight to a file, without decompressing it and without holding it in
+   * memory.
+   *
+   * @param file        the Location path of the item (without the bucket name)
+   * @param destination the file to write to. It must not exist.
+   * @return the destination.
+   */
+  public Path downloadToFile(UnixPath file, Path destination) {
+    client.getObject(requests.getObject(file), ResponseTransformer.toFile(destination));
+    return destination;
+  }
+
+  /**
+   * Downloads the object straight to a file and maps the file to memory. The contents of the
+   * returned buffer live outside the heap and are paged in on demand.
+   *
+   * @param file        the Location path of the item (without the bucket name)
+   * @param destination the file to write to. It must not exist.
+   * @return a read-only buffer with the contents of the object.
+   * @throws IOException when the file cannot be mapped.
+   */
+  public MappedByteBuffer downloadAndMap(UnixPath file, Path destination) throws IOException {
+    downloadToFile(file, destination);
+    try (var channel = FileChannel.open(destination, StandardOpenOption.READ)) {
+      return channel.map(MapMode.READ_ONLY, 0, channel.size());
+    }
   }
 
   public GZIPInputStream getCompressedFile(UnixPath file) throws IOException {
-    GetObjectRequest getObjectRequest = createGetObjectRequest(file);
+    GetObjectRequest getObjectRequest = requests.getObject(file);
     ResponseInputStream<GetObjectResponse> response = client.getObject(getObjectRequest);
     return new GZIPInputStream(response);
   }
@@ -260,8 +635,9 @@ public class S3Driver {
   }
 
   public String getFile(UnixPath filename, Charset charset) {
-    if (isCompressed(filename.getLastPathElement())) {
-      return attempt(() -> getCompressedFile(filename))
+    var codec = codecs.forFilename(filename.getLastPathElement());
+    if (codec.isPresent()) {
+      return attempt(() -> decompressedStream(filename, codec.orElseThrow()))
         .map(stream -> readCompressedStream(stream, charset))
         .orElseThrow();
     } else {
@@ -269,9 +645,30 @@ public class S3Driver {
     }
   }
 
+  /**
+   * Reads a file, downloading it only if it differs from the copy in the cache.
+   *
+   * @param filename the Location path of the item (without the bucket name)
+   * @param cache    the cache holding the last downloaded copy of the file.
+   * @return the file contents uncompressed.
+   * @see #readFile(URI, ObjectContentCache)
+   */
+  public String getFile(UnixPath filename, ObjectContentCache cache) {
+    var body = fetchIfModified(filename, cache);
+    var codec = codecs.forFilename(filename.getLastPathElement());
+    if (codec.isPresent()) {
+      return attempt(() -> codec.orElseThrow().decompress(new ByteArrayInputStream(body)))
+        .map(stream -> readCompressedStream(stream, StandardCharsets.UTF_8))
+        .orElseThrow();
+    } else {
+      return new String(body, StandardCharsets.UTF_8);
+    }
+  }
+
   public InputStream getFileAsStream(UnixPath filename) {
-    if (isCompressed(filename.getLastPathElement())) {
-      return attempt(() -> getCompressedFileAsStream(filename))
+    var codec = codecs.forFilename(filename.getLastPathElement());
+    if (codec.isPresent()) {
+      return attempt(() -> decompressedStream(filename, codec.orElseThrow()))
         .orElseThrow();
     } else {
       return getUncompressedFileAsStream(filename);
@@ -282,6 +679,24 @@ public class S3Driver {
     return getFile(filename, StandardCharsets.UTF_8);
   }
 
+  public Stream<String> getLines(UnixPath filename) {
+    return getLines(filename, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns a lazily evaluated stream of the lines of the file. Compressed files are decompressed
+   * while being read, so files of any size can be processed in constant memory. Closing the
+   * returned stream closes the underlying S3 response stream.
+   *
+   * @param filename the Location path of the item (without the bucket name)
+   * @param charset  the encoding of the file contents.
+   * @return a stream of the lines of the file.
+   */
+  public Stream<String> getLines(UnixPath filename, Charset charset) {
+    var reader = new BufferedReader(new InputStreamReader(getFileAsStream(filename), charset));
+    return reader.lines().onClose(() -> closeReader(reader));
+  }
+
   /**
    * Copies a file from source to destination. Both URIs must be S3 URIs.
    *
@@ -290,44 +705,111 @@ public class S3Driver {
    * @param tags           optional tags to replace existing tags to the copied file, may be null or empty.
    */
   public void copyFile(URI sourceUri, URI destinationUri, Tag... tags) {
-    var requestBuilder = createBasicCopyRequest(sourceUri, destinationUri);
-    var validTags = validTagSet(tags);
-    var request = addTagsInCopyRequest(requestBuilder, validTags).build();
-    client.copyObject(request);
+    client.copyObject(S3Requests.copyObject(sourceUri, destinationUri, tags));
+    metadataCache.invalidate(destinationUri);
+  }
+
+  /**
+   * Copies all files of a folder in the bucket of the driver to another folder, possibly in another
+   * bucket, copying at most {@link #DEFAULT_MAX_CONCURRENT_COPIES} files concurrently.
+   *
+   * @param sourceFolder      the folder whose files will be copied.
+   * @param destinationFolder the S3 URI of the destination folder.
+   * @param tags              optional tags to replace existing tags to the copied files, may be
+   *                          null or empty.
+   * @return the number of copied files, the files that could not be copied and the duration of
+   *   the copy.
+   */
+  public BulkCopyResult copyFolder(UnixPath sourceFolder, URI destinationFolder, Tag... tags) {
+    return copyFolder(sourceFolder, destinationFolder, DEFAULT_MAX_CONCURRENT_COPIES, tags);
+  }
+
+  /**
+   * Copies all files of a folder in the bucket of the driver to another folder, possibly in another
+   * bucket. The source folder is listed lazily, and a failed copy does not stop the copying of the
+   * remaining files.
+   *
+   * @param sourceFolder        the folder whose files will be copied.
+   * @param destinationFolder   the S3 URI of the destination folder.
+   * @param maxConcurrentCopies the maximum number of copy requests in flight.
+   * @param tags                optional tags to replace existing tags to the copied files, may
+   *                            be null or empty.
+   * @return the number of copied files, the files that could not be copied and the duration of
+   *   the copy.
+   */
+  public BulkCopyResult copyFolder(UnixPath sourceFolder, URI destinationFolder,
+    int maxConcurrentCopies, Tag... tags) {
+    return new BulkCopier(this, client, maxConcurrentCopies)
+      .copyFolder(calculateListingFolder(sourceFolder), destinationFolder, tags);
+  }
+
+  public void deleteFile(UnixPath file) {
+    client.deleteObject(requests.deleteObject(file));
+    invalidateCachedMetadata(file);
+  }
+
+  /**
+   * Deletes the files with DeleteObjects requests of up to 1000 keys, deleting at most
+   * {@link #DEFAULT_MAX_CONCURRENT_DELETES} batches concurrently. Files that do not exist are
+   * considered deleted.
+   *
+   * @param files the files to delete.
+   * @return the number of deleted files, the files that could not be deleted and the duration of
+   *   the delete.
+   */
+  public BulkDeleteResult deleteFiles(Collection<UnixPath> files) {
+    return new BulkDeleter(this, client, requests, DEFAULT_MAX_CONCURRENT_DELETES)
+      .deleteFiles(files.stream());
   }
 
-  private static CopyObjectRequest.Builder addTagsInCopyRequest(
-    CopyObjectRequest.Builder requestBuilder, Collection<Tag> tags) {
-    if (tags.isEmpty()) {
-      return requestBuilder;
+  public BulkDeleteResult deleteFolder(UnixPath folder) {
+    return deleteFolder(folder, DEFAULT_MAX_CONCURRENT_DELETES);
+  }
+
+  /**
+   * Deletes all files under the folder. The folder is listed lazily and the delete batches are
+   * sent while the listing continues, so the number of files is not limited by memory. A failed
+   * batch does not stop the deletion of the remaining files.
+   *
+   * @param folder               the folder to purge. The root of the bucket is not accepted.
+   * @param maxConcurrentDeletes the maximum number of delete requests in flight.
+   * @return the number of deleted files, the files that could not be deleted and the duration of
+   *   the delete.
+   */
+  public BulkDeleteResult deleteFolder(UnixPath folder, int maxConcurrentDeletes) {
+    var listingFolder = calculateListingFolder(folder);
+    if (listingFolder.isEmptyPath()) {
+      throw new IllegalArgumentException("Refusing to delete all files of bucket " + bucketName);
+    }
+    var deleter = new BulkDeleter(this, client, requests, maxConcurrentDeletes);
+    try (var files = streamAllFiles(listingFolder, true)) {
+      return deleter.deleteFiles(files.filter(file -> S3Requests.isInFolder(file, listingFolder)));
     }
-    return requestBuilder.tagging(Tagging.builder().tagSet(tags).build())
-      .taggingDirective(TaggingDirective.REPLACE);
   }
 
-  private static List<Tag> validTagSet(Tag... tags) {
-    return
-      Optional.ofNullable(tags)
-        .stream()
-        .flatMap(tag -> Arrays.stream(tag).sequential())
-        .map(S3Driver::validTag)
-        .toList();
+  static String readCompressedStream(InputStream decompressedStream, Charset charset)
+    throws IOException {
+    try (BufferedReader reader = new BufferedReader(
+      new InputStreamReader(decompressedStream, charset))) {
+      return reader.lines().collect(Collectors.joining(LINE_SEPARATOR));
+    }
   }
 
-  private static Tag validTag(Tag tag) {
-    if (StringUtils.isBlank(tag.key()) || StringUtils.isBlank(tag.value())) {
-      throw new IllegalTagException(tag.toString());
+  private static void closeReader(BufferedReader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
-    return tag;
   }
 
-  private static CopyObjectRequest.Builder createBasicCopyRequest(URI sourceUri,
-    URI destinationUri) {
-    return CopyObjectRequest.builder()
-      .sourceKey(UriWrapper.fromUri(sourceUri).toS3bucketPath().toString())
-      .sourceBucket(sourceUri.getHost())
-      .destinationKey(UriWrapper.fromUri(destinationUri).toS3bucketPath().toString())
-      .destinationBucket(destinationUri.getHost());
+  private ListObjectsV2Response listObjects(ListObjectsV2Request request) {
+    var response = client.listObjectsV2(request);
+    if (metadataCache.isEnabled()) {
+      response.contents().forEach(object -> metadataCache.putLastModified(
+        toS3Uri(UnixPath.of(object.key())), object.eTag(), object.lastModified()));
+    }
+    return response;
   }
 
   private UnixPath calculateListingFolder(UnixPath folder) {
@@ -336,25 +818,49 @@ public class S3Driver {
            : folder;
   }
 
-  private UriWrapper s3BucketUri() {
-    return new UriWrapper(S3_SCHEME, bucketName);
+  UnixPath newEventFilename(UnixPath folder) {
+    return folder.addChild(UUID.randomUUID() + codecs.defaultCodec().fileExtension());
+  }
+
+  URI toS3Uri(UnixPath fullPath) {
+    return requests.toS3Uri(fullPath);
+  }
+
+  URI invalidateCachedMetadata(UnixPath fullPath) {
+    var uri = toS3Uri(fullPath);
+    metadataCache.invalidate(uri);
+    return uri;
+  }
+
+  void insertCompressedLines(UnixPath fullPath, List<String> lines) throws IOException {
+    try (InputStream compressedContent = new StringCompressor(lines, codecs.defaultCodec())
+      .compressedData()) {
+      uploadStream(fullPath, compressedContent);
+    }
   }
 
   private void insertUncompressedFile(UnixPath fullPath, String content) throws IOException {
     try (InputStream inputStream = IoUtils.stringToStream(content)) {
-      client.putObject(newPutObjectRequest(fullPath), createRequestBody(inputStream));
+      client.putObject(requests.putObject(fullPath), createRequestBody(inputStream));
     }
   }
 
-  private void insertCompressedFile(UnixPath fullPath, String content) throws IOException {
-    try (InputStream inputStream = compressContent(List.of(content))) {
-      insertFile(fullPath, inputStream);
+  private void insertCompressedFile(UnixPath fullPath, String content, CompressionCodec codec)
+    throws IOException {
+    try (InputStream inputStream = new StringCompressor(List.of(content), codec)
+      .compressedData()) {
+      uploadStream(fullPath, inputStream);
     }
   }
 
+  private void uploadStream(UnixPath fullPath, InputStream content) throws IOException {
+    new MultipartUploader(client, bucketName, MultipartUploadConfig.defaultConfig())
+      .upload(fullPath, content);
+  }
+
   private UnixPath filenameForZippedFile(UnixPath s3Folder) {
     String folderPath = processPath(s3Folder);
-    return UnixPath.of(folderPath, UUID.randomUUID() + GZIP_ENDING);
+    return UnixPath.of(folderPath, UUID.randomUUID() + codecs.defaultCodec().fileExtension());
   }
 
   private String processPath(UnixPath s3Folder) {
@@ -377,66 +883,37 @@ public class S3Driver {
   }
 
   private InputStream compressContent(List<String> content) throws IOException {
-    return new StringCompressor(content).gzippedData();
-  }
-
-  private ListObjectsV2Response fetchNewResultsBatch(UnixPath folder, String listingStartingPoint,
-    int responseSize) {
-    var request = requestForListingFiles(folder, listingStartingPoint, responseSize);
-    return client.listObjectsV2(request);
-  }
-
-  private ResponseBytes<GetObjectResponse> fetchObject(GetObjectRequest getObjectRequest) {
-    return client.getObject(getObjectRequest, ResponseTransformer.toBytes());
+    return new StringCompressor(content, codecs.defaultCodec()).compressedData();
   }
 
-  private String readCompressedStream(GZIPInputStream gzipInputStream, Charset charset)
+  private InputStream decompressedStream(UnixPath file, CompressionCodec codec)
     throws IOException {
-    try (BufferedReader reader = new BufferedReader(
-      new InputStreamReader(gzipInputStream, charset))) {
-      return reader.lines().collect(Collectors.joining(LINE_SEPARATOR));
+    return codec.decompress(getUncompressedFileAsStream(file));
+  }
+
+  private byte[] fetchIfModified(UnixPath file, ObjectContentCache cache) {
+    var uri = toS3Uri(file);
+    var cached = cache.get(uri);
+    var request = cached
+      .map(content -> requests.getObjectIfModified(file, content.eTag(), content.lastModified()))
+      .orElseGet(() -> requests.getObject(file));
+    try {
+      var response = fetchObject(request);
+      var body = response.asByteArray();
+      cache.recordMiss();
+      cache.put(uri, new CachedContent(response.response().eTag(),
+        response.response().lastModified(), body));
+      return body;
+    } catch (S3Exception e) {
+      if (e.statusCode() == NOT_MODIFIED && cached.isPresent()) {
+        cache.recordHit();
+        return cached.orElseThrow().body();
+      }
+      throw e;
     }
   }
 
-  private boolean isCompressed(String filename) {
-    return filename.endsWith(GZIP_ENDING);
-  }
-
-  private GetObjectRequest createGetObjectRequest(UnixPath file) {
-    return GetObjectRequest.builder()
-      .bucket(bucketName)
-      .key(file.toString())
-      .build();
-  }
-
-  private HeadObjectRequest createHeadObjectRequest(UnixPath file) {
-    return HeadObjectRequest.builder()
-      .bucket(bucketName)
-      .key(file.toString())
-      .build();
-  }
-
-  private List<UnixPath> extractResultsFromResponse(ListObjectsV2Response result) {
-    return result.contents().stream()
-      .map(S3Object::key)
-      .map(UnixPath::of)
-      .collect(Collectors.toList());
-  }
-
-  private ListObjectsV2Request requestForListingFiles(UnixPath folder, String startingPoint,
-    int responseSize) {
-    return ListObjectsV2Request.builder()
-      .bucket(bucketName)
-      .prefix(folder.toString())
-      .continuationToken(startingPoint)
-      .maxKeys(responseSize)
-      .build();
-  }
-
-  private PutObjectRequest newPutObjectRequest(UnixPath fullPath) {
-    return PutObjectRequest.builder()
-      .bucket(bucketName)
-      .key(fullPath.toString())
-      .build();
+  private ResponseBytes<GetObjectResponse> fetchObject(GetObjectRequest getObjectRequest) {
+    return client.getObject(getObjectRequest, ResponseTransformer.toBytes());
   }
 }
@@ -0,0 +1,266 @@
+package com.github.awsjavakit.s3;
+
+import static com.github.awsjavakit.s3.S3Driver.S3_SCHEME;
+import static com.github.awsjavakit.s3.S3Driver.UNIX_SEPARATOR;
+
+import com.github.awsjavakit.misc.StringUtils;
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.misc.paths.UriWrapper;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectTaggingResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.Tag;
+import software.amazon.awssdk.services.s3.model.Tagging;
+import software.amazon.awssdk.services.s3.model.TaggingDirective;
+
+/**
+ * Builds the S3 requests and maps the S3 responses shared by {@link S3Driver} and
+ * {@link AsyncS3Driver}, so that both drivers resolve paths and URIs in the same way.
+ */
+final class S3Requests {
+
+  private static final String BYTES_UNIT = "bytes=";
+  private static final String RANGE_SEPARATOR = "-";
+  private final String bucketName;
+
+  S3Requests(String bucketName) {
+    this.bucketName = bucketName;
+  }
+
+  static UnixPath toS3bucketPath(URI fileUri) {
+    return UriWrapper.fromUri(fileUri).toS3bucketPath();
+  }
+
+  static CopyObjectRequest copyObject(URI sourceUri, URI destinationUri, Tag... tags) {
+    return copyObject(sourceUri, destinationUri, validTagSet(tags));
+  }
+
+  static CopyObjectRequest copyObject(URI sourceUri, URI destinationUri,
+    Collection<Tag> validTags) {
+    var requestBuilder = createBasicCopyRequest(sourceUri, destinationUri);
+    return addTagsInCopyRequest(requestBuilder, validTags).build();
+  }
+
+  static List<Tag> validTagSet(Tag... tags) {
+    return
+      Optional.ofNullable(tags)
+        .stream()
+        .flatMap(tag -> Arrays.stream(tag).sequential())
+        .map(S3Requests::validTag)
+        .toList();
+  }
+
+  // The listing is prefix-based, so it also contains files of sibling folders whose names start
+  // with the name of the folder.
+  static boolean isInFolder(UnixPath file, UnixPath folder) {
+    var folderSize = folder.size();
+    return file.size() > folderSize
+           && file.subPath(0, folderSize).equals(folder.removeRoot());
+  }
+
+  static ListingResult toListingResult(ListObjectsV2Response response) {
+    List<UnixPath> files = response.contents().stream()
+      .map(S3Object::key)
+      .map(UnixPath::of)
+      .collect(Collectors.toList());
+    return new ListingResult(files, response.nextContinuationToken(), response.isTruncated());
+  }
+
+  static FolderListing toFolderListing(ListObjectsV2Response response) {
+    var files = response.contents().stream()
+      .map(S3Object::key)
+      .map(UnixPath::of)
+      .toList();
+    var subfolders = response.commonPrefixes().stream()
+      .map(CommonPrefix::prefix)
+      .map(UnixPath::of)
+      .toList();
+    return new FolderListing(files, subfolders, response.nextContinuationToken(),
+      response.isTruncated());
+  }
+
+  /**
+   * Returns the value of an HTTP Range header for {@code length} bytes starting at {@code offset}.
+   *
+   * @param offset the zero-based position of the first byte.
+   * @param length the number of bytes.
+   * @return the Range header value.
+   */
+  static String byteRange(long offset, long length) {
+    if (offset < 0 || length < 1) {
+      throw new IllegalArgumentException(
+        "Invalid range. Offset must not be negative and length must be positive");
+    }
+    return BYTES_UNIT + offset + RANGE_SEPARATOR + (offset + length - 1);
+  }
+
+  static String suffixRange(long length) {
+    if (length < 1) {
+      throw new IllegalArgumentException("Suffix length must be positive");
+    }
+    return BYTES_UNIT + RANGE_SEPARATOR + length;
+  }
+
+  static Map<String, String> toTagMap(GetObjectTaggingResponse response) {
+    return response.tagSet().stream()
+      .collect(Collectors.toMap(Tag::key, Tag::value));
+  }
+
+  URI toS3Uri(UnixPath fullPath) {
+    return s3BucketUri().addChild(fullPath).getUri();
+  }
+
+  UriWrapper s3BucketUri() {
+    return new UriWrapper(S3_SCHEME, bucketName);
+  }
+
+  GetObjectRequest getObject(UnixPath file) {
+    return GetObjectRequest.builder()
+      .bucket(bucketName)
+      .key(file.toString())
+      .build();
+  }
+
+  GetObjectRequest getObject(UnixPath file, String range) {
+    return GetObjectRequest.builder()
+      .bucket(bucketName)
+      .key(file.toString())
+      .range(range)
+      .build();
+  }
+
+  /**
+   * Returns a request for a range of a specific version of the object. S3 responds with 412
+   * (Precondition Failed) if the object no longer has the specified ETag.
+   */
+  GetObjectRequest getObject(UnixPath file, String range, String eTag) {
+    return GetObjectRequest.builder()
+      .bucket(bucketName)
+      .key(file.toString())
+      .range(range)
+      .ifMatch(eTag)
+      .build();
+  }
+
+  /**
+   * Returns a request that downloads the object only if it differs from the cached copy. S3
+   * responds with 304 (Not Modified) otherwise.
+   */
+  GetObjectRequest getObjectIfModified(UnixPath file, String eTag, Instant lastModified) {
+    return GetObjectRequest.builder()
+      .bucket(bucketName)
+      .key(file.toString())
+      .ifNoneMatch(eTag)
+      .ifModifiedSince(lastModified)
+      .build();
+  }
+
+  HeadObjectRequest headObject(UnixPath file) {
+    return HeadObjectRequest.builder()
+      .bucket(bucketName)
+      .key(file.toString())
+      .build();
+  }
+
+  GetObjectTaggingRequest getObjectTagging(UnixPath file) {
+    return GetObjectTaggingRequest.builder()
+      .bucket(bucketName)
+      .key(file.toString())
+      .build();
+  }
+
+  PutObjectRequest putObject(UnixPath fullPath) {
+    return PutObjectRequest.builder()
+      .bucket(bucketName)
+      .key(fullPath.toString())
+      .build();
+  }
+
+  ListObjectsV2Request listObjects(UnixPath folder, String startingPoint, int responseSize) {
+    return ListObjectsV2Request.builder()
+      .bucket(bucketName)
+      .prefix(folder.toString())
+      .continuationToken(startingPoint)
+      .maxKeys(responseSize)
+      .build();
+  }
+
+  /**
+   * Lists only the direct children of the folder, grouping the deeper keys into common prefixes.
+   * The root folder is listed when the folder is empty.
+   */
+  ListObjectsV2Request listChildren(UnixPath folder, String startingPoint, int responseSize) {
+    return ListObjectsV2Request.builder()
+      .bucket(bucketName)
+      .prefix(folder.isEmptyPath() ? null : folder + UNIX_SEPARATOR)
+      .delimiter(UNIX_SEPARATOR)
+      .continuationToken(startingPoint)
+      .maxKeys(responseSize)
+      .build();
+  }
+
+  DeleteObjectRequest deleteObject(UnixPath file) {
+    return DeleteObjectRequest.builder()
+      .bucket(bucketName)
+      .key(file.toString())
+      .build();
+  }
+
+  /**
+   * Deletes the files in quiet mode, so that the response reports only the files that could not be
+   * deleted.
+   */
+  DeleteObjectsRequest deleteObjects(Collection<UnixPath> files) {
+    var objects = files.stream()
+      .map(file -> ObjectIdentifier.builder().key(file.toString()).build())
+      .toList();
+    return DeleteObjectsRequest.builder()
+      .bucket(bucketName)
+      .delete(Delete.builder().objects(objects).quiet(true).build())
+      .build();
+  }
+
+  private static CopyObjectRequest.Builder addTagsInCopyRequest(
+    CopyObjectRequest.Builder requestBuilder, Collection<Tag> tags) {
+    if (tags.isEmpty()) {
+      return requestBuilder;
+    }
+    return requestBuilder.tagging(Tagging.builder().tagSet(tags).build())
+      .taggingDirective(TaggingDirective.REPLACE);
+  }
+
+  private static Tag validTag(Tag tag) {
+    if (StringUtils.isBlank(tag.key()) || StringUtils.isBlank(tag.value())) {
+      throw new IllegalTagException(tag.toString());
+    }
+    return tag;
+  }
+
+  private static CopyObjectRequest.Builder createBasicCopyRequest(URI sourceUri,
+    URI destinationUri) {
+    return CopyObjectRequest.builder()
+      .sourceKey(toS3bucketPath(sourceUri).toString())
+      .sourceBucket(sourceUri.getHost())
+      .destinationKey(toS3bucketPath(destinationUri).toString())
+      .destinationBucket(destinationUri.getHost());
+  }
+}
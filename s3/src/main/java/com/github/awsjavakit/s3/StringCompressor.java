@@ -1,40 +1,170 @@
 package com.github.awsjavakit.s3;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
 
+/**
+ * Compresses lines of text, by default to gzip. The compressed data are produced incrementally
+ * while the returned {@link InputStream} is being read, so neither the input nor the output need
+ * to fit in memory.
+ */
 public class StringCompressor {
 
   public static final String LINE_SEPARATOR = System.lineSeparator();
-  private final List<String> input;
+  public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+  public static final int DEFAULT_BUFFER_SIZE = GzipCodec.DEFAULT_BUFFER_SIZE;
+  private static final byte[] LINE_SEPARATOR_BYTES =
+    LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+  private final Supplier<Iterator<String>> input;
+  private final CompressionCodec codec;
 
   public StringCompressor(List<String> input) {
+    this(input, CompressionCodec.gzip());
+  }
+
+  public StringCompressor(List<String> input, CompressionCodec codec) {
+    this(input::iterator, codec);
+  }
+
+  private StringCompressor(Supplier<Iterator<String>> input, CompressionCodec codec) {
     this.input = input;
+    this.codec = codec;
   }
 
+  /**
+   * Creates a compressor for a stream of lines. The stream is consumed lazily and only once.
+   *
+   * @param input the lines to compress.
+   * @return a compressor with the default compression level and buffer size.
+   */
+  public static StringCompressor create(Stream<String> input) {
+    return create(input, DEFAULT_COMPRESSION_LEVEL, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a compressor for a stream of lines. The stream is consumed lazily and only once.
+   *
+   * @param input            the lines to compress.
+   * @param compressionLevel the compression level from {@link Deflater#BEST_SPEED} to
+   *                         {@link Deflater#BEST_COMPRESSION}, or
+   *                         {@link Deflater#DEFAULT_COMPRESSION}.
+   * @param bufferSize       the size of the buffer used by the compressor.
+   * @return a compressor.
+   */
+  public static StringCompressor create(Stream<String> input, int compressionLevel,
+    int bufferSize) {
+    return create(input, new GzipCodec(compressionLevel, bufferSize));
+  }
+
+  public static StringCompressor create(Stream<String> input, CompressionCodec codec) {
+    return new StringCompressor(input::iterator, codec);
+  }
+
+  /**
+   * Returns the compressed data. Despite its name, the data are compressed with the codec of the
+   * compressor, which is gzip unless specified otherwise.
+   *
+   * @return a stream producing the compressed data while being read.
+   * @throws IOException when the codec fails to initialize.
+   */
   public InputStream gzippedData() throws IOException {
-    byte[] bytes = dataToByteArray();
-    return new ByteArrayInputStream(bytes);
+    return compressedData();
   }
 
-  private byte[] dataToByteArray() throws IOException {
-    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-      compressData(outputStream);
-      return outputStream.toByteArray();
-    }
+  public InputStream compressedData() throws IOException {
+    return new CompressingInputStream(input.get(), codec);
   }
 
-  private void compressData(ByteArrayOutputStream outputStream) throws IOException {
-    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
-      for (String line : input) {
-        gzipOutputStream.write(line.getBytes(StandardCharsets.UTF_8));
-        gzipOutputStream.write(LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8));
+  /**
+   * Pull-based stream that compresses the next line only when all previously compressed bytes
+   * have been read.
+   */
+  private static final class CompressingInputStream extends InputStream {
+
+    private static final int END_OF_STREAM = -1;
+    private final Iterator<String> lines;
+    private final PendingBytes pending;
+    private final OutputStream compressor;
+    private int position;
+    private boolean finished;
+
+    private CompressingInputStream(Iterator<String> lines, CompressionCodec codec)
+      throws IOException {
+      super();
+      this.lines = lines;
+      this.pending = new PendingBytes(DEFAULT_BUFFER_SIZE);
+      this.compressor = codec.compress(pending);
+    }
+
+    @Override
+    public int read() throws IOException {
+      var singleByte = new byte[1];
+      var bytesRead = read(singleByte, 0, 1);
+      return bytesRead == END_OF_STREAM ? END_OF_STREAM : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
       }
+      while (pendingBytes() == 0 && !finished) {
+        compressMore();
+      }
+      if (pendingBytes() == 0) {
+        return END_OF_STREAM;
+      }
+      var bytesRead = pending.copyTo(position, target, offset, Math.min(length, pendingBytes()));
+      position += bytesRead;
+      return bytesRead;
+    }
+
+    @Override
+    public int available() {
+      return pendingBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+      compressor.close();
+      super.close();
+    }
+
+    private int pendingBytes() {
+      return pending.size() - position;
+    }
+
+    private void compressMore() throws IOException {
+      pending.reset();
+      position = 0;
+      if (lines.hasNext()) {
+        compressor.write(lines.next().getBytes(StandardCharsets.UTF_8));
+        compressor.write(LINE_SEPARATOR_BYTES);
+      } else {
+        // Closing the compressor writes the trailer; closing the pending buffer has no effect.
+        compressor.close();
+        finished = true;
+      }
+    }
+  }
+
+  private static final class PendingBytes extends ByteArrayOutputStream {
+
+    private PendingBytes(int initialSize) {
+      super(initialSize);
+    }
+
+    private int copyTo(int from, byte[] target, int offset, int length) {
+      System.arraycopy(buf, from, target, offset, length);
+      return length;
     }
   }
 }
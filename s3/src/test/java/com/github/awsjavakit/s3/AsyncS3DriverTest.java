@@ -0,0 +1,123 @@
+package com.github.awsjavakit.s3;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.testingutils.aws.FakeS3AsyncClient;
+import com.github.awsjavakit.testingutils.aws.FakeS3Client;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import net.datafaker.providers.base.BaseFaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.Tag;
+
+class AsyncS3DriverTest {
+
+  private static final BaseFaker FAKER = new BaseFaker();
+  private static final String SAMPLE_BUCKET = "samplebucket";
+  private static final UnixPath FOLDER = UnixPath.of("some", "folder");
+  private FakeS3Client s3Client;
+  private AsyncS3Driver asyncDriver;
+
+  @BeforeEach
+  public void init() {
+    s3Client = new FakeS3Client();
+    asyncDriver = new AsyncS3Driver(new FakeS3AsyncClient(s3Client), SAMPLE_BUCKET);
+  }
+
+  @Test
+  void shouldReadFileThatWasInsertedAsynchronously() {
+    var path = FOLDER.addChild("file.txt");
+    var content = randomContent();
+    var uri = asyncDriver.insertFile(path, content).join();
+    assertThat(uri, is(equalTo(URI.create("s3://" + SAMPLE_BUCKET + "/" + path))));
+    assertThat(asyncDriver.getFile(path).join(), is(equalTo(content)));
+    assertThat(asyncDriver.readFile(uri).join(), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldCompressFilesTheSameWayAsTheSynchronousDriver() throws IOException {
+    var syncDriver = new S3Driver(s3Client, SAMPLE_BUCKET);
+    var asyncPath = FOLDER.addChild("async.gz");
+    var syncPath = FOLDER.addChild("sync.gz");
+    var content = randomContent();
+
+    asyncDriver.insertFile(asyncPath, content).join();
+    syncDriver.insertFile(syncPath, content);
+
+    assertThat(syncDriver.getFile(asyncPath), is(equalTo(content)));
+    assertThat(asyncDriver.getFile(syncPath).join(), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldListFilesAsynchronously() {
+    var expectedFiles = new ArrayList<UnixPath>();
+    var inserts = new ArrayList<CompletableFuture<URI>>();
+    for (int i = 0; i < 100; i++) {
+      var path = FOLDER.addChild(i + ".txt");
+      expectedFiles.add(path);
+      inserts.add(asyncDriver.insertFile(path, randomContent()));
+    }
+    CompletableFuture.allOf(inserts.toArray(CompletableFuture[]::new)).join();
+
+    var listing = asyncDriver.listFiles(FOLDER, null, 1000).join();
+    assertThat(listing.getFiles(), containsInAnyOrder(expectedFiles.toArray(UnixPath[]::new)));
+    assertThat(listing.isTruncated(), is(false));
+  }
+
+  @Test
+  void shouldCopyFileAndReplaceTags() {
+    var source = asyncDriver.insertFile(FOLDER.addChild("source.txt"), randomContent()).join();
+    var destination = URI.create("s3://" + SAMPLE_BUCKET + "/other/destination.txt");
+    var tag = Tag.builder().key("key").value("value").build();
+
+    asyncDriver.copyFile(source, destination, tag).join();
+
+    assertThat(asyncDriver.readFile(destination).join(),
+      is(equalTo(asyncDriver.readFile(source).join())));
+    assertThat(asyncDriver.getTags(destination).join(), is(equalTo(Map.of("key", "value"))));
+  }
+
+  @Test
+  void shouldReturnLastModifiedTimestamp() {
+    var uri = asyncDriver.insertFile(FOLDER.addChild("file.txt"), randomContent()).join();
+    var expected = new S3Driver(s3Client, SAMPLE_BUCKET).lastModified(uri);
+    assertThat(asyncDriver.lastModified(uri).join(), is(equalTo(expected)));
+  }
+
+  @Test
+  void shouldCompleteExceptionallyWhenFileDoesNotExist() {
+    asyncDriver.insertFile(FOLDER.addChild("file.txt"), randomContent()).join();
+    var future = asyncDriver.getFile(FOLDER.addChild("missing.txt"));
+    var exception = assertThrows(CompletionException.class, future::join);
+    assertThat(exception.getCause(), is(instanceOf(RuntimeException.class)));
+  }
+
+  @Test
+  void shouldAllowHundredsOfConcurrentOperations() {
+    var inserts = new ArrayList<CompletableFuture<URI>>();
+    for (int i = 0; i < 500; i++) {
+      inserts.add(asyncDriver.insertFile(FOLDER.addChild(i + ".gz"), randomContent()));
+    }
+    var reads = inserts.stream()
+      .map(insert -> insert.thenCompose(asyncDriver::readFile))
+      .toList();
+    CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).join();
+    assertThat(asyncDriver.listFiles(FOLDER, null, 1000).join().getFiles(), hasSize(500));
+  }
+
+  private static String randomContent() {
+    return FAKER.lorem().paragraph();
+  }
+}
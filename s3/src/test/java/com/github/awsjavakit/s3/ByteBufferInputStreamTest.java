@@ -0,0 +1,32 @@
+package com.github.awsjavakit.s3;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+class ByteBufferInputStreamTest {
+
+  @Test
+  void shouldReadRemainingBytesOfBufferOneByOne() {
+    var buffer = ByteBuffer.wrap(new byte[]{1, (byte) 0xFF});
+    var stream = new ByteBufferInputStream(buffer);
+    assertThat(stream.available(), is(equalTo(2)));
+    assertThat(stream.read(), is(equalTo(1)));
+    assertThat(stream.read(), is(equalTo(0xFF)));
+    assertThat(stream.read(), is(equalTo(-1)));
+    assertThat(buffer.position(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldReadRemainingBytesOfBufferInChunks() {
+    var stream = new ByteBufferInputStream(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+    var target = new byte[2];
+    assertThat(stream.read(target, 0, 0), is(equalTo(0)));
+    assertThat(stream.read(target, 0, 2), is(equalTo(2)));
+    assertThat(stream.read(target, 0, 2), is(equalTo(1)));
+    assertThat(stream.read(target, 0, 2), is(equalTo(-1)));
+  }
+}
@@ -0,0 +1,214 @@
+package com.github.awsjavakit.s3;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.awsjavakit.misc.paths.UnixPath;
+import com.github.awsjavakit.testingutils.aws.FakeS3Client;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.datafaker.providers.base.BaseFaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+class EventBatchWriterTest {
+
+  private static final BaseFaker FAKER = new BaseFaker();
+  private static final String SAMPLE_BUCKET = "samplebucket";
+  private static final UnixPath FOLDER = UnixPath.of("some", "folder");
+  private static final UnixPath OTHER_FOLDER = UnixPath.of("other", "folder");
+  private static final Duration MAX_AGE = Duration.ofSeconds(30);
+  private S3Driver s3Driver;
+  private Clock clock;
+  private Instant now;
+
+  @BeforeEach
+  public void init() {
+    s3Driver = new S3Driver(new FakeS3Client(), SAMPLE_BUCKET);
+    now = Instant.now();
+    clock = mock(Clock.class);
+    when(clock.instant()).thenAnswer(ignored -> now);
+  }
+
+  @Test
+  void shouldStoreAllEventsOfABatchInASingleObjectWhenWriterIsClosed() throws IOException {
+    var events = randomEvents(10);
+    var locations = new ArrayList<EventLocation>();
+    try (var writer = newWriter(1000, 1000)) {
+      for (var event : events) {
+        locations.add(writer.write(FOLDER, event));
+      }
+      assertThat(s3Driver.listAllFiles(FOLDER), is(empty()));
+    }
+    assertThat(s3Driver.listAllFiles(FOLDER), hasSize(1));
+    assertThat(s3Driver.getLines(s3Driver.listAllFiles(FOLDER).getFirst()).toList(),
+      is(equalTo(events)));
+    for (int i = 0; i < events.size(); i++) {
+      assertThat(s3Driver.readEvent(locations.get(i)), is(equalTo(events.get(i))));
+    }
+  }
+
+  @Test
+  void shouldFlushBatchWhenRecordCountThresholdIsReached() throws IOException {
+    try (var writer = newWriter(Long.MAX_VALUE, 3)) {
+      for (var event : randomEvents(7)) {
+        writer.write(FOLDER, event);
+      }
+      assertThat(s3Driver.listAllFiles(FOLDER), hasSize(2));
+    }
+    assertThat(s3Driver.listAllFiles(FOLDER), hasSize(3));
+  }
+
+  @Test
+  void shouldFlushBatchWhenByteSizeThresholdIsReached() throws IOException {
+    try (var writer = newWriter(10, 1000)) {
+      writer.write(FOLDER, "12345");
+      assertThat(s3Driver.listAllFiles(FOLDER), is(empty()));
+      var location = writer.write(FOLDER, "67890");
+      assertThat(s3Driver.listAllFiles(FOLDER), hasSize(1));
+      assertThat(s3Driver.readEvent(location), is(equalTo("67890")));
+    }
+  }
+
+  @Test
+  void shouldFlushBatchesOlderThanMaxAge() throws IOException {
+    try (var writer = newWriter(Long.MAX_VALUE, 1000)) {
+      writer.write(FOLDER, randomEvent());
+      now = now.plus(MAX_AGE);
+      writer.write(OTHER_FOLDER, randomEvent());
+      assertThat(s3Driver.listAllFiles(FOLDER), hasSize(1));
+      assertThat(s3Driver.listAllFiles(OTHER_FOLDER), is(empty()));
+
+      now = now.plus(MAX_AGE);
+      writer.flushExpiredBatches();
+      assertThat(s3Driver.listAllFiles(OTHER_FOLDER), hasSize(1));
+    }
+  }
+
+  @Test
+  void shouldKeepSeparateBatchesPerFolder() throws IOException {
+    EventLocation first;
+    EventLocation second;
+    try (var writer = newWriter(Long.MAX_VALUE, 1000)) {
+      first = writer.write(FOLDER, randomEvent());
+      second = writer.write(OTHER_FOLDER, randomEvent());
+    }
+    assertThat(first.uri(), is(not(equalTo(second.uri()))));
+    assertThat(first.line(), is(equalTo(0L)));
+    assertThat(second.line(), is(equalTo(0L)));
+  }
+
+  @Test
+  void shouldNotAcceptNonPositiveThresholds() {
+    assertThrows(IllegalArgumentException.class,
+      () -> new BatchRolloverPolicy(0, 1, MAX_AGE));
+    assertThrows(IllegalArgumentException.class,
+      () -> new BatchRolloverPolicy(1, 1, Duration.ZERO));
+  }
+
+  @Test
+  void shouldUseDefaultPolicyWhenNoneIsSpecified() throws IOException {
+    try (var writer = EventBatchWriter.create(s3Driver)) {
+      writer.write(FOLDER, randomEvent());
+    }
+    assertThat(s3Driver.listAllFiles(FOLDER), hasSize(1));
+  }
+
+  @Test
+  void shouldNotAcceptEventsContainingLineSeparators() throws IOException {
+    try (var writer = newWriter(Long.MAX_VALUE, 1000)) {
+      assertThrows(IllegalArgumentException.class, () -> writer.write(FOLDER, "first\nsecond"));
+      assertThrows(IllegalArgumentException.class, () -> writer.write(FOLDER, "first\rsecond"));
+    }
+    assertThat(s3Driver.listAllFiles(FOLDER), is(empty()));
+  }
+
+  @Test
+  void shouldKeepBatchAndUploadItOnNextFlushWhenUploadFails() throws IOException {
+    var failures = new AtomicInteger(1);
+    var failingClient = new FakeS3Client() {
+      @Override
+      public PutObjectResponse putObject(PutObjectRequest request, RequestBody requestBody) {
+        if (failures.getAndDecrement() > 0) {
+          throw SdkClientException.create("Upload failed");
+        }
+        return super.putObject(request, requestBody);
+      }
+    };
+    s3Driver = new S3Driver(failingClient, SAMPLE_BUCKET);
+    var events = randomEvents(3);
+    var locations = new ArrayList<EventLocation>();
+    try (var writer = newWriter(Long.MAX_VALUE, 3)) {
+      locations.add(writer.write(FOLDER, events.get(0)));
+      locations.add(writer.write(FOLDER, events.get(1)));
+      assertThrows(SdkClientException.class, () -> writer.write(FOLDER, events.get(2)));
+      assertThat(s3Driver.listAllFiles(FOLDER), is(empty()));
+
+      writer.flushAll();
+    }
+    assertThat(s3Driver.listAllFiles(FOLDER), hasSize(1));
+    for (int i = 0; i < locations.size(); i++) {
+      assertThat(s3Driver.readEvent(locations.get(i)), is(equalTo(events.get(i))));
+    }
+  }
+
+  @Test
+  void shouldNotLoseEventsWrittenConcurrentlyToManyFolders() throws Exception {
+    var folders = List.of(FOLDER, OTHER_FOLDER, UnixPath.of("third", "folder"));
+    var eventsPerFolder = 50;
+    try (var writer = newWriter(Long.MAX_VALUE, 7)) {
+      try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        var writes = new ArrayList<Future<EventLocation>>();
+        for (var folder : folders) {
+          for (int i = 0; i < eventsPerFolder; i++) {
+            writes.add(executor.submit(() -> writer.write(folder, randomEvent())));
+          }
+        }
+        for (var write : writes) {
+          write.get();
+        }
+      }
+    }
+    for (var folder : folders) {
+      var storedEvents = s3Driver.listAllFiles(folder).stream()
+        .flatMap(file -> s3Driver.getLines(file))
+        .toList();
+      assertThat(storedEvents, hasSize(eventsPerFolder));
+    }
+  }
+
+  private EventBatchWriter newWriter(long maxBytes, int maxRecords) {
+    return new EventBatchWriter(s3Driver, new BatchRolloverPolicy(maxBytes, maxRecords, MAX_AGE),
+      clock);
+  }
+
+  private static String randomEvent() {
+    return FAKER.lorem().sentence();
+  }
+
+  private static List<String> randomEvents(int numberOfEvents) {
+    var events = new ArrayList<String>();
+    for (int i = 0; i < numberOfEvents; i++) {
+      events.add(randomEvent());
+    }
+    return events;
+  }
+}
@@ -0,0 +1,109 @@
+package com.github.awsjavakit.s3;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.awsjavakit.s3.ObjectContentCache.CachedContent;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ObjectContentCacheTest {
+
+  private static final URI SOME_OBJECT = URI.create("s3://bucket/some/object");
+  private static final URI OTHER_OBJECT = URI.create("s3://bucket/other/object");
+
+  @Test
+  void shouldReturnCachedContentAndTrackItsSize() {
+    var cache = ObjectContentCache.create();
+    var content = content(10);
+
+    cache.put(SOME_OBJECT, content);
+
+    assertThat(cache.get(SOME_OBJECT), is(equalTo(Optional.of(content))));
+    assertThat(cache.size(), is(equalTo(1)));
+    assertThat(cache.sizeInBytes(), is(equalTo(10L)));
+  }
+
+  @Test
+  void shouldReplaceTheCachedContentOfAnObject() {
+    var cache = ObjectContentCache.create();
+    cache.put(SOME_OBJECT, content(10));
+    var newContent = content(5);
+
+    cache.put(SOME_OBJECT, newContent);
+
+    assertThat(cache.get(SOME_OBJECT), is(equalTo(Optional.of(newContent))));
+    assertThat(cache.sizeInBytes(), is(equalTo(5L)));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedContentWhenTotalSizeExceedsLimit() {
+    var cache = new ObjectContentCache(15);
+    cache.put(SOME_OBJECT, content(10));
+    cache.put(OTHER_OBJECT, content(10));
+
+    assertThat(cache.get(SOME_OBJECT), is(equalTo(Optional.empty())));
+    assertThat(cache.size(), is(equalTo(1)));
+    assertThat(cache.sizeInBytes(), is(equalTo(10L)));
+  }
+
+  @Test
+  void shouldNotStoreContentLargerThanTheCache() {
+    var cache = new ObjectContentCache(15);
+    cache.put(SOME_OBJECT, content(10));
+
+    cache.put(OTHER_OBJECT, content(20));
+
+    assertThat(cache.get(SOME_OBJECT).isPresent(), is(true));
+    assertThat(cache.get(OTHER_OBJECT), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  void shouldStoreNothingWhenDisabled() {
+    var cache = ObjectContentCache.disabled();
+    cache.put(SOME_OBJECT, content(1));
+    assertThat(cache.size(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldRemoveInvalidatedContent() {
+    var cache = ObjectContentCache.create();
+    cache.put(SOME_OBJECT, content(10));
+    cache.put(OTHER_OBJECT, content(10));
+
+    cache.invalidate(SOME_OBJECT);
+    assertThat(cache.get(SOME_OBJECT), is(equalTo(Optional.empty())));
+    assertThat(cache.sizeInBytes(), is(equalTo(10L)));
+
+    cache.invalidateAll();
+    assertThat(cache.size(), is(equalTo(0)));
+    assertThat(cache.sizeInBytes(), is(equalTo(0L)));
+  }
+
+  @Test
+  void shouldKeepTotalSizeWithinLimitWhenWrittenConcurrently() {
+    var cache = new ObjectContentCache(100);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      IntStream.range(0, 1000).forEach(index -> executor.submit(
+        () -> cache.put(URI.create("s3://bucket/object" + index % 50), content(index % 7))));
+    }
+
+    assertThat(cache.sizeInBytes(), is(lessThanOrEqualTo(100L)));
+  }
+
+  @Test
+  void shouldRejectNegativeSize() {
+    assertThrows(IllegalArgumentException.class, () -> new ObjectContentCache(-1));
+  }
+
+  private static CachedContent content(int size) {
+    return new CachedContent("\"etag\"", Instant.now(), new byte[size]);
+  }
+}
@@ -0,0 +1,140 @@
+package com.github.awsjavakit.s3;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ObjectMetadataCacheTest {
+
+  private static final Duration TTL = Duration.ofMinutes(1);
+  private static final URI SOME_OBJECT = URI.create("s3://bucket/some/object");
+  private static final URI OTHER_OBJECT = URI.create("s3://bucket/other/object");
+  private static final Map<String, String> SOME_TAGS = Map.of("key", "value");
+  private Clock clock;
+  private Instant now;
+
+  @BeforeEach
+  public void init() {
+    now = Instant.now();
+    clock = mock(Clock.class);
+    when(clock.instant()).thenAnswer(ignored -> now);
+  }
+
+  @Test
+  void shouldReturnCachedMetadataAndCountHitsAndMisses() {
+    var cache = new ObjectMetadataCache(10, TTL, clock);
+    assertThat(cache.lastModified(SOME_OBJECT), is(equalTo(Optional.empty())));
+
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    cache.putTags(SOME_OBJECT, SOME_TAGS);
+
+    assertThat(cache.lastModified(SOME_OBJECT), is(equalTo(Optional.of(now))));
+    assertThat(cache.tags(SOME_OBJECT), is(equalTo(Optional.of(SOME_TAGS))));
+    assertThat(cache.hits(), is(equalTo(2L)));
+    assertThat(cache.misses(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldExpireEntriesAfterTimeToLive() {
+    var cache = new ObjectMetadataCache(10, TTL, clock);
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    now = now.plus(TTL);
+    assertThat(cache.lastModified(SOME_OBJECT), is(equalTo(Optional.empty())));
+    assertThat(cache.size(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+    var cache = new ObjectMetadataCache(1, TTL, clock);
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    cache.putLastModified(OTHER_OBJECT, "etag", now);
+    assertThat(cache.size(), is(equalTo(1)));
+    assertThat(cache.lastModified(SOME_OBJECT), is(equalTo(Optional.empty())));
+    assertThat(cache.lastModified(OTHER_OBJECT), is(equalTo(Optional.of(now))));
+  }
+
+  @Test
+  void shouldDiscardCachedTagsWhenObjectIsObservedWithDifferentEtag() {
+    var cache = new ObjectMetadataCache(10, TTL, clock);
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    cache.putTags(SOME_OBJECT, SOME_TAGS);
+
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    assertThat(cache.tags(SOME_OBJECT), is(equalTo(Optional.of(SOME_TAGS))));
+
+    var modified = now.plusSeconds(1);
+    cache.putLastModified(SOME_OBJECT, "newEtag", modified);
+    assertThat(cache.tags(SOME_OBJECT), is(equalTo(Optional.empty())));
+    assertThat(cache.lastModified(SOME_OBJECT), is(equalTo(Optional.of(modified))));
+  }
+
+  @Test
+  void shouldRemoveInvalidatedEntries() {
+    var cache = new ObjectMetadataCache(10, TTL, clock);
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    cache.putLastModified(OTHER_OBJECT, "etag", now);
+    cache.invalidate(SOME_OBJECT);
+    assertThat(cache.size(), is(equalTo(1)));
+    cache.invalidateAll();
+    assertThat(cache.size(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldNotStoreAnythingWhenDisabled() {
+    var cache = ObjectMetadataCache.disabled();
+    assertThat(cache.isEnabled(), is(equalTo(false)));
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    cache.putTags(SOME_OBJECT, SOME_TAGS);
+    assertThat(cache.lastModified(SOME_OBJECT), is(equalTo(Optional.empty())));
+    assertThat(cache.size(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldNotAcceptNegativeSizeOrTimeToLive() {
+    assertThrows(IllegalArgumentException.class,
+      () -> ObjectMetadataCache.create(-1, TTL));
+    assertThrows(IllegalArgumentException.class,
+      () -> ObjectMetadataCache.create(1, TTL.negated()));
+  }
+
+  @Test
+  void shouldCreateCacheWithDefaultSettings() {
+    var cache = ObjectMetadataCache.create();
+    assertThat(cache.isEnabled(), is(equalTo(true)));
+    cache.putLastModified(SOME_OBJECT, "etag", now);
+    assertThat(cache.lastModified(SOME_OBJECT), is(equalTo(Optional.of(now))));
+  }
+
+  @Test
+  void shouldKeepMetadataOfEveryObjectWhenUpdatedConcurrently() {
+    var objects = 100;
+    var cache = new ObjectMetadataCache(objects, TTL, clock);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      IntStream.range(0, objects).forEach(index -> executor.submit(() -> {
+        var object = URI.create("s3://bucket/object" + index);
+        cache.putLastModified(object, "etag", now);
+        cache.putTags(object, SOME_TAGS);
+      }));
+    }
+
+    var completeEntries = IntStream.range(0, objects)
+      .mapToObj(index -> URI.create("s3://bucket/object" + index))
+      .filter(object -> cache.lastModified(object).isPresent() && cache.tags(object).isPresent())
+      .count();
+    assertThat(completeEntries, is(equalTo((long) objects)));
+  }
+}
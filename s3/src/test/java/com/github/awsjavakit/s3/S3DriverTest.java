@@ -1,21 +1,30 @@
 package com.github.awsjavakit.s3;
 
 import static com.github.awsjavakit.attempt.Try.attempt;
+import static com.github.awsjavakit.s3.S3Driver.GZIP_ENDING;
 import static com.github.awsjavakit.s3.S3Driver.S3_SCHEME;
 import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomInstant;
 import static java.util.Objects.nonNull;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNot.not;
 import static org.hamcrest.core.StringStartsWith.startsWith;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.github.awsjavakit.misc.ioutils.IoUtils;
@@ -23,47 +32,81 @@ import com.github.awsjavakit.misc.paths.UnixPath;
 import com.github.awsjavakit.misc.paths.UriWrapper;
 import com.github.awsjavakit.testingutils.aws.FakeS3Client;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 import net.datafaker.providers.base.BaseFaker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.core.sync.ResponseTransformer.TransformerType;
+import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.Tag;
 import software.amazon.awssdk.services.s3.model.Tagging;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
 @SuppressWarnings("PMD.CouplingBetweenObjects")
 class S3DriverTest {
@@ -143,6 +186,83 @@ class S3DriverTest {
     assertThat(actualContent.size(), is(equalTo(2)));
   }
 
+  @Test
+  void shouldReturnTheContentsOfAllFilesInFolderInListingOrderWhenReadingInParallel()
+    throws IOException {
+    var folder = UnixPath.of(SOME_PATH);
+    var numberOfFilesSpanningMoreThanOnePage = S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING + 10;
+    var expectedContents = new ArrayList<String>();
+    for (int i = 0; i < numberOfFilesSpanningMoreThanOnePage; i++) {
+      var content = randomString() + i;
+      var filename = i % 2 == 0 ? "file" + i : "file" + i + ".gz";
+      s3Driver.insertFile(folder.addChild(filename), content);
+      expectedContents.add(content);
+    }
+
+    var actualContents = s3Driver.getFilesInParallel(folder);
+
+    assertThat(actualContents, is(equalTo(expectedContents)));
+  }
+
+  @Test
+  void shouldNotExceedConcurrencyLimitWhenReadingFilesInParallel() throws IOException {
+    var maxConcurrentDownloads = 3;
+    var trackingClient = new ConcurrencyTrackingS3Client(new FakeS3Client());
+    s3Driver = new S3Driver(trackingClient, SAMPLE_BUCKET);
+    var folder = UnixPath.of(SOME_PATH);
+    for (int i = 0; i < 20; i++) {
+      s3Driver.insertFile(folder.addChild("file" + i), randomString());
+    }
+
+    var contents = s3Driver.getFilesInParallel(folder, maxConcurrentDownloads);
+
+    assertThat(contents, hasSize(20));
+    assertThat(trackingClient.getMaxConcurrentDownloads(),
+      is(lessThanOrEqualTo(maxConcurrentDownloads)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void shouldStreamAllFilesInFolderAcrossPagesInListingOrder(boolean prefetchNextPage)
+    throws IOException {
+    var folder = UnixPath.of(SOME_PATH);
+    var expectedFiles = new ArrayList<UnixPath>();
+    for (int i = 0; i < 2 * S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING + 1; i++) {
+      var file = folder.addChild("file" + i);
+      s3Driver.insertFile(file, randomString());
+      expectedFiles.add(file);
+    }
+    s3Driver.insertFile(UnixPath.of("other", "folder"), randomString());
+
+    var actualFiles = s3Driver.streamAllFiles(folder, prefetchNextPage).toList();
+
+    assertThat(actualFiles, is(equalTo(expectedFiles)));
+  }
+
+  @Test
+  void shouldFetchListingPagesOnlyWhenTheyAreConsumed() throws IOException {
+    var spiedClient = spy(new FakeS3Client());
+    s3Driver = new S3Driver(spiedClient, SAMPLE_BUCKET);
+    var folder = UnixPath.of(SOME_PATH);
+    for (int i = 0; i < S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING + 1; i++) {
+      s3Driver.insertFile(folder.addChild("file" + i), randomString());
+    }
+
+    var files = s3Driver.streamAllFiles(folder);
+    verify(spiedClient, never()).listObjectsV2(any(ListObjectsV2Request.class));
+
+    var firstFile = files.findFirst().orElseThrow();
+    assertThat(firstFile, is(equalTo(folder.addChild("file0"))));
+    verify(spiedClient, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+  }
+
+  @Test
+  void shouldReturnEmptyStreamWhenFolderIsEmpty() throws IOException {
+    s3Driver.insertFile(randomPath(), randomString());
+    var files = s3Driver.streamAllFiles(UnixPath.of(randomString(), randomString())).toList();
+    assertThat(files, is(empty()));
+  }
+
   @Test
   void shouldReturnTheContentsOfAllFilesInFolderWhenInputIsAFolderAsAnS3Uri() throws IOException {
 
@@ -200,6 +320,137 @@ class S3DriverTest {
     assertThat(actualContent, is(equalTo(expectedContent)));
   }
 
+  @Test
+  void shouldUploadSmallStreamWithSinglePutWhenInsertingFileInParts() throws IOException {
+    var fakeS3Client = new FakeS3Client();
+    s3Driver = new S3Driver(fakeS3Client, SAMPLE_BUCKET);
+    var expectedContent = longText();
+
+    var uri = s3Driver.insertFileInParts(randomPath(), IoUtils.stringToStream(expectedContent));
+
+    assertThat(s3Driver.readFile(uri), is(equalTo(expectedContent)));
+    assertThat(fakeS3Client.getUploadPartRequests(), is(empty()));
+  }
+
+  @Test
+  void shouldUploadLargeStreamInPartsWhenInsertingFileInParts() throws IOException {
+    var fakeS3Client = new FakeS3Client();
+    s3Driver = new S3Driver(fakeS3Client, SAMPLE_BUCKET);
+    var partSize = MultipartUploadConfig.MIN_PART_SIZE;
+    var expectedContent = randomBytes(2 * partSize + 1);
+    var config = new MultipartUploadConfig(partSize, 2);
+
+    var uri = s3Driver.insertFileInParts(randomPath(),
+      new ByteArrayInputStream(expectedContent), config);
+
+    try (var actualContent = s3Driver.readFileAsStream(uri)) {
+      assertThat(actualContent.readAllBytes(), is(equalTo(expectedContent)));
+    }
+    assertThat(fakeS3Client.getUploadPartRequests(), hasSize(3));
+    assertThat(fakeS3Client.hasPendingMultipartUploads(), is(false));
+  }
+
+  @Test
+  void shouldAbortMultipartUploadWhenReadingTheStreamFails() {
+    var fakeS3Client = new FakeS3Client();
+    s3Driver = new S3Driver(fakeS3Client, SAMPLE_BUCKET);
+    var partSize = MultipartUploadConfig.MIN_PART_SIZE;
+    var failingStream = new SequenceInputStream(
+      new ByteArrayInputStream(randomBytes(partSize)), failingInputStream());
+
+    Executable action = () -> s3Driver.insertFileInParts(randomPath(), failingStream,
+      new MultipartUploadConfig(partSize, 1));
+
+    assertThrows(IOException.class, action);
+    assertThat(fakeS3Client.hasPendingMultipartUploads(), is(false));
+  }
+
+  @Test
+  void shouldStopReadingTheStreamWhenUploadingAPartFails() {
+    var failingClient = new FakeS3Client() {
+      @Override
+      public UploadPartResponse uploadPart(UploadPartRequest uploadPartRequest,
+        RequestBody requestBody) {
+        throw SdkClientException.create("Uploading part failed");
+      }
+    };
+    s3Driver = new S3Driver(failingClient, SAMPLE_BUCKET);
+    var partSize = MultipartUploadConfig.MIN_PART_SIZE;
+    var content = new ByteArrayInputStream(randomBytes(4 * partSize));
+
+    Executable action = () -> s3Driver.insertFileInParts(randomPath(), content,
+      new MultipartUploadConfig(partSize, 1));
+
+    assertThrows(SdkClientException.class, action);
+    assertThat(content.available(), is(equalTo(2 * partSize)));
+    assertThat(failingClient.hasPendingMultipartUploads(), is(false));
+  }
+
+  @Test
+  void shouldAttachAbortFailureToThePartFailureWhenAbortingMultipartUploadFails() {
+    var partFailure = SdkClientException.create("Uploading part failed");
+    var abortFailure = SdkClientException.create("Aborting upload failed");
+    var failingClient = new FakeS3Client() {
+      @Override
+      public UploadPartResponse uploadPart(UploadPartRequest uploadPartRequest,
+        RequestBody requestBody) {
+        throw partFailure;
+      }
+
+      @Override
+      public AbortMultipartUploadResponse abortMultipartUpload(
+        AbortMultipartUploadRequest abortMultipartUploadRequest) {
+        throw abortFailure;
+      }
+    };
+    s3Driver = new S3Driver(failingClient, SAMPLE_BUCKET);
+    var partSize = MultipartUploadConfig.MIN_PART_SIZE;
+    var content = new ByteArrayInputStream(randomBytes(2 * partSize));
+
+    Executable action = () -> s3Driver.insertFileInParts(randomPath(), content,
+      new MultipartUploadConfig(partSize, 1));
+
+    var exception = assertThrows(SdkClientException.class, action);
+    assertThat(exception, is(partFailure));
+    assertThat(Arrays.asList(exception.getSuppressed()), contains(abortFailure));
+  }
+
+  @Test
+  void shouldUploadStreamThatFillsExactlyTheMaximumNumberOfParts() throws IOException {
+    var uploadedParts = new AtomicInteger();
+    var completedParts = new AtomicInteger();
+    var countingClient = new FakeS3Client() {
+      @Override
+      public UploadPartResponse uploadPart(UploadPartRequest uploadPartRequest,
+        RequestBody requestBody) {
+        uploadedParts.incrementAndGet();
+        return UploadPartResponse.builder().eTag(randomString()).build();
+      }
+
+      @Override
+      public CompleteMultipartUploadResponse completeMultipartUpload(
+        CompleteMultipartUploadRequest completeMultipartUploadRequest) {
+        completedParts.set(completeMultipartUploadRequest.multipartUpload().parts().size());
+        return CompleteMultipartUploadResponse.builder().build();
+      }
+    };
+    s3Driver = new S3Driver(countingClient, SAMPLE_BUCKET);
+    var partSize = MultipartUploadConfig.MIN_PART_SIZE;
+    var content = streamOfSize((long) MultipartUploader.MAX_NUMBER_OF_PARTS * partSize);
+
+    s3Driver.insertFileInParts(randomPath(), content, new MultipartUploadConfig(partSize, 4));
+
+    assertThat(uploadedParts.get(), is(equalTo(MultipartUploader.MAX_NUMBER_OF_PARTS)));
+    assertThat(completedParts.get(), is(equalTo(MultipartUploader.MAX_NUMBER_OF_PARTS)));
+  }
+
+  @Test
+  void shouldNotAcceptPartsSmallerThanTheS3Minimum() {
+    Executable action = () -> new MultipartUploadConfig(MultipartUploadConfig.MIN_PART_SIZE - 1,
+      1);
+    assertThrows(IllegalArgumentException.class, action);
+  }
+
   @Test
   void shouldWriteFileFromDiskToS3() throws IOException {
     var expectedContent = longText();
@@ -230,6 +481,63 @@ class S3DriverTest {
     assertThat(actualContent, is(equalTo(expectedContent)));
   }
 
+  @Test
+  void shouldCompressAndDecompressFilesWithTheCodecMatchingTheirExtension() throws IOException {
+    var codecs = CompressionCodecs.defaultCodecs().with(new ZlibCodec());
+    s3Driver = new S3Driver(s3Client, SAMPLE_BUCKET, codecs);
+    var expectedContent = longText();
+    var filePath = UnixPath.of(randomString(), "file" + ZlibCodec.EXTENSION);
+
+    s3Driver.insertFile(filePath, expectedContent);
+
+    var storedBytes = new S3Driver(s3Client, SAMPLE_BUCKET).getUncompressedFileAsStream(filePath)
+      .readAllBytes();
+    var decompressedBytes = new InflaterInputStream(new ByteArrayInputStream(storedBytes))
+      .readAllBytes();
+    assertThat(new String(decompressedBytes, StandardCharsets.UTF_8).trim(),
+      is(equalTo(expectedContent)));
+    assertThat(s3Driver.getFile(filePath), is(equalTo(expectedContent)));
+  }
+
+  @Test
+  void shouldRejectWritingFilesWithCompressionExtensionThatHasNoRegisteredCodec() {
+    var zstdFile = UnixPath.of(randomString(), "file.zst");
+
+    assertThrows(IllegalArgumentException.class,
+      () -> s3Driver.insertFile(zstdFile, randomString()));
+    assertThrows(NoSuchKeyException.class, () -> s3Driver.getUncompressedFile(zstdFile));
+  }
+
+  @Test
+  void shouldReadFilesWithCompressionExtensionThatHasNoRegisteredCodecAsTheyAre()
+    throws IOException {
+    var lz4File = UnixPath.of(randomString(), "file.lz4");
+    var content = randomString();
+    s3Driver.insertFile(lz4File, IoUtils.stringToStream(content));
+
+    assertThat(s3Driver.getFile(lz4File), is(equalTo(content)));
+    assertThat(s3Driver.getFile(lz4File, ObjectContentCache.create()), is(equalTo(content)));
+    try (var stream = s3Driver.getFileAsStream(lz4File)) {
+      assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8), is(equalTo(content)));
+    }
+  }
+
+  @Test
+  void shouldStoreEventsWithTheDefaultCodecAndStillReadGzipFiles() throws IOException {
+    var codecs = CompressionCodecs.withDefault(new ZlibCodec());
+    s3Driver = new S3Driver(s3Client, SAMPLE_BUCKET, codecs);
+    var eventContent = randomString();
+    var gzipFile = UnixPath.of(randomString() + GZIP_ENDING);
+    var gzipContent = randomString();
+
+    var eventUri = s3Driver.insertEvent(UnixPath.of(randomString()), eventContent);
+    s3Driver.insertFile(gzipFile, gzipContent);
+
+    assertThat(eventUri.getPath(), endsWith(ZlibCodec.EXTENSION));
+    assertThat(s3Driver.readEvent(eventUri), is(equalTo(eventContent)));
+    assertThat(s3Driver.getFile(gzipFile), is(equalTo(gzipContent)));
+  }
+
   @Test
   void shouldReturnUriToS3FileLocationWhenSavingEvent() throws IOException {
     String content = randomString();
@@ -308,6 +616,18 @@ class S3DriverTest {
     assertThat(actualContent, is(equalTo(input)));
   }
 
+  @Test
+  void shouldCompressStreamOfObjectsUnderSpecifiedPath() throws IOException {
+    var input = IntStream.range(0, LARGE_NUMBER_OF_INPUTS).boxed()
+      .map(ignored -> longText())
+      .toList();
+    var fileLocation = s3Driver.insertAndCompressObjects(UnixPath.of(randomString()),
+      input.stream());
+    try (var lines = s3Driver.readLines(fileLocation)) {
+      assertThat(lines.toList(), is(equalTo(input)));
+    }
+  }
+
   @ParameterizedTest(name = "should store all content under specified path removing root")
   @ValueSource(strings = {EMPTY_STRING, ROOT})
   void shouldStoreAllContentUnderSpecifiedPathRemovingRoot(String pathPrefix)
@@ -329,6 +649,41 @@ class S3DriverTest {
       startsWith(expectedFolderNeverContainsRootFolder));
   }
 
+  @Test
+  void shouldReadCompressedObjectLineByLine() throws IOException {
+    var input = IntStream.range(0, 100).boxed().map(ignored -> longText()).toList();
+    var fileLocation = s3Driver.insertAndCompressObjects(UnixPath.of(randomString()), input);
+
+    try (var lines = s3Driver.readLines(fileLocation)) {
+      assertThat(lines.toList(), is(equalTo(input)));
+    }
+  }
+
+  @Test
+  void shouldReadUncompressedObjectLineByLine() throws IOException {
+    var input = IntStream.range(0, 100).boxed().map(ignored -> randomString()).toList();
+    var filePath = randomPath();
+    s3Driver.insertFile(filePath, String.join(System.lineSeparator(), input));
+
+    try (var lines = s3Driver.getLines(filePath)) {
+      assertThat(lines.toList(), is(equalTo(input)));
+    }
+  }
+
+  @Test
+  void shouldCloseTheResponseStreamWhenTheLinesStreamIsClosed() throws IOException {
+    var closingClient = new CloseTrackingS3Client(new FakeS3Client());
+    s3Driver = new S3Driver(closingClient, SAMPLE_BUCKET);
+    var filePath = UnixPath.of(randomString() + ".gz");
+    s3Driver.insertFile(filePath, randomString());
+
+    try (var lines = s3Driver.getLines(filePath)) {
+      assertThat(lines.findFirst().isPresent(), is(true));
+      assertThat(closingClient.isResponseStreamClosed(), is(false));
+    }
+    assertThat(closingClient.isResponseStreamClosed(), is(true));
+  }
+
   @Test
   void shouldStoreAllFilesDirectlyUnderBucketWhenCalledWithoutPath() throws IOException {
     String input = longText();
@@ -459,6 +814,539 @@ class S3DriverTest {
     assertThrows(IllegalTagException.class, action);
   }
 
+  @Test
+  void shouldReadByteRangeOfObject() throws IOException {
+    var content = randomBytes(1000);
+    var path = randomPath();
+    s3Driver.insertFile(path, new ByteArrayInputStream(content));
+
+    assertThat(s3Driver.getRange(path, 100, 50),
+      is(equalTo(Arrays.copyOfRange(content, 100, 150))));
+    try (var stream = s3Driver.getRangeAsStream(path, 0, 10)) {
+      assertThat(stream.readAllBytes(), is(equalTo(Arrays.copyOfRange(content, 0, 10))));
+    }
+  }
+
+  @Test
+  void shouldReturnRemainingBytesWhenRangeExtendsPastTheEndOfTheObject() throws IOException {
+    var content = randomBytes(100);
+    var path = randomPath();
+    s3Driver.insertFile(path, new ByteArrayInputStream(content));
+
+    assertThat(s3Driver.getRange(path, 90, 50),
+      is(equalTo(Arrays.copyOfRange(content, 90, 100))));
+  }
+
+  @Test
+  void shouldReadTheTailOfTheObject() throws IOException {
+    var content = randomBytes(1000);
+    var path = randomPath();
+    s3Driver.insertFile(path, new ByteArrayInputStream(content));
+
+    assertThat(s3Driver.getSuffix(path, 10),
+      is(equalTo(Arrays.copyOfRange(content, 990, 1000))));
+    assertThat(s3Driver.getSuffix(path, 5000), is(equalTo(content)));
+    try (var stream = s3Driver.getSuffixAsStream(path, 1)) {
+      assertThat(stream.readAllBytes(), is(equalTo(Arrays.copyOfRange(content, 999, 1000))));
+    }
+  }
+
+  @Test
+  void shouldNotAcceptInvalidRanges() throws IOException {
+    var path = randomPath();
+    s3Driver.insertFile(path, randomString());
+    assertThrows(IllegalArgumentException.class, () -> s3Driver.getRange(path, -1, 10));
+    assertThrows(IllegalArgumentException.class, () -> s3Driver.getRange(path, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> s3Driver.getSuffix(path, 0));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 7, 100, 1000, 5000})
+  void shouldDownloadObjectInRangesAndReassembleItInOrder(int rangeSize) throws IOException {
+    var content = randomBytes(1000);
+    var path = randomPath();
+    s3Driver.insertFile(path, new ByteArrayInputStream(content));
+
+    var output = new ByteArrayOutputStream();
+    s3Driver.downloadInRanges(path, output, rangeSize, 3);
+
+    assertThat(output.toByteArray(), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldFailRangedDownloadWhenObjectIsOverwrittenAfterItsSizeWasRead() throws IOException {
+    var path = randomPath();
+    var overwritingClient = new FakeS3Client() {
+      @Override
+      public HeadObjectResponse headObject(HeadObjectRequest headObjectRequest) {
+        var response = super.headObject(headObjectRequest);
+        putObject(PutObjectRequest.builder().bucket(SAMPLE_BUCKET).key(path.toString()).build(),
+          RequestBody.fromBytes(randomBytes(1000)));
+        return response;
+      }
+    };
+    s3Driver = new S3Driver(overwritingClient, SAMPLE_BUCKET);
+    s3Driver.insertFile(path, new ByteArrayInputStream(randomBytes(1000)));
+
+    Executable action = () -> s3Driver.downloadInRanges(path, new ByteArrayOutputStream(), 100, 3);
+
+    assertThrows(ConcurrentModificationException.class, action);
+  }
+
+  @Test
+  void shouldDownloadEmptyObjectInRanges() throws IOException {
+    var path = randomPath();
+    s3Driver.insertFile(path, new ByteArrayInputStream(new byte[0]));
+
+    var output = new ByteArrayOutputStream();
+    s3Driver.downloadInRanges(path, output);
+
+    assertThat(output.size(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldServeRepeatedMetadataRequestsFromCache() throws IOException {
+    var spiedClient = spy(new FakeS3Client());
+    var cache = ObjectMetadataCache.create();
+    s3Driver = new S3Driver(spiedClient, SAMPLE_BUCKET, cache);
+    var uri = s3Driver.insertFile(randomPath(), randomString());
+
+    var lastModified = s3Driver.lastModified(uri);
+    var tags = s3Driver.getTags(uri);
+
+    assertThat(s3Driver.lastModified(uri), is(equalTo(lastModified)));
+    assertThat(s3Driver.getTags(uri), is(equalTo(tags)));
+    verify(spiedClient, times(1)).headObject(any(HeadObjectRequest.class));
+    verify(spiedClient, times(1)).getObjectTagging(any(GetObjectTaggingRequest.class));
+    assertThat(cache.hits(), is(equalTo(2L)));
+    assertThat(cache.misses(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldDeleteFile() throws IOException {
+    var file = UnixPath.of(SOME_PATH, randomFileName());
+    var otherFile = UnixPath.of(SOME_PATH, "other" + randomFileName());
+    s3Driver.insertFile(file, randomString());
+    s3Driver.insertFile(otherFile, randomString());
+
+    s3Driver.deleteFile(file);
+
+    assertThat(s3Driver.listAllFiles(UnixPath.of(SOME_PATH)), contains(otherFile));
+  }
+
+  @Test
+  void shouldDeleteFilesInBatchesOfAtMostOneThousandKeys() throws IOException {
+    var spiedClient = spy(new FakeS3Client());
+    s3Driver = new S3Driver(spiedClient, SAMPLE_BUCKET);
+    var files = new ArrayList<UnixPath>();
+    for (int i = 0; i < 2500; i++) {
+      var file = UnixPath.of(SOME_PATH, "file" + i);
+      s3Driver.insertFile(file, new ByteArrayInputStream(new byte[0]));
+      files.add(file);
+    }
+
+    var result = s3Driver.deleteFiles(files);
+
+    assertThat(result.deletedObjects(), is(equalTo(2500L)));
+    assertThat(result.isSuccessful(), is(true));
+    assertThat(s3Driver.listAllFiles(UnixPath.of(SOME_PATH)), is(empty()));
+    verify(spiedClient, times(3)).deleteObjects(any(DeleteObjectsRequest.class));
+  }
+
+  @Test
+  void shouldDeleteAllFilesOfFolderAcrossListingPagesButNotFilesOfSiblingFolders()
+    throws IOException {
+    var folder = UnixPath.of(SOME_PATH);
+    var siblingFile = UnixPath.of(SOME_PATH + "Sibling", "file");
+    for (int i = 0; i < 2 * S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING + 1; i++) {
+      s3Driver.insertFile(folder.addChild("file" + i), new ByteArrayInputStream(new byte[0]));
+      if (i % 100 == 0) {
+        s3Driver.insertFile(siblingFile.addChild(String.valueOf(i)), randomString());
+      }
+    }
+
+    var result = s3Driver.deleteFolder(folder, 2);
+
+    assertThat(result.deletedObjects(),
+      is(equalTo(2L * S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING + 1)));
+    assertThat(s3Driver.listFolder(folder).files(), is(empty()));
+    assertThat(s3Driver.listAllFiles(UnixPath.of(SOME_PATH + "Sibling")), hasSize(21));
+  }
+
+  @Test
+  void shouldReportFilesThatCouldNotBeDeletedAndDeleteTheRemainingFiles() throws IOException {
+    var failingClient = new FailingDeleteS3Client();
+    s3Driver = new S3Driver(failingClient, SAMPLE_BUCKET);
+    var folder = UnixPath.of(SOME_PATH);
+    for (int i = 0; i < 10; i++) {
+      s3Driver.insertFile(folder.addChild(i + ".txt"), randomString());
+    }
+    var failingFile = s3Driver.insertFile(folder.addChild(FailingDeleteS3Client.FAILING_KEY),
+      randomString());
+
+    var result = s3Driver.deleteFolder(folder);
+
+    assertThat(result.deletedObjects(), is(equalTo(10L)));
+    assertThat(result.totalObjects(), is(equalTo(11L)));
+    assertThat(result.failures(), hasSize(1));
+    assertThat(result.failures().getFirst().object(), is(equalTo(failingFile)));
+    assertThat(result.failures().getFirst().errorCode(),
+      is(equalTo(FailingDeleteS3Client.ERROR_CODE)));
+    assertThat(s3Driver.listAllFiles(folder), contains(UnixPath.of(SOME_PATH,
+      FailingDeleteS3Client.FAILING_KEY)));
+  }
+
+  @Test
+  void shouldReportAllFilesOfBatchWhenDeleteRequestFails() throws IOException {
+    var failingClient = new FailingDeleteS3Client();
+    s3Driver = new S3Driver(failingClient, SAMPLE_BUCKET);
+    var files = List.of(UnixPath.of(SOME_PATH, "file"),
+      UnixPath.of(SOME_PATH, FailingDeleteS3Client.FAILING_BATCH_KEY));
+    for (var file : files) {
+      s3Driver.insertFile(file, randomString());
+    }
+
+    var result = s3Driver.deleteFiles(files);
+
+    assertThat(result.deletedObjects(), is(equalTo(0L)));
+    assertThat(result.failures(), hasSize(2));
+    assertThat(result.isSuccessful(), is(false));
+  }
+
+  @Test
+  void shouldAwaitDeletesInFlightBeforeRethrowingListingFailure() throws IOException {
+    var runningDeletes = new AtomicInteger();
+    var completedDeletes = new AtomicInteger();
+    var listings = new AtomicInteger();
+    var client = new FakeS3Client() {
+      @Override
+      public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+        if (listings.getAndIncrement() > 0) {
+          throw SdkClientException.create("Listing failed");
+        }
+        return super.listObjectsV2(request);
+      }
+
+      @Override
+      public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest deleteObjectsRequest) {
+        runningDeletes.incrementAndGet();
+        attempt(() -> {
+          Thread.sleep(100);
+          return null;
+        }).orElseThrow();
+        var response = super.deleteObjects(deleteObjectsRequest);
+        runningDeletes.decrementAndGet();
+        completedDeletes.incrementAndGet();
+        return response;
+      }
+    };
+    s3Driver = new S3Driver(client, SAMPLE_BUCKET);
+    var folder = UnixPath.of(SOME_PATH);
+    for (int i = 0; i < BulkDeleter.MAX_KEYS_PER_REQUEST + 1; i++) {
+      s3Driver.insertFile(folder.addChild("file" + i), randomString());
+    }
+
+    assertThrows(SdkClientException.class, () -> s3Driver.deleteFolder(folder));
+    assertThat(runningDeletes.get(), is(equalTo(0)));
+    assertThat(completedDeletes.get(), is(equalTo(1)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "/"})
+  void shouldRefuseToDeleteAllFilesOfBucket(String root) {
+    Executable action = () -> s3Driver.deleteFolder(UnixPath.of(root));
+    assertThrows(IllegalArgumentException.class, action);
+  }
+
+  @Test
+  void shouldRejectDeleteWithoutConcurrentDeletes() {
+    Executable action = () -> s3Driver.deleteFolder(UnixPath.of(SOME_PATH), 0);
+    assertThrows(IllegalArgumentException.class, action);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"file.json", "file.json.gz"})
+  void shouldReturnCachedContentWhenConditionallyReadFileHasNotChanged(String filename)
+    throws IOException {
+    var spiedClient = spy(new FakeS3Client());
+    s3Driver = new S3Driver(spiedClient, SAMPLE_BUCKET);
+    var content = randomString();
+    var uri = s3Driver.insertFile(UnixPath.of(SOME_PATH, filename), content);
+    var cache = ObjectContentCache.create();
+
+    var firstRead = s3Driver.readFile(uri, cache);
+    var secondRead = s3Driver.readFile(uri, cache);
+
+    assertThat(firstRead, is(equalTo(content)));
+    assertThat(secondRead, is(equalTo(content)));
+    assertThat(cache.misses(), is(equalTo(1L)));
+    assertThat(cache.hits(), is(equalTo(1L)));
+    verify(spiedClient, times(2))
+      .getObject(any(GetObjectRequest.class), any(ResponseTransformer.class));
+  }
+
+  @Test
+  void shouldDownloadConditionallyReadFileAgainWhenItHasChanged() throws IOException {
+    var file = UnixPath.of(SOME_PATH, randomFileName());
+    var uri = s3Driver.insertFile(file, randomString());
+    var cache = ObjectContentCache.create();
+    s3Driver.readFile(uri, cache);
+
+    var newContent = randomString() + randomString();
+    s3Driver.insertFile(file, newContent);
+
+    assertThat(s3Driver.getFile(file, cache), is(equalTo(newContent)));
+    assertThat(cache.misses(), is(equalTo(2L)));
+    assertThat(cache.hits(), is(equalTo(0L)));
+  }
+
+  @Test
+  void shouldDownloadFileOnEveryConditionalReadWhenContentCacheIsDisabled() throws IOException {
+    var content = randomString();
+    var uri = s3Driver.insertFile(UnixPath.of(SOME_PATH, randomFileName()), content);
+    var cache = ObjectContentCache.disabled();
+
+    s3Driver.readFile(uri, cache);
+
+    assertThat(s3Driver.readFile(uri, cache), is(equalTo(content)));
+    assertThat(cache.misses(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldThrowWhenConditionallyReadFileDoesNotExist() throws IOException {
+    s3Driver.insertFile(UnixPath.of(randomString()), randomString());
+    var cache = ObjectContentCache.create();
+    Executable action = () -> s3Driver.getFile(UnixPath.of(SOME_PATH, "missing"), cache);
+    assertThrows(NoSuchKeyException.class, action);
+  }
+
+  @Test
+  void shouldPopulateMetadataCacheFromListings() throws IOException {
+    var spiedClient = spy(new FakeS3Client());
+    s3Driver = new S3Driver(spiedClient, SAMPLE_BUCKET, ObjectMetadataCache.create());
+    var folder = UnixPath.of(SOME_PATH);
+    var uri = s3Driver.insertFile(folder.addChild(randomString()), randomString());
+
+    s3Driver.listAllFiles(folder);
+
+    assertThat(s3Driver.lastModified(uri), is(not(nullValue())));
+    verify(spiedClient, never()).headObject(any(HeadObjectRequest.class));
+    assertThat(s3Driver.getMetadataCache().hits(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldInvalidateCachedMetadataWhenObjectIsOverwritten() throws IOException {
+    var spiedClient = spy(new FakeS3Client());
+    s3Driver = new S3Driver(spiedClient, SAMPLE_BUCKET, ObjectMetadataCache.create());
+    var path = randomPath();
+    var uri = s3Driver.insertFile(path, randomString());
+    s3Driver.lastModified(uri);
+
+    s3Driver.insertFile(path, randomString());
+    s3Driver.lastModified(uri);
+
+    verify(spiedClient, times(2)).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  void shouldNotCacheMetadataByDefault() throws IOException {
+    var spiedClient = spy(new FakeS3Client());
+    s3Driver = new S3Driver(spiedClient, SAMPLE_BUCKET);
+    var uri = s3Driver.insertFile(randomPath(), randomString());
+
+    s3Driver.lastModified(uri);
+    s3Driver.lastModified(uri);
+
+    verify(spiedClient, times(2)).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  void shouldUploadFileFromPath(@TempDir Path tempDir) throws IOException {
+    var content = randomBytes(10_000);
+    var source = Files.write(tempDir.resolve("source.bin"), content);
+    var path = randomPath();
+
+    s3Driver.insertFile(path, source);
+
+    assertThat(s3Driver.getRange(path, 0, content.length), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldUploadRemainingBytesOfBufferWithoutMovingItsPosition() {
+    var content = randomBytes(1000);
+    var buffer = ByteBuffer.allocateDirect(content.length).put(content).flip().position(100);
+    var path = randomPath();
+
+    s3Driver.insertFile(path, buffer);
+
+    assertThat(buffer.position(), is(equalTo(100)));
+    assertThat(s3Driver.getRange(path, 0, content.length),
+      is(equalTo(Arrays.copyOfRange(content, 100, content.length))));
+  }
+
+  @Test
+  void shouldDownloadObjectStraightToFile(@TempDir Path tempDir) throws IOException {
+    var content = randomBytes(10_000);
+    var path = randomPath();
+    s3Driver.insertFile(path, new ByteArrayInputStream(content));
+
+    var destination = s3Driver.downloadToFile(path, tempDir.resolve("downloaded.bin"));
+
+    assertThat(Files.readAllBytes(destination), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldDownloadObjectToMemoryMappedFile(@TempDir Path tempDir) throws IOException {
+    var content = randomBytes(10_000);
+    var path = randomPath();
+    s3Driver.insertFile(path, new ByteArrayInputStream(content));
+
+    var mapped = s3Driver.downloadAndMap(path, tempDir.resolve("mapped.bin"));
+
+    var actual = new byte[mapped.remaining()];
+    mapped.get(actual);
+    assertThat(actual, is(equalTo(content)));
+  }
+
+  @Test
+  void shouldCopyAllFilesOfFolderToDestinationFolderWithTags() throws IOException {
+    var sourceFolder = UnixPath.of(SOME_PATH, "source");
+    var expectedContents = new ArrayList<String>();
+    for (int i = 0; i < 50; i++) {
+      var content = randomString();
+      expectedContents.add(content);
+      s3Driver.insertFile(sourceFolder.addChild(randomString()).addChild(i + ".txt"), content);
+    }
+    var destinationBucket = randomString();
+    var destinationFolder = UriWrapper.fromUri("s3://" + destinationBucket)
+      .addChild("destination").getUri();
+    var tag = Tag.builder().key(randomString()).value(randomString()).build();
+
+    var result = s3Driver.copyFolder(sourceFolder, destinationFolder, 8, tag);
+
+    assertThat(result.copiedObjects(), is(equalTo(50L)));
+    assertThat(result.isSuccessful(), is(true));
+    assertThat(result.objectsPerSecond(), is(greaterThanOrEqualTo(0.0)));
+    var destinationDriver = new S3Driver(s3Client, destinationBucket);
+    var copiedFiles = destinationDriver.listAllFiles(UnixPath.of("destination"));
+    assertThat(copiedFiles, hasSize(50));
+    assertThat(destinationDriver.getFiles(UnixPath.of("destination")),
+      containsInAnyOrder(expectedContents.toArray(String[]::new)));
+    var copiedFileUri = UriWrapper.fromUri("s3://" + destinationBucket)
+      .addChild(copiedFiles.getFirst()).getUri();
+    assertThat(destinationDriver.getTags(copiedFileUri),
+      is(equalTo(Map.of(tag.key(), tag.value()))));
+  }
+
+  @Test
+  void shouldNotCopyFilesOfSiblingFoldersSharingTheSamePrefix() throws IOException {
+    var sourceFolder = UnixPath.of(SOME_PATH, "folder");
+    var expectedFile = s3Driver.insertFile(sourceFolder.addChild("file.txt"), randomString());
+    s3Driver.insertFile(UnixPath.of(SOME_PATH, "folderSibling", "file.txt"), randomString());
+    var destinationFolder = UriWrapper.fromUri("s3://" + SAMPLE_BUCKET)
+      .addChild("copies").getUri();
+
+    var result = s3Driver.copyFolder(sourceFolder, destinationFolder);
+
+    assertThat(result.totalObjects(), is(equalTo(1L)));
+    assertThat(s3Driver.readFile(UriWrapper.fromUri(destinationFolder)
+        .addChild("file.txt").getUri()),
+      is(equalTo(s3Driver.readFile(expectedFile))));
+  }
+
+  @Test
+  void shouldReportFailedCopiesAndContinueCopyingTheRemainingFiles() throws IOException {
+    var failingClient = new FailingCopyS3Client();
+    s3Driver = new S3Driver(failingClient, SAMPLE_BUCKET);
+    var sourceFolder = UnixPath.of(SOME_PATH);
+    for (int i = 0; i < 10; i++) {
+      s3Driver.insertFile(sourceFolder.addChild(i + ".txt"), randomString());
+    }
+    var failingFile = s3Driver.insertFile(sourceFolder.addChild(FailingCopyS3Client.FAILING_KEY),
+      randomString());
+    var destinationFolder = UriWrapper.fromUri("s3://" + SAMPLE_BUCKET)
+      .addChild("copies").getUri();
+
+    var result = s3Driver.copyFolder(sourceFolder, destinationFolder);
+
+    assertThat(result.copiedObjects(), is(equalTo(10L)));
+    assertThat(result.failures(), hasSize(1));
+    assertThat(result.failures().getFirst().source(), is(equalTo(failingFile)));
+    assertThat(result.isSuccessful(), is(false));
+  }
+
+  @Test
+  void shouldInvalidateCachedMetadataOfEveryCopiedFile() throws IOException {
+    var cache = ObjectMetadataCache.create();
+    s3Driver = new S3Driver(s3Client, SAMPLE_BUCKET, cache);
+    var sourceFolder = UnixPath.of(SOME_PATH, "source");
+    s3Driver.insertFile(sourceFolder.addChild("file.txt"), randomString());
+    var destinationFolder = UriWrapper.fromUri("s3://" + SAMPLE_BUCKET)
+      .addChild("copies").getUri();
+    var destination = UriWrapper.fromUri(destinationFolder).addChild("file.txt").getUri();
+    cache.putLastModified(destination, "staleEtag", Instant.EPOCH);
+
+    s3Driver.copyFolder(sourceFolder, destinationFolder);
+
+    assertThat(cache.lastModified(destination), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  void shouldAwaitCopiesInFlightBeforeRethrowingListingFailure() throws IOException {
+    var runningCopies = new AtomicInteger();
+    var completedCopies = new AtomicInteger();
+    var listings = new AtomicInteger();
+    var client = new FakeS3Client() {
+      @Override
+      public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+        if (listings.getAndIncrement() > 0) {
+          throw SdkClientException.create("Listing failed");
+        }
+        return super.listObjectsV2(request.toBuilder().maxKeys(2).build());
+      }
+
+      @Override
+      public CopyObjectResponse copyObject(CopyObjectRequest copyObjectRequest) {
+        runningCopies.incrementAndGet();
+        attempt(() -> {
+          Thread.sleep(100);
+          return null;
+        }).orElseThrow();
+        var response = super.copyObject(copyObjectRequest);
+        runningCopies.decrementAndGet();
+        completedCopies.incrementAndGet();
+        return response;
+      }
+    };
+    s3Driver = new S3Driver(client, SAMPLE_BUCKET);
+    var sourceFolder = UnixPath.of(SOME_PATH);
+    for (int i = 0; i < 5; i++) {
+      s3Driver.insertFile(sourceFolder.addChild(i + ".txt"), randomString());
+    }
+    var destinationFolder = UriWrapper.fromUri("s3://" + SAMPLE_BUCKET)
+      .addChild("copies").getUri();
+
+    assertThrows(SdkClientException.class,
+      () -> s3Driver.copyFolder(sourceFolder, destinationFolder));
+    assertThat(runningCopies.get(), is(equalTo(0)));
+    assertThat(completedCopies.get(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldValidateTagsBeforeCopyingAnyFile() throws IOException {
+    var fakeS3Client = new FakeS3Client();
+    s3Driver = new S3Driver(fakeS3Client, SAMPLE_BUCKET);
+    var sourceFolder = UnixPath.of(SOME_PATH);
+    s3Driver.insertFile(sourceFolder.addChild(randomString()), randomString());
+    var destinationFolder = UriWrapper.fromUri("s3://" + SAMPLE_BUCKET)
+      .addChild("copies").getUri();
+    var invalidTag = Tag.builder().key(randomString()).value("").build();
+
+    assertThrows(IllegalTagException.class,
+      () -> s3Driver.copyFolder(sourceFolder, destinationFolder, invalidTag));
+    assertThat(fakeS3Client.getCopyRequests(), is(empty()));
+  }
+
   @Test
   void shouldThrowExceptionWhenWrongEncodingHasBeenUsed() {
     var expectedContent = randomString();
@@ -519,6 +1407,125 @@ class S3DriverTest {
     assertThat(lastModified, is(greaterThanOrEqualTo(minTimestamp)));
   }
 
+  @Test
+  void shouldListDirectChildrenSeparatelyFromSubfolders() throws IOException {
+    var folder = UnixPath.of(SOME_PATH);
+    var directChildren = List.of(folder.addChild("file1"), folder.addChild("file2"));
+    for (var file : directChildren) {
+      s3Driver.insertFile(file, randomString());
+    }
+    s3Driver.insertFile(UnixPath.of(SOME_PATH, "2024", "01", "file"), randomString());
+    s3Driver.insertFile(UnixPath.of(SOME_PATH, "2024", "02", "file"), randomString());
+    s3Driver.insertFile(UnixPath.of(SOME_PATH, "2025", "01", "file"), randomString());
+    s3Driver.insertFile(UnixPath.of(SOME_PATH + "Sibling", "file"), randomString());
+
+    var listing = s3Driver.listFolder(folder);
+
+    assertThat(listing.files(), containsInAnyOrder(directChildren.toArray()));
+    assertThat(listing.subfolders(),
+      contains(folder.addChild("2024"), folder.addChild("2025")));
+    assertThat(s3Driver.listSubfolders(folder), is(equalTo(listing.subfolders())));
+  }
+
+  @Test
+  void shouldCountEachSubfolderAsOneEntryWhenListingFolderInPages() throws IOException {
+    var folder = UnixPath.of(SOME_PATH);
+    s3Driver.insertFile(folder.addChild("file"), randomString());
+    for (int i = 0; i < 10; i++) {
+      s3Driver.insertFile(UnixPath.of(SOME_PATH, "subfolder", "file" + i), randomString());
+    }
+
+    var firstPage = s3Driver.listFolder(folder, null, 1);
+    var secondPage = s3Driver.listFolder(folder, firstPage.listingStartingPoint(), 1);
+
+    assertThat(firstPage.files(), contains(folder.addChild("file")));
+    assertThat(firstPage.isTruncated(), is(true));
+    assertThat(secondPage.subfolders(), contains(folder.addChild("subfolder")));
+    assertThat(secondPage.isTruncated(), is(false));
+    assertThat(secondPage.listingStartingPoint(), is(nullValue()));
+  }
+
+  @Test
+  void shouldListAllFilesAndSubfoldersWhenFolderListingSpansManyPages() throws IOException {
+    var folder = UnixPath.of(SOME_PATH);
+    var numberOfEntries = 5 * S3Driver.MAX_RESPONSE_SIZE_FOR_S3_LISTING;
+    var expectedFiles = new ArrayList<UnixPath>();
+    var expectedSubfolders = new ArrayList<UnixPath>();
+    for (int i = 0; i < numberOfEntries / 2; i++) {
+      expectedFiles.add(folder.addChild("file" + i));
+      expectedSubfolders.add(folder.addChild("subfolder" + i));
+      s3Driver.insertFile(folder.addChild("file" + i), randomString());
+      s3Driver.insertFile(UnixPath.of(SOME_PATH, "subfolder" + i, "file"), randomString());
+    }
+
+    var listing = s3Driver.listFolder(folder);
+
+    assertThat(listing.files(), containsInAnyOrder(expectedFiles.toArray()));
+    assertThat(listing.subfolders(), containsInAnyOrder(expectedSubfolders.toArray()));
+    assertThat(listing.isTruncated(), is(false));
+    assertThat(listing.listingStartingPoint(), is(nullValue()));
+  }
+
+  @Test
+  void shouldListTopLevelFoldersWhenListingFolderIsEmptyPath() throws IOException {
+    s3Driver.insertFile(UnixPath.of("first", "file"), randomString());
+    s3Driver.insertFile(UnixPath.of("second", "file"), randomString());
+    s3Driver.insertFile(UnixPath.of("file"), randomString());
+
+    var listing = s3Driver.listFolder(UnixPath.EMPTY_PATH);
+
+    assertThat(listing.files(), contains(UnixPath.of("file")));
+    assertThat(listing.subfolders(), contains(UnixPath.of("first"), UnixPath.of("second")));
+  }
+
+  @Test
+  void shouldWalkAllFilesUnderFolderListingFilesOfFolderBeforeFilesOfSubfolders()
+    throws IOException {
+    var folder = UnixPath.of(SOME_PATH);
+    var filesInSubfolders = List.of(
+      UnixPath.of(SOME_PATH, "2024", "01", "file"),
+      UnixPath.of(SOME_PATH, "2024", "02", "file"),
+      UnixPath.of(SOME_PATH, "2025", "01", "file"));
+    for (var file : filesInSubfolders) {
+      s3Driver.insertFile(file, randomString());
+    }
+    var fileInFolder = folder.addChild("file");
+    s3Driver.insertFile(fileInFolder, randomString());
+    s3Driver.insertFile(UnixPath.of(SOME_PATH + "Sibling", "file"), randomString());
+
+    var files = s3Driver.walkAllFiles(folder);
+
+    var expectedFiles = new ArrayList<UnixPath>();
+    expectedFiles.add(fileInFolder);
+    expectedFiles.addAll(filesInSubfolders);
+    assertThat(files, is(equalTo(expectedFiles)));
+  }
+
+  @Test
+  void shouldNotExceedConcurrencyLimitWhenWalkingFolders() throws IOException {
+    var maxConcurrentListings = 2;
+    var trackingClient = new ConcurrencyTrackingS3Client(new FakeS3Client());
+    s3Driver = new S3Driver(trackingClient, SAMPLE_BUCKET);
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 3; j++) {
+        s3Driver.insertFile(UnixPath.of(SOME_PATH, "folder" + i, "folder" + j, "file"),
+          randomString());
+      }
+    }
+
+    var files = s3Driver.walkAllFiles(UnixPath.of(SOME_PATH), maxConcurrentListings);
+
+    assertThat(files, hasSize(30));
+    assertThat(trackingClient.getMaxConcurrentListings(),
+      is(lessThanOrEqualTo(maxConcurrentListings)));
+  }
+
+  @Test
+  void shouldRejectWalkWithoutConcurrentListings() {
+    Executable action = () -> s3Driver.walkAllFiles(UnixPath.of(SOME_PATH), 0);
+    assertThrows(IllegalArgumentException.class, action);
+  }
+
   @Test
   void shouldThrowExceptionWhenLastModifiedCalledOnNonExistentFile() throws IOException {
     s3Driver.insertFile(UnixPath.of(randomString()),randomString());
@@ -556,6 +1563,47 @@ class S3DriverTest {
     return FAKER.lorem().word();
   }
 
+  private static byte[] randomBytes(int size) {
+    var bytes = new byte[size];
+    new Random().nextBytes(bytes);
+    return bytes;
+  }
+
+  // Returns the bytes without writing them, so that streams of many gigabytes are cheap to read.
+  private static InputStream streamOfSize(long size) {
+    return new InputStream() {
+      private long remaining = size;
+
+      @Override
+      public int read() {
+        if (remaining == 0) {
+          return -1;
+        }
+        remaining--;
+        return 0;
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) {
+        if (remaining == 0) {
+          return -1;
+        }
+        var bytesRead = (int) Math.min(length, remaining);
+        remaining -= bytesRead;
+        return bytesRead;
+      }
+    };
+  }
+
+  private static InputStream failingInputStream() {
+    return new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Reading failed");
+      }
+    };
+  }
+
   private static UnixPath constructNestedPath() {
     UnixPath expectedFileName = UnixPath.of(randomFileName());
 
@@ -606,6 +1654,173 @@ class S3DriverTest {
     return FAKER.lorem().paragraph(10);
   }
 
+  private static class ZlibCodec implements CompressionCodec {
+
+    public static final String EXTENSION = ".zz";
+
+    @Override
+    public String fileExtension() {
+      return EXTENSION;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream target) {
+      return new DeflaterOutputStream(target);
+    }
+
+    @Override
+    public InputStream decompress(InputStream compressed) {
+      return new InflaterInputStream(compressed);
+    }
+  }
+
+  private static class CloseTrackingS3Client implements S3Client {
+
+    private final S3Client s3Client;
+    private final AtomicBoolean responseStreamClosed = new AtomicBoolean(false);
+
+    public CloseTrackingS3Client(S3Client s3Client) {
+      this.s3Client = s3Client;
+    }
+
+    @Override
+    public String serviceName() {
+      return "CloseTrackingS3Client";
+    }
+
+    @Override
+    public void close() {
+      //NO-OP
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest putObjectRequest, RequestBody requestBody) {
+      return s3Client.putObject(putObjectRequest, requestBody);
+    }
+
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest getObjectRequest,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+      return s3Client.getObject(getObjectRequest,
+        (response, inputStream) -> responseTransformer.transform(response,
+          AbortableInputStream.create(new FilterInputStream(inputStream) {
+            @Override
+            public void close() throws IOException {
+              responseStreamClosed.set(true);
+              super.close();
+            }
+          })));
+    }
+
+    public boolean isResponseStreamClosed() {
+      return responseStreamClosed.get();
+    }
+  }
+
+  private static class FailingCopyS3Client extends FakeS3Client {
+
+    public static final String FAILING_KEY = "failing.txt";
+
+    @Override
+    public CopyObjectResponse copyObject(CopyObjectRequest copyObjectRequest) {
+      if (copyObjectRequest.sourceKey().endsWith(FAILING_KEY)) {
+        throw S3Exception.builder().message("Copy failed").build();
+      }
+      return super.copyObject(copyObjectRequest);
+    }
+  }
+
+  private static class FailingDeleteS3Client extends FakeS3Client {
+
+    public static final String FAILING_KEY = "failing.txt";
+    public static final String FAILING_BATCH_KEY = "failing-batch.txt";
+    public static final String ERROR_CODE = "AccessDenied";
+
+    @Override
+    public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest deleteObjectsRequest) {
+      var keys = deleteObjectsRequest.delete().objects();
+      if (keys.stream().anyMatch(key -> key.key().endsWith(FAILING_BATCH_KEY))) {
+        throw S3Exception.builder().message("Delete failed").build();
+      }
+      var deletableKeys = keys.stream()
+        .filter(key -> !key.key().endsWith(FAILING_KEY))
+        .toList();
+      super.deleteObjects(deleteObjectsRequest.toBuilder()
+        .delete(deleteObjectsRequest.delete().toBuilder().objects(deletableKeys).build())
+        .build());
+      var errors = keys.stream()
+        .filter(key -> key.key().endsWith(FAILING_KEY))
+        .map(key -> S3Error.builder().key(key.key()).code(ERROR_CODE).message("Denied").build())
+        .toList();
+      return DeleteObjectsResponse.builder().errors(errors).build();
+    }
+  }
+
+  private static class ConcurrencyTrackingS3Client implements S3Client {
+
+    private final S3Client s3Client;
+    private final AtomicInteger activeDownloads = new AtomicInteger();
+    private final AtomicInteger maxConcurrentDownloads = new AtomicInteger();
+    private final AtomicInteger activeListings = new AtomicInteger();
+    private final AtomicInteger maxConcurrentListings = new AtomicInteger();
+
+    public ConcurrencyTrackingS3Client(S3Client s3Client) {
+      this.s3Client = s3Client;
+    }
+
+    @Override
+    public String serviceName() {
+      return "ConcurrencyTrackingS3Client";
+    }
+
+    @Override
+    public void close() {
+      //NO-OP
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest putObjectRequest, RequestBody requestBody) {
+      return s3Client.putObject(putObjectRequest, requestBody);
+    }
+
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request listObjectsV2Request) {
+      var active = activeListings.incrementAndGet();
+      maxConcurrentListings.accumulateAndGet(active, Math::max);
+      try {
+        Thread.sleep(10);
+        return s3Client.listObjectsV2(listObjectsV2Request);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      } finally {
+        activeListings.decrementAndGet();
+      }
+    }
+
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest getObjectRequest,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+      var active = activeDownloads.incrementAndGet();
+      maxConcurrentDownloads.accumulateAndGet(active, Math::max);
+      try {
+        Thread.sleep(10);
+        return s3Client.getObject(getObjectRequest, responseTransformer);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      } finally {
+        activeDownloads.decrementAndGet();
+      }
+    }
+
+    public int getMaxConcurrentDownloads() {
+      return maxConcurrentDownloads.get();
+    }
+
+    public int getMaxConcurrentListings() {
+      return maxConcurrentListings.get();
+    }
+  }
+
   private static class ReportTransformerS3Client implements S3Client {
 
     private final S3Client s3Client;
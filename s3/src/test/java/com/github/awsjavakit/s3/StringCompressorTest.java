@@ -0,0 +1,86 @@
+package com.github.awsjavakit.s3;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import net.datafaker.providers.base.BaseFaker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StringCompressorTest {
+
+  private static final BaseFaker FAKER = new BaseFaker();
+
+  @Test
+  void shouldCompressListOfLinesAsJsonLines() throws IOException {
+    var input = randomLines(1000);
+    var compressed = new StringCompressor(input).gzippedData();
+    assertThat(decompress(compressed), is(equalTo(input)));
+  }
+
+  @Test
+  void shouldProduceTheSameDataWhenListCompressorIsReadMoreThanOnce() throws IOException {
+    var input = randomLines(10);
+    var compressor = new StringCompressor(input);
+    assertThat(decompress(compressor.gzippedData()), is(equalTo(input)));
+    assertThat(decompress(compressor.gzippedData()), is(equalTo(input)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION,
+    Deflater.BEST_COMPRESSION})
+  void shouldCompressStreamOfLinesLazilyWithAnyCompressionLevel(int compressionLevel)
+    throws IOException {
+    var input = randomLines(1000);
+    var compressed = StringCompressor.create(input.stream(), compressionLevel, 512).gzippedData();
+    assertThat(decompress(compressed), is(equalTo(input)));
+  }
+
+  @Test
+  void shouldNotConsumeMoreLinesThanNeededToFillTheReadBuffer() throws IOException {
+    var consumedLines = new int[1];
+    var infiniteLines = Stream.generate(() -> {
+      consumedLines[0]++;
+      return FAKER.lorem().paragraph();
+    });
+    try (var compressed = StringCompressor.create(infiniteLines).gzippedData()) {
+      var someBytes = compressed.readNBytes(1024);
+      assertThat(someBytes.length, is(equalTo(1024)));
+    }
+    assertThat(consumedLines[0], is(lessThan(10_000)));
+  }
+
+  @Test
+  void shouldReturnValidGzipDataWhenInputIsEmpty() throws IOException {
+    var compressed = StringCompressor.create(Stream.empty()).gzippedData();
+    assertThat(decompress(compressed), is(equalTo(List.of())));
+  }
+
+  private static List<String> randomLines(int numberOfLines) {
+    return IntStream.range(0, numberOfLines).boxed()
+      .map(ignored -> FAKER.lorem().paragraph())
+      .toList();
+  }
+
+  private static List<String> decompress(InputStream compressed) throws IOException {
+    var bytes = compressed.readAllBytes();
+    try (var reader = new BufferedReader(new InputStreamReader(
+      new GZIPInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8))) {
+      return reader.lines().toList();
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package com.github.awsjavakit.testingutils.aws;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
 import software.amazon.awssdk.services.cloudwatch.model.MissingRequiredParameterException;
 import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
@@ -12,7 +12,7 @@ public class FakeCloudWatchClient implements CloudWatchClient {
   public final List<PutMetricDataRequest> putMetricDataRequests;
 
   public FakeCloudWatchClient() {
-    putMetricDataRequests = new ArrayList<>();
+    putMetricDataRequests = new CopyOnWriteArrayList<>();
   }
 
   @Override
@@ -0,0 +1,150 @@
+package com.github.awsjavakit.testingutils.aws;
+
+import com.github.awsjavakit.misc.JacocoGenerated;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectTaggingResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+/**
+ * Asynchronous fake S3 client. Requests are executed on virtual threads against a
+ * {@link FakeS3Client}, which can be shared with synchronous code in order to inspect or prepare
+ * the stored objects. Requests to the wrapped client are serialized, so the fake can be used with
+ * any number of concurrent requests.
+ */
+@JacocoGenerated
+public class FakeS3AsyncClient implements S3AsyncClient {
+
+  private static final Executor VIRTUAL_THREADS = runnable -> Thread.ofVirtual().start(runnable);
+  private final FakeS3Client s3Client;
+
+  public FakeS3AsyncClient() {
+    this(new FakeS3Client());
+  }
+
+  public FakeS3AsyncClient(FakeS3Client s3Client) {
+    this.s3Client = s3Client;
+  }
+
+  @Override
+  public CompletableFuture<PutObjectResponse> putObject(PutObjectRequest putObjectRequest,
+    AsyncRequestBody requestBody) {
+    return collect(requestBody)
+      .thenApplyAsync(bytes -> execute(
+        () -> s3Client.putObject(putObjectRequest, RequestBody.fromBytes(bytes))), VIRTUAL_THREADS);
+  }
+
+  @Override
+  public <ReturnT> CompletableFuture<ReturnT> getObject(GetObjectRequest getObjectRequest,
+    AsyncResponseTransformer<GetObjectResponse, ReturnT> asyncResponseTransformer) {
+    var result = asyncResponseTransformer.prepare();
+    VIRTUAL_THREADS.execute(() -> {
+      try {
+        var response = execute(() -> s3Client.getObjectAsBytes(getObjectRequest));
+        asyncResponseTransformer.onResponse(response.response());
+        asyncResponseTransformer.onStream(AsyncRequestBody.fromBytes(response.asByteArray()));
+      } catch (RuntimeException exception) {
+        asyncResponseTransformer.exceptionOccurred(exception);
+      }
+    });
+    return result;
+  }
+
+  @Override
+  public CompletableFuture<ListObjectsV2Response> listObjectsV2(
+    ListObjectsV2Request listObjectsV2Request) {
+    return supply(() -> s3Client.listObjectsV2(listObjectsV2Request));
+  }
+
+  @Override
+  public CompletableFuture<CopyObjectResponse> copyObject(CopyObjectRequest copyObjectRequest) {
+    return supply(() -> s3Client.copyObject(copyObjectRequest));
+  }
+
+  @Override
+  public CompletableFuture<GetObjectTaggingResponse> getObjectTagging(
+    GetObjectTaggingRequest getObjectTaggingRequest) {
+    return supply(() -> s3Client.getObjectTagging(getObjectTaggingRequest));
+  }
+
+  @Override
+  public CompletableFuture<HeadObjectResponse> headObject(HeadObjectRequest headObjectRequest) {
+    return supply(() -> s3Client.headObject(headObjectRequest));
+  }
+
+  @Override
+  public String serviceName() {
+    return "FakeS3AsyncClient";
+  }
+
+  @Override
+  public void close() {
+    //NO-OP;
+  }
+
+  public FakeS3Client getS3Client() {
+    return s3Client;
+  }
+
+  private <T> CompletableFuture<T> supply(Supplier<T> action) {
+    return CompletableFuture.supplyAsync(() -> execute(action), VIRTUAL_THREADS);
+  }
+
+  // The wrapped client is not thread-safe, so concurrent requests are applied one at a time.
+  private <T> T execute(Supplier<T> action) {
+    return s3Client.locked(action);
+  }
+
+  private static CompletableFuture<byte[]> collect(AsyncRequestBody requestBody) {
+    var collector = new BodyCollector();
+    requestBody.subscribe(collector);
+    return collector.result;
+  }
+
+  private static final class BodyCollector implements Subscriber<ByteBuffer> {
+
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ByteBuffer byteBuffer) {
+      var bytes = new byte[byteBuffer.remaining()];
+      byteBuffer.get(bytes);
+      content.writeBytes(bytes);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      result.complete(content.toByteArray());
+    }
+  }
+}
@@ -6,26 +6,53 @@ import static java.util.Objects.nonNull;
 import com.github.awsjavakit.misc.JacocoGenerated;
 import com.github.awsjavakit.misc.paths.UnixPath;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
 import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
@@ -37,13 +64,18 @@ import software.amazon.awssdk.services.s3.model.ListObjectsResponse;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectTaggingRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectTaggingResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.services.s3.model.Tag;
 import software.amazon.awssdk.services.s3.model.Tagging;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
 @JacocoGenerated
 @SuppressWarnings({"PMD.CouplingBetweenObjects", "PMD.UnusedPrivateMethod"})
@@ -52,11 +84,20 @@ public class FakeS3Client implements S3Client {
   public static final String TAG_SEPARATOR = "&";
   public static final String TAG_KEY_VALUE_SEPARATOR = "=";
   private static final int START_FROM_BEGINNING = 0;
+  private static final int NOT_MODIFIED = 304;
+  private static final int PRECONDITION_FAILED = 412;
+  private static final String ANY_ETAG = "*";
+  private static final int MAX_KEYS_PER_DELETE = 1000;
+  private static final int BAD_REQUEST = 400;
   private final Map<String, Map<String, ByteBuffer>> filesAndContent;
   private final Map<String, Map<String, Instant>> lastModified;
   private final Map<String, Map<String, List<Tag>>> tagStore;
+  private final Map<String, Map<String, String>> deletedKeys;
   private final List<CopyObjectRequest> copyRequests;
+  private final ConcurrentMap<String, MultipartUpload> multipartUploads;
+  private final List<UploadPartRequest> uploadPartRequests;
   private final Clock clock;
+  private final Lock lock = new ReentrantLock();
 
   public FakeS3Client() {
     this(Clock.systemDefaultZone());
@@ -68,10 +109,67 @@ public class FakeS3Client implements S3Client {
     this.copyRequests = new ArrayList<>();
     this.clock = clock;
     this.tagStore = new LinkedHashMap<>();
+    this.deletedKeys = new HashMap<>();
+    this.multipartUploads = new ConcurrentHashMap<>();
+    this.uploadPartRequests = new CopyOnWriteArrayList<>();
+  }
+
+  @Override
+  public CreateMultipartUploadResponse createMultipartUpload(
+    CreateMultipartUploadRequest createMultipartUploadRequest) {
+    var uploadId = UUID.randomUUID().toString();
+    multipartUploads.put(uploadId, new MultipartUpload(createMultipartUploadRequest.bucket(),
+      createMultipartUploadRequest.key()));
+    return CreateMultipartUploadResponse.builder()
+      .bucket(createMultipartUploadRequest.bucket())
+      .key(createMultipartUploadRequest.key())
+      .uploadId(uploadId)
+      .build();
+  }
+
+  //TODO: fix if necessary
+  @SuppressWarnings("PMD.CloseResource")
+  @Override
+  public UploadPartResponse uploadPart(UploadPartRequest uploadPartRequest,
+    RequestBody requestBody) {
+    var upload = fetchMultipartUpload(uploadPartRequest.uploadId());
+    var content = readAllBytes(requestBody.contentStreamProvider().newStream());
+    var eTag = UUID.randomUUID().toString();
+    upload.parts().put(uploadPartRequest.partNumber(), new UploadedPart(eTag, content));
+    uploadPartRequests.add(uploadPartRequest);
+    return UploadPartResponse.builder().eTag(eTag).build();
+  }
+
+  @Override
+  public CompleteMultipartUploadResponse completeMultipartUpload(
+    CompleteMultipartUploadRequest completeMultipartUploadRequest) {
+    var upload = fetchMultipartUpload(completeMultipartUploadRequest.uploadId());
+    var content = new ByteArrayOutputStream();
+    for (var completedPart : completeMultipartUploadRequest.multipartUpload().parts()) {
+      content.writeBytes(upload.contentOf(completedPart));
+    }
+    storeObject(upload.bucket(), upload.key(), content.toByteArray());
+    multipartUploads.remove(completeMultipartUploadRequest.uploadId());
+    return CompleteMultipartUploadResponse.builder()
+      .bucket(upload.bucket())
+      .key(upload.key())
+      .build();
+  }
+
+  @Override
+  public AbortMultipartUploadResponse abortMultipartUpload(
+    AbortMultipartUploadRequest abortMultipartUploadRequest) {
+    fetchMultipartUpload(abortMultipartUploadRequest.uploadId());
+    multipartUploads.remove(abortMultipartUploadRequest.uploadId());
+    return AbortMultipartUploadResponse.builder().build();
   }
 
   @Override
   public CopyObjectResponse copyObject(CopyObjectRequest copyObjectRequest) {
+    return locked(() -> copy(copyObjectRequest));
+  }
+
+  private CopyObjectResponse copy(CopyObjectRequest copyObjectRequest) {
     createBucketEntry(copyObjectRequest.sourceBucket());
     createBucketEntry(copyObjectRequest.destinationBucket());
     this.copyRequests.add(copyObjectRequest);
@@ -94,9 +192,31 @@ public class FakeS3Client implements S3Client {
   @Override
   public <ReturnT> ReturnT getObject(GetObjectRequest getObjectRequest,
     ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+    var bucket = getObjectRequest.bucket();
     var filename = getObjectRequest.key();
-    var contents = extractContent(getObjectRequest.bucket(), filename).array();
+    var content = extractContent(bucket, filename);
+    var eTag = eTagOf(content);
+    var objectLastModified = lastModifiedOf(bucket, filename);
+    if (isPreconditionFailed(getObjectRequest, eTag)) {
+      throw S3Exception.builder()
+        .statusCode(PRECONDITION_FAILED)
+        .message("Precondition Failed")
+        .build();
+    }
+    if (isNotModified(getObjectRequest, eTag, objectLastModified)) {
+      throw S3Exception.builder()
+        .statusCode(NOT_MODIFIED)
+        .message("Not Modified")
+        .build();
+    }
+    var contents = content.array();
+    if (nonNull(getObjectRequest.range())) {
+      return getRange(contents, ByteRange.parse(getObjectRequest.range(), contents.length), eTag,
+        responseTransformer);
+    }
     var response = GetObjectResponse.builder().contentLength((long) contents.length)
+      .eTag(eTag)
+      .lastModified(objectLastModified)
       .build();
     return transformResponse(responseTransformer, new ByteArrayInputStream(contents), response);
   }
@@ -116,34 +236,40 @@ public class FakeS3Client implements S3Client {
   public HeadObjectResponse headObject(HeadObjectRequest headObjectRequest) {
     var bucket = headObjectRequest.bucket();
     var key = headObjectRequest.key();
-    failIfFileDoesNotExist(bucket, key);
-
-    var lastModified = Optional.ofNullable(this.lastModified.get(bucket))
-      .map(lastMod -> lastMod.get(key))
-      .orElse(null);
+    var contents = extractContent(bucket, key);
 
     return HeadObjectResponse.builder()
-      .lastModified(lastModified)
+      .lastModified(lastModifiedOf(bucket, key))
+      .contentLength((long) contents.capacity())
+      .eTag(eTagOf(contents))
       .build();
   }
 
   /**
-   * Lists objects paginated one by one.
+   * Lists objects paginated one by one. When the request specifies a delimiter, the keys that
+   * contain the delimiter after the prefix are grouped into common prefixes, as S3 does.
    *
    * @param listObjectsRequest the request
    * @return Response containing only one object.
    */
   @Override
   public ListObjectsResponse listObjects(ListObjectsRequest listObjectsRequest) {
+    return locked(() -> list(listObjectsRequest));
+  }
+
+  private ListObjectsResponse list(ListObjectsRequest listObjectsRequest) {
+    if (nonNull(listObjectsRequest.delimiter())) {
+      return listObjectsWithDelimiter(listObjectsRequest);
+    }
     var fileKeys = new ArrayList<>(getBucketContents(listObjectsRequest.bucket()).keySet());
 
-    var startIndex = calculateStartIndex(fileKeys, listObjectsRequest.marker());
-    var excludedEndIndex = calculateEndIndex(fileKeys, listObjectsRequest.marker(),
-      listObjectsRequest.maxKeys());
+    var startIndex = startIndexAfter(listObjectsRequest.bucket(), fileKeys,
+      listObjectsRequest.marker());
+    var excludedEndIndex = Math.min(startIndex + listObjectsRequest.maxKeys(), fileKeys.size());
 
     var files = fileKeys.subList(startIndex, excludedEndIndex).stream()
       .filter(filePath -> filePathIsInSpecifiedParentFolder(filePath, listObjectsRequest))
-      .map(filename -> S3Object.builder().key(filename).build())
+      .map(filename -> listedObject(listObjectsRequest.bucket(), filename))
       .collect(Collectors.toList());
     var nextStartListingPoint = calculateNestStartListingPoint(fileKeys, excludedEndIndex);
 
@@ -159,17 +285,51 @@ public class FakeS3Client implements S3Client {
       .marker(v2Request.continuationToken())
       .maxKeys(v2Request.maxKeys())
       .prefix(v2Request.prefix())
+      .delimiter(v2Request.delimiter())
       .build();
     var oldResponse = listObjects(oldRequest);
     return ListObjectsV2Response
       .builder()
       .contents(oldResponse.contents())
+      .commonPrefixes(oldResponse.commonPrefixes())
+      .delimiter(v2Request.delimiter())
       .isTruncated(oldResponse.isTruncated())
       .continuationToken(v2Request.continuationToken())
       .nextContinuationToken(oldResponse.nextMarker())
       .build();
   }
 
+  @Override
+  public DeleteObjectResponse deleteObject(DeleteObjectRequest deleteObjectRequest) {
+    locked(() -> removeObjects(deleteObjectRequest.bucket(), List.of(deleteObjectRequest.key())));
+    return DeleteObjectResponse.builder().build();
+  }
+
+  /**
+   * Deletes up to 1000 objects. As in S3, deleting an object that does not exist succeeds, and in
+   * quiet mode the response reports only the errors.
+   *
+   * @param deleteObjectsRequest the request
+   * @return the deleted objects, or no objects in quiet mode.
+   */
+  @Override
+  public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest deleteObjectsRequest) {
+    var keys = deleteObjectsRequest.delete().objects().stream()
+      .map(ObjectIdentifier::key)
+      .toList();
+    if (keys.size() > MAX_KEYS_PER_DELETE) {
+      throw S3Exception.builder()
+        .statusCode(BAD_REQUEST)
+        .message("A delete request may contain at most " + MAX_KEYS_PER_DELETE + " keys")
+        .build();
+    }
+    locked(() -> removeObjects(deleteObjectsRequest.bucket(), keys));
+    var deleted = Boolean.TRUE.equals(deleteObjectsRequest.delete().quiet())
+                  ? List.<DeletedObject>of()
+                  : keys.stream().map(key -> DeletedObject.builder().key(key).build()).toList();
+    return DeleteObjectsResponse.builder().deleted(deleted).build();
+  }
+
   //TODO: fix if necessary
   @SuppressWarnings("PMD.CloseResource")
   @Override
@@ -177,9 +337,7 @@ public class FakeS3Client implements S3Client {
     var bucketName = putObjectRequest.bucket();
     var path = putObjectRequest.key();
     var content = requestBody.contentStreamProvider().newStream();
-    createBucketEntry(bucketName);
-    this.filesAndContent.get(bucketName).put(path, inputSteamToByteBuffer(content));
-    this.lastModified.get(bucketName).put(path, clock.instant());
+    storeObject(bucketName, path, readAllBytes(content));
     return PutObjectResponse.builder().build();
   }
 
@@ -210,6 +368,14 @@ public class FakeS3Client implements S3Client {
     return copyRequests;
   }
 
+  public List<UploadPartRequest> getUploadPartRequests() {
+    return uploadPartRequests;
+  }
+
+  public boolean hasPendingMultipartUploads() {
+    return !multipartUploads.isEmpty();
+  }
+
   private static List<Tag> extractTagsList(String stringTags) {
     return Optional.ofNullable(stringTags)
       .map(tagsString -> Arrays.stream(tagsString.split(TAG_SEPARATOR))
@@ -220,10 +386,6 @@ public class FakeS3Client implements S3Client {
       .orElse(Collections.emptyList());
   }
 
-  private static ByteBuffer inputSteamToByteBuffer(InputStream inputStream) {
-    return ByteBuffer.wrap(readAllBytes(inputStream));
-  }
-
   private static byte[] readAllBytes(InputStream inputStream) {
     try {
       return inputStream.readAllBytes();
@@ -232,6 +394,38 @@ public class FakeS3Client implements S3Client {
     }
   }
 
+  // Mirrors the ETag of S3 for objects uploaded with a single PUT: the quoted MD5 of the content.
+  private static String eTagOf(ByteBuffer content) {
+    if (isNull(content)) {
+      return null;
+    }
+    try {
+      var digest = MessageDigest.getInstance("MD5").digest(content.array());
+      return "\"" + HexFormat.of().formatHex(digest) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static boolean isPreconditionFailed(GetObjectRequest request, String eTag) {
+    return nonNull(request.ifMatch())
+      && !ANY_ETAG.equals(request.ifMatch())
+      && !request.ifMatch().equals(eTag);
+  }
+
+  // If-None-Match takes precedence over If-Modified-Since, as in S3. HTTP dates have a precision of
+  // one second, so the timestamps are compared in seconds.
+  private static boolean isNotModified(GetObjectRequest request, String eTag,
+    Instant lastModified) {
+    if (nonNull(request.ifNoneMatch())) {
+      return ANY_ETAG.equals(request.ifNoneMatch()) || request.ifNoneMatch().equals(eTag);
+    }
+    return nonNull(request.ifModifiedSince())
+      && nonNull(lastModified)
+      && !lastModified.truncatedTo(ChronoUnit.SECONDS)
+      .isAfter(request.ifModifiedSince().truncatedTo(ChronoUnit.SECONDS));
+  }
+
   private static int indexOfLastReadFile(List<String> fileKeys, String marker) {
     int indexOfLastFileRead = fileKeys.indexOf(marker);
     if (indexOfLastFileRead < 0) {
@@ -244,6 +438,131 @@ public class FakeS3Client implements S3Client {
     return String.format("Bucket %s does not contain key %s", bucket, filename);
   }
 
+  /**
+   * Runs the action while holding the lock that guards the stored objects, so that the action
+   * sees and leaves the store in a consistent state.
+   *
+   * @param action the action to run
+   * @param <T>    the type of the result of the action
+   * @return the result of the action
+   */
+  <T> T locked(Supplier<T> action) {
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void locked(Runnable action) {
+    locked(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  private void storeObject(String bucketName, String key, byte[] content) {
+    locked(() -> {
+      createBucketEntry(bucketName);
+      Optional.ofNullable(deletedKeys.get(bucketName)).ifPresent(deleted -> deleted.remove(key));
+      this.filesAndContent.get(bucketName).put(key, ByteBuffer.wrap(content));
+      this.lastModified.get(bucketName).put(key, clock.instant());
+    });
+  }
+
+  // Every deleted key remembers the last remaining key before it, so that a listing can continue
+  // from a marker that has been deleted in the meantime, as it can in S3.
+  private void removeObjects(String bucket, Collection<String> keys) {
+    var contents = filesAndContent.get(bucket);
+    if (isNull(contents)) {
+      return;
+    }
+    var keysToDelete = new HashSet<>(keys);
+    var deleted = deletedKeys.computeIfAbsent(bucket, ignored -> new HashMap<>());
+    String lastRemainingKey = null;
+    for (var iterator = contents.keySet().iterator(); iterator.hasNext(); ) {
+      var key = iterator.next();
+      if (keysToDelete.contains(key)) {
+        deleted.put(key, lastRemainingKey);
+        iterator.remove();
+        lastModified.get(bucket).remove(key);
+        Optional.ofNullable(tagStore.get(bucket)).ifPresent(tags -> tags.remove(key));
+      } else {
+        lastRemainingKey = key;
+      }
+    }
+  }
+
+  private int startIndexAfter(String bucket, List<String> fileKeys, String marker) {
+    var deleted = deletedKeys.getOrDefault(bucket, Map.of());
+    var remainingMarker = marker;
+    while (nonNull(remainingMarker) && !fileKeys.contains(remainingMarker)
+      && deleted.containsKey(remainingMarker)) {
+      remainingMarker = deleted.get(remainingMarker);
+    }
+    if (isNull(remainingMarker)) {
+      return START_FROM_BEGINNING;
+    }
+    return remainingMarker.equals(marker)
+           ? calculateStartIndex(fileKeys, marker)
+           : fileKeys.indexOf(remainingMarker) + 1;
+  }
+
+  private S3Object listedObject(String bucket, String key) {
+    var content = getBucketContents(bucket).get(key);
+    return S3Object.builder()
+      .key(key)
+      .eTag(eTagOf(content))
+      .size(isNull(content) ? null : (long) content.capacity())
+      .lastModified(lastModified.get(bucket).get(key))
+      .build();
+  }
+
+  private ListObjectsResponse listObjectsWithDelimiter(ListObjectsRequest listObjectsRequest) {
+    var bucket = listObjectsRequest.bucket();
+    var prefix = Optional.ofNullable(listObjectsRequest.prefix()).orElse("");
+    var entries = getBucketContents(bucket).keySet().stream()
+      .filter(key -> key.startsWith(prefix))
+      .map(key -> ListingEntry.of(key, prefix, listObjectsRequest.delimiter()))
+      .distinct()
+      .toList();
+    var names = entries.stream().map(ListingEntry::name).toList();
+    var startIndex = calculateStartIndex(names, listObjectsRequest.marker());
+    var excludedEndIndex = calculateEndIndex(names, listObjectsRequest.marker(),
+      listObjectsRequest.maxKeys());
+    var page = entries.subList(startIndex, excludedEndIndex);
+    var files = page.stream()
+      .filter(entry -> !entry.isCommonPrefix())
+      .map(entry -> listedObject(bucket, entry.name()))
+      .toList();
+    var commonPrefixes = page.stream()
+      .filter(ListingEntry::isCommonPrefix)
+      .map(entry -> CommonPrefix.builder().prefix(entry.name()).build())
+      .toList();
+    var nextStartListingPoint = calculateNestStartListingPoint(names, excludedEndIndex);
+    return ListObjectsResponse.builder()
+      .contents(files)
+      .commonPrefixes(commonPrefixes)
+      .delimiter(listObjectsRequest.delimiter())
+      .nextMarker(nextStartListingPoint)
+      .isTruncated(nonNull(nextStartListingPoint))
+      .build();
+  }
+
+  private Instant lastModifiedOf(String bucket, String key) {
+    return Optional.ofNullable(this.lastModified.get(bucket))
+      .map(lastMod -> lastMod.get(key))
+      .orElse(null);
+  }
+
+  private MultipartUpload fetchMultipartUpload(String uploadId) {
+    return Optional.ofNullable(multipartUploads.get(uploadId))
+      .orElseThrow(() -> NoSuchUploadException.builder()
+        .message("Upload does not exist: " + uploadId)
+        .build());
+  }
+
   private void addTagsToCopiedObject(CopyObjectRequest copyObjectRequest) {
     var tagList = extractTagsList(copyObjectRequest.tagging());
     putObjectTagging(PutObjectTaggingRequest.builder()
@@ -260,10 +579,6 @@ public class FakeS3Client implements S3Client {
     return filesAndContent.get(bucketName);
   }
 
-  private void failIfFileDoesNotExist(String bucket, String key) {
-    extractContent(bucket, key);
-  }
-
   private void createBucketEntry(String bucketName) {
     if (!filesAndContent.containsKey(bucketName)) {
       filesAndContent.put(bucketName, new LinkedHashMap<>());
@@ -321,6 +636,17 @@ public class FakeS3Client implements S3Client {
     }
   }
 
+  private <ReturnT> ReturnT getRange(byte[] contents, ByteRange range, String eTag,
+    ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+    var response = GetObjectResponse.builder()
+      .contentLength((long) range.length())
+      .eTag(eTag)
+      .contentRange(range.contentRange(contents.length))
+      .build();
+    var rangeContent = new ByteArrayInputStream(contents, range.start(), range.length());
+    return transformResponse(responseTransformer, rangeContent, response);
+  }
+
   private <ReturnT> ReturnT transformResponse(
     ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer,
     InputStream inputStream, GetObjectResponse response) {
@@ -330,4 +656,81 @@ public class FakeS3Client implements S3Client {
       throw new RuntimeException(exception);
     }
   }
+
+  private record MultipartUpload(String bucket, String key,
+                                 ConcurrentMap<Integer, UploadedPart> parts) {
+
+    MultipartUpload(String bucket, String key) {
+      this(bucket, key, new ConcurrentHashMap<>());
+    }
+
+    byte[] contentOf(CompletedPart completedPart) {
+      var part = parts.get(completedPart.partNumber());
+      if (isNull(part) || !part.eTag().equals(completedPart.eTag())) {
+        throw new IllegalStateException("Invalid part: " + completedPart.partNumber());
+      }
+      return part.content();
+    }
+  }
+
+  private record UploadedPart(String eTag, byte[] content) {
+
+  }
+
+  /**
+   * An entry of a delimited listing: either an object key or a common prefix that groups all keys
+   * sharing the same path up to the first delimiter after the listing prefix.
+   */
+  private record ListingEntry(String name, boolean isCommonPrefix) {
+
+    static ListingEntry of(String key, String prefix, String delimiter) {
+      var delimiterIndex = key.indexOf(delimiter, prefix.length());
+      return delimiterIndex < 0
+             ? new ListingEntry(key, false)
+             : new ListingEntry(key.substring(0, delimiterIndex + delimiter.length()), true);
+    }
+  }
+
+  /**
+   * A byte range of the form {@code bytes=start-end}, {@code bytes=start-} or
+   * {@code bytes=-suffixLength}, with the end clamped to the size of the object as S3 does.
+   */
+  private record ByteRange(int start, int end) {
+
+    private static final String UNIT_PREFIX = "bytes=";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    static ByteRange parse(String header, int objectSize) {
+      if (!header.startsWith(UNIT_PREFIX) || !header.contains(RANGE_SEPARATOR)) {
+        throw new IllegalArgumentException("Unsupported range: " + header);
+      }
+      var limits = header.substring(UNIT_PREFIX.length()).split(RANGE_SEPARATOR, 2);
+      var range = limits[0].isEmpty()
+                  ? suffix(Integer.parseInt(limits[1]), objectSize)
+                  : new ByteRange(Integer.parseInt(limits[0]),
+                    limits[1].isEmpty()
+                    ? objectSize - 1
+                    : Math.min(Integer.parseInt(limits[1]), objectSize - 1));
+      if (range.start() > range.end()) {
+        throw S3Exception.builder()
+          .statusCode(RANGE_NOT_SATISFIABLE)
+          .message("The requested range is not satisfiable: " + header)
+          .build();
+      }
+      return range;
+    }
+
+    private static ByteRange suffix(int suffixLength, int objectSize) {
+      return new ByteRange(Math.max(0, objectSize - suffixLength), objectSize - 1);
+    }
+
+    int length() {
+      return end - start + 1;
+    }
+
+    String contentRange(int objectSize) {
+      return String.format("bytes %d-%d/%d", start, end, objectSize);
+    }
+  }
 }
@@ -0,0 +1,80 @@
+package com.github.awsjavakit.testingutils.aws;
+
+import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+class FakeS3AsyncClientTest {
+
+  public static final String SOME_BUCKET = "somebucket";
+
+  @Test
+  void shouldReturnObjectThatWasPutAsynchronously() {
+    var client = new FakeS3AsyncClient();
+    var key = randomString();
+    var content = randomString();
+    client.putObject(putRequest(key), AsyncRequestBody.fromString(content)).join();
+    var retrieved = client.getObject(getRequest(key), AsyncResponseTransformer.toBytes()).join();
+    assertThat(retrieved.asUtf8String(), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldShareObjectsWithTheWrappedSynchronousClient() {
+    var syncClient = new FakeS3Client();
+    var client = new FakeS3AsyncClient(syncClient);
+    var key = randomString();
+    var content = randomString();
+    client.putObject(putRequest(key), AsyncRequestBody.fromString(content)).join();
+    var retrieved = syncClient.getObject(getRequest(key), ResponseTransformer.toBytes());
+    assertThat(retrieved.asUtf8String(), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldCompleteExceptionallyWhenObjectDoesNotExist() {
+    var client = new FakeS3AsyncClient();
+    client.putObject(putRequest(randomString()), AsyncRequestBody.fromString(randomString()))
+      .join();
+    var future = client.getObject(getRequest(randomString()), AsyncResponseTransformer.toBytes());
+    var exception = assertThrows(CompletionException.class, future::join);
+    assertThat(exception.getCause(), is(instanceOf(NoSuchKeyException.class)));
+  }
+
+  @Test
+  void shouldAcceptManyConcurrentRequests() {
+    var client = new FakeS3AsyncClient();
+    var futures = new ArrayList<CompletableFuture<?>>();
+    for (int i = 0; i < 200; i++) {
+      futures.add(client.putObject(putRequest(randomString()),
+        AsyncRequestBody.fromString(randomString())));
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    var listing = client.listObjectsV2(ListObjectsV2Request.builder()
+      .bucket(SOME_BUCKET)
+      .maxKeys(1000)
+      .build()).join();
+    assertThat(listing.contents().size(), is(equalTo(200)));
+  }
+
+  private static PutObjectRequest putRequest(String key) {
+    return PutObjectRequest.builder().bucket(SOME_BUCKET).key(key).build();
+  }
+
+  private static GetObjectRequest getRequest(String key) {
+    return GetObjectRequest.builder().bucket(SOME_BUCKET).key(key).build();
+  }
+}
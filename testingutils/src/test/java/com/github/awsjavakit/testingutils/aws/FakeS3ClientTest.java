@@ -5,6 +5,7 @@ import static com.github.awsjavakit.testingutils.RandomDataGenerator.randomStrin
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
@@ -23,16 +24,29 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
 import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
@@ -41,11 +55,15 @@ import software.amazon.awssdk.services.s3.model.ListObjectsRequest;
 import software.amazon.awssdk.services.s3.model.ListObjectsResponse;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectTaggingRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.services.s3.model.Tag;
 import software.amazon.awssdk.services.s3.model.Tagging;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
 class FakeS3ClientTest {
 
@@ -151,6 +169,108 @@ class FakeS3ClientTest {
     assertThat(listedFiles.size(), is(equalTo(numberOfExpectedFiles)));
   }
 
+  @Test
+  void shouldGroupKeysBelowTheFirstDelimiterIntoCommonPrefixesWhenDelimiterIsSpecified() {
+    var s3Client = new FakeS3Client();
+    var bucket = randomString();
+    putEmptyObject(s3Client, bucket, "folder/file");
+    putEmptyObject(s3Client, bucket, "folder/a/file1");
+    putEmptyObject(s3Client, bucket, "folder/a/file2");
+    putEmptyObject(s3Client, bucket, "folder/b/c/file");
+    putEmptyObject(s3Client, bucket, "other/file");
+
+    var result = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+      .bucket(bucket)
+      .prefix("folder/")
+      .delimiter("/")
+      .maxKeys(1000)
+      .build());
+
+    assertThat(result.contents().stream().map(S3Object::key).toList(), contains("folder/file"));
+    assertThat(result.commonPrefixes().stream().map(CommonPrefix::prefix).toList(),
+      contains("folder/a/", "folder/b/"));
+    assertThat(result.isTruncated(), is(false));
+  }
+
+  @Test
+  void shouldPaginateOverObjectsAndCommonPrefixesWhenDelimiterIsSpecified() {
+    var s3Client = new FakeS3Client();
+    var bucket = randomString();
+    putEmptyObject(s3Client, bucket, "a/file1");
+    putEmptyObject(s3Client, bucket, "a/file2");
+    putEmptyObject(s3Client, bucket, "file");
+
+    var firstPage = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+      .bucket(bucket)
+      .delimiter("/")
+      .maxKeys(1)
+      .build());
+    var secondPage = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+      .bucket(bucket)
+      .delimiter("/")
+      .continuationToken(firstPage.nextContinuationToken())
+      .maxKeys(1)
+      .build());
+
+    assertThat(firstPage.commonPrefixes().stream().map(CommonPrefix::prefix).toList(),
+      contains("a/"));
+    assertThat(firstPage.isTruncated(), is(true));
+    assertThat(secondPage.contents().stream().map(S3Object::key).toList(), contains("file"));
+    assertThat(secondPage.isTruncated(), is(false));
+  }
+
+  @Test
+  void shouldDeleteObjectsAndReportThemUnlessInQuietMode() {
+    var s3Client = new FakeS3Client();
+    var bucket = randomString();
+    putEmptyObject(s3Client, bucket, "first");
+    putEmptyObject(s3Client, bucket, "second");
+    putEmptyObject(s3Client, bucket, "third");
+
+    var response = s3Client.deleteObjects(deleteRequest(bucket, false, "first", "missing"));
+    var quietResponse = s3Client.deleteObjects(deleteRequest(bucket, true, "second"));
+    s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key("third").build());
+
+    assertThat(response.deleted().stream().map(DeletedObject::key).toList(),
+      contains("first", "missing"));
+    assertThat(quietResponse.deleted(), is(empty()));
+    assertThat(s3Client.listObjectsV2(ListObjectsV2Request.builder()
+      .bucket(bucket).maxKeys(10).build()).contents(), is(empty()));
+  }
+
+  @Test
+  void shouldRejectDeleteRequestsWithMoreThanOneThousandKeys() {
+    var s3Client = new FakeS3Client();
+    var keys = IntStream.range(0, 1001).mapToObj(String::valueOf).toArray(String[]::new);
+    var exception = assertThrows(S3Exception.class,
+      () -> s3Client.deleteObjects(deleteRequest(randomString(), true, keys)));
+    assertThat(exception.statusCode(), is(equalTo(400)));
+  }
+
+  @Test
+  void shouldContinueListingFromDeletedMarker() {
+    var s3Client = new FakeS3Client();
+    var bucket = randomString();
+    for (var key : List.of("a", "b", "c", "d")) {
+      putEmptyObject(s3Client, bucket, key);
+    }
+    var firstPage = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+      .bucket(bucket)
+      .maxKeys(2)
+      .build());
+
+    s3Client.deleteObjects(deleteRequest(bucket, true, "a", "b"));
+    var secondPage = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+      .bucket(bucket)
+      .continuationToken(firstPage.nextContinuationToken())
+      .maxKeys(2)
+      .build());
+
+    assertThat(firstPage.nextContinuationToken(), is(equalTo("b")));
+    assertThat(secondPage.contents().stream().map(S3Object::key).toList(), contains("c", "d"));
+    assertThat(secondPage.isTruncated(), is(false));
+  }
+
   @Test
   void shouldThrowExceptionWhenNextMarkerDoesNotExist() {
     var s3Client = new FakeS3Client();
@@ -247,6 +367,117 @@ class FakeS3ClientTest {
     assertThat(exception.getMessage(), containsString(SOME_BUCKET));
   }
 
+  @ParameterizedTest
+  @CsvSource({"bytes=2-5,2345", "bytes=7-,789", "bytes=-3,789", "bytes=8-100,89",
+    "bytes=-50,0123456789"})
+  void shouldReturnRequestedRangeOfObject(String range, String expectedContent) {
+    var client = new FakeS3Client();
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    putObject(client, uri, "0123456789");
+
+    var request = GetObjectRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .range(range)
+      .build();
+    var response = client.getObject(request, ResponseTransformer.toBytes());
+
+    assertThat(response.asUtf8String(), is(equalTo(expectedContent)));
+    assertThat(response.response().contentLength(), is(equalTo((long) expectedContent.length())));
+  }
+
+  @Test
+  void shouldThrowRangeNotSatisfiableWhenRangeStartsAfterTheEndOfTheObject() {
+    var client = new FakeS3Client();
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    putObject(client, uri, "0123456789");
+
+    var request = GetObjectRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .range("bytes=10-20")
+      .build();
+    var exception = assertThrows(S3Exception.class,
+      () -> client.getObject(request, ResponseTransformer.toBytes()));
+
+    assertThat(exception.statusCode(), is(equalTo(416)));
+  }
+
+  @Test
+  void shouldReturnTheSameEtagInListingsAndHeadResponses() {
+    var client = new FakeS3Client();
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    putObject(client, uri, randomString());
+
+    var listedObject = client.listObjectsV2(ListObjectsV2Request.builder()
+        .bucket(uri.getHost())
+        .maxKeys(10)
+        .build())
+      .contents().getFirst();
+    var headResponse = client.headObject(HeadObjectRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .build());
+
+    assertThat(listedObject.eTag(), is(not(nullValue())));
+    assertThat(listedObject.eTag(), is(equalTo(headResponse.eTag())));
+    assertThat(listedObject.lastModified(), is(equalTo(headResponse.lastModified())));
+  }
+
+  @Test
+  void shouldRespondNotModifiedWhenIfNoneMatchEqualsTheEtagOfTheObject() {
+    var client = new FakeS3Client();
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    var content = randomString();
+    putObject(client, uri, content);
+    var eTag = getObject(client, uri).response().eTag();
+
+    var notModified = assertThrows(S3Exception.class,
+      () -> client.getObject(conditionalRequest(uri).ifNoneMatch(eTag).build(),
+        ResponseTransformer.toBytes()));
+    var modified = client.getObject(conditionalRequest(uri).ifNoneMatch("\"other\"").build(),
+      ResponseTransformer.toBytes());
+
+    assertThat(notModified.statusCode(), is(equalTo(304)));
+    assertThat(modified.asUtf8String(), is(equalTo(content)));
+  }
+
+  @Test
+  void shouldRespondNotModifiedWhenObjectHasNotBeenModifiedSinceTheSpecifiedTime() {
+    var now = Instant.now();
+    var clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(now);
+    var client = new FakeS3Client(clock);
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    putObject(client, uri, randomString());
+
+    var notModified = assertThrows(S3Exception.class,
+      () -> client.getObject(conditionalRequest(uri).ifModifiedSince(now).build(),
+        ResponseTransformer.toBytes()));
+    var modified = client.getObject(
+      conditionalRequest(uri).ifModifiedSince(now.minusSeconds(1)).build(),
+      ResponseTransformer.toBytes());
+
+    assertThat(notModified.statusCode(), is(equalTo(304)));
+    assertThat(modified.response().lastModified(), is(equalTo(now)));
+  }
+
+  @Test
+  void shouldReturnContentLengthInHeadResponse() {
+    var client = new FakeS3Client();
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    var content = randomString();
+    putObject(client, uri, content);
+
+    var headRequest = HeadObjectRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .build();
+
+    assertThat(client.headObject(headRequest).contentLength(),
+      is(equalTo((long) content.getBytes(StandardCharsets.UTF_8).length)));
+  }
+
   @Test
   void shouldReturnLastModifiedTimestampWhenFileIsInserted() {
     var fixedTime = randomInstant();
@@ -408,6 +639,77 @@ class FakeS3ClientTest {
     assertThrows(NoSuchKeyException.class, () -> client.headObject(headRequest));
   }
 
+  @Test
+  void shouldAssembleMultipartUploadFromPartsInPartNumberOrderOfCompletionRequest() {
+    var client = new FakeS3Client();
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    var uploadId = client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .build()).uploadId();
+    var secondPart = uploadPart(client, uri, uploadId, 2, "second");
+    var firstPart = uploadPart(client, uri, uploadId, 1, "first");
+
+    client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .uploadId(uploadId)
+      .multipartUpload(CompletedMultipartUpload.builder().parts(firstPart, secondPart).build())
+      .build());
+
+    assertThat(getObject(client, uri).asUtf8String(), is(equalTo("firstsecond")));
+    assertThat(client.getUploadPartRequests().size(), is(equalTo(2)));
+    assertThat(client.hasPendingMultipartUploads(), is(false));
+  }
+
+  @Test
+  void shouldDiscardPartsWhenMultipartUploadIsAborted() {
+    var client = new FakeS3Client();
+    var uri = UriWrapper.fromUri(SOME_BUCKET_URI).addChild(randomString()).getUri();
+    var uploadId = client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .build()).uploadId();
+    uploadPart(client, uri, uploadId, 1, randomString());
+
+    client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+      .bucket(uri.getHost())
+      .key(extractKey(uri))
+      .uploadId(uploadId)
+      .build());
+
+    assertThat(client.hasPendingMultipartUploads(), is(false));
+    assertThrows(NoSuchUploadException.class,
+      () -> uploadPart(client, uri, uploadId, 2, randomString()));
+  }
+
+  private static DeleteObjectsRequest deleteRequest(String bucket, boolean quiet, String... keys) {
+    var objects = Arrays.stream(keys)
+      .map(key -> ObjectIdentifier.builder().key(key).build())
+      .toList();
+    return DeleteObjectsRequest.builder()
+      .bucket(bucket)
+      .delete(Delete.builder().objects(objects).quiet(quiet).build())
+      .build();
+  }
+
+  private static void putEmptyObject(S3Client s3Client, String bucket, String key) {
+    s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(key).build(),
+      RequestBody.empty());
+  }
+
+  private static CompletedPart uploadPart(FakeS3Client client, URI uri, String uploadId,
+                                          int partNumber, String content) {
+    var response = client.uploadPart(UploadPartRequest.builder()
+        .bucket(uri.getHost())
+        .key(extractKey(uri))
+        .uploadId(uploadId)
+        .partNumber(partNumber)
+        .build(),
+      RequestBody.fromString(content));
+    return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+  }
+
   private static ListObjectsRequest createListObjectsRequest(String bucket,
                                                              UnixPath folder,
                                                              int pageSize,
@@ -524,6 +826,12 @@ class FakeS3ClientTest {
     return fakeS3Client.getObject(getObjectRequest, ResponseTransformer.toBytes());
   }
 
+  private static GetObjectRequest.Builder conditionalRequest(URI s3Uri) {
+    return GetObjectRequest.builder()
+      .bucket(s3Uri.getHost())
+      .key(extractKey(s3Uri));
+  }
+
   private void putObject(FakeS3Client fakeS3Client, URI s3Uri, String expectedContent) {
     var putObjectRequest = PutObjectRequest.builder()
       .bucket(s3Uri.getHost())